@@ -0,0 +1,96 @@
+package com.waes.interview.assignment.benchmark;
+
+import com.waes.interview.assignment.compression.OperandCodec;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Benchmark of {@link OperandCodec OperandCodec}s, printing the operands compression table of the README.
+ * <p>
+ * Every codec stores and decodes 1 MB (or less) of Base64 text of several kinds of content. Decoding includes Base64
+ * decoding, as done by <code>GET /v1/diff/{id}</code>. Times are the best of several runs.
+ * <p>
+ * Configured through system properties:
+ * <p>
+ * - benchmark.runs: runs per codec and content (default 40)
+ *
+ * @author Juan Krzemien
+ */
+public final class CodecBenchmark {
+
+  private static final String BINARY = "src/e2e/resources/files/binary.dat";
+  private static final int SIZE = 750_000;
+
+  private CodecBenchmark() {
+  }
+
+  /**
+   * Entry point
+   *
+   * @param args Not used. See class documentation for system properties.
+   * @throws IOException if the End to End binary file cannot be read
+   */
+  public static void main(String[] args) throws IOException {
+    int runs = Integer.getInteger("benchmark.runs", 40);
+
+    System.out.println("| Content | Codec | Base64 bytes | Stored bytes | Ratio | Store (ms) | Decode (ms) |");
+    System.out.println("|---|---|---|---|---|---|---|");
+    for (Map.Entry<String, byte[]> content : contents().entrySet()) {
+      byte[] base64 = Base64.getEncoder().encode(content.getValue());
+      for (OperandCodec codec : OperandCodec.values()) {
+        byte[] stored = null;
+        long store = Long.MAX_VALUE;
+        long decode = Long.MAX_VALUE;
+        for (int run = 0; run < runs; run++) {
+          long start = System.nanoTime();
+          stored = codec.compress(base64);
+          store = Math.min(store, System.nanoTime() - start);
+
+          start = System.nanoTime();
+          byte[] decompressed = codec.decompress(stored, base64.length);
+          Base64.getDecoder().decode(decompressed, new byte[base64.length / 4 * 3]);
+          decode = Math.min(decode, System.nanoTime() - start);
+        }
+        System.out.printf("| %s | %s | %d | %d | %.1f%% | %.2f | %.2f |%n", content.getKey(), codec, base64.length,
+            stored.length, 100.0 * stored.length / base64.length, store / 1e6, decode / 1e6);
+      }
+    }
+  }
+
+  /**
+   * @return Contents to store, by name. All of them are {@link #SIZE SIZE} bytes long (1 MB of Base64 text), except for
+   * the End to End binary file
+   * @throws IOException if the End to End binary file cannot be read
+   */
+  private static Map<String, byte[]> contents() throws IOException {
+    Random random = new Random(1);
+    Map<String, byte[]> contents = new LinkedHashMap<>();
+    contents.put("`binary.dat` (e2e files)", Files.readAllBytes(Paths.get(BINARY)));
+
+    StringBuilder log = new StringBuilder();
+    for (int i = 0; log.length() < SIZE; i++) {
+      log.append(String.format("2018-08-28 12:%02d:%02d.%03d INFO  [worker-%d] c.w.i.a.Service - processed request %d in %d ms%n",
+          (i / 60) % 60, i % 60, i % 1000, i % 8, i, random.nextInt(500)));
+    }
+    contents.put("Text log", Arrays.copyOf(log.toString().getBytes(), SIZE));
+
+    byte[] firmware = new byte[SIZE];
+    byte[] code = new byte[SIZE / 5];
+    random.nextBytes(code);
+    System.arraycopy(code, 0, firmware, 0, code.length);
+    contents.put("Firmware (20% random, zero padded)", firmware);
+
+    byte[] noise = new byte[SIZE];
+    random.nextBytes(noise);
+    contents.put("Random", noise);
+    return contents;
+  }
+
+}
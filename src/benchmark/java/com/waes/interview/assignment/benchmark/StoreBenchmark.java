@@ -0,0 +1,119 @@
+package com.waes.interview.assignment.benchmark;
+
+import com.waes.interview.assignment.App;
+import com.waes.interview.assignment.controllers.DifferencesController;
+import com.waes.interview.assignment.models.DifferencesRequest;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Benchmark of the operands store, printing a row of the operands store throughput table of the README.
+ * <p>
+ * Runs the application in this JVM and calls {@link DifferencesController DifferencesController} directly (no HTTP),
+ * performing one left upload, one right upload and one diff per operation, with random operands and the aligned engine.
+ * A quarter of the operations are run first as warm up.
+ * <p>
+ * Configured through system properties:
+ * <p>
+ * - benchmark.profile: store profile, <code>persistent</code> or <code>shared</code> (default none, in-memory store)
+ * - benchmark.baseline: whether to run the store as it was before its write path was tuned instead (default false):
+ * in-memory, with operands mapped by <code>META-INF/operands-baseline.xml</code>. The profile is ignored then.
+ * - benchmark.size: operand size in bytes, before Base64 encoding (default 16384)
+ * - benchmark.operations: measured operations (default 2000)
+ * <p>
+ * File stores are created in a temporary directory, deleted once done.
+ *
+ * @author Juan Krzemien
+ */
+public final class StoreBenchmark {
+
+  private StoreBenchmark() {
+  }
+
+  /**
+   * Entry point
+   *
+   * @param args Not used. See class documentation for system properties.
+   * @throws IOException if the temporary directory cannot be created
+   */
+  public static void main(String[] args) throws IOException {
+    boolean baseline = Boolean.getBoolean("benchmark.baseline");
+    String profile = baseline ? "" : System.getProperty("benchmark.profile", "");
+    int size = Integer.getInteger("benchmark.size", 16384);
+    int operations = Integer.getInteger("benchmark.operations", 2000);
+
+    Path directory = Files.createTempDirectory("waes-benchmark");
+    List<String> arguments = new ArrayList<>();
+    arguments.add("--server.port=0");
+    arguments.add("--spring.jmx.enabled=false");
+    arguments.add("--logging.level.root=WARN");
+    if (baseline) {
+      arguments.add("--spring.jpa.mapping-resources=META-INF/operands-baseline.xml");
+    }
+    if (!profile.isEmpty()) {
+      arguments.add("--spring.profiles.active=" + profile);
+      arguments.add("--store.file.path=" + directory.resolve("operands"));
+      arguments.add("--store.shared.path=" + directory.resolve("operands"));
+    }
+
+    byte[] data = new byte[size];
+    new Random(1).nextBytes(data);
+    String payload = Base64.getEncoder().encodeToString(data);
+
+    ConfigurableApplicationContext context = new SpringApplicationBuilder(App.class).run(arguments.toArray(new String[0]));
+    try {
+      DifferencesController controller = context.getBean(DifferencesController.class);
+      long id = System.currentTimeMillis() * 1000;
+      run(controller, payload, id, operations / 4);
+      long[] nanos = run(controller, payload, id + operations, operations);
+      String store = baseline ? "Baseline" : profile.isEmpty() ? "In-memory" : "File";
+      System.out.printf("| %s | %d KiB | %d | %.0f | %.0f |%n", store, size / 1024,
+          operations, 2 * operations / (nanos[0] / 1e9), operations / (nanos[1] / 1e9));
+    } finally {
+      context.close();
+      try (Stream<Path> files = Files.walk(directory)) {
+        files.sorted((a, b) -> b.compareTo(a)).forEach(path -> path.toFile().delete());
+      }
+    }
+    // Background threads of the application may outlive its context
+    System.exit(0);
+  }
+
+  /**
+   * Runs operations with consecutive IDs
+   *
+   * @return Nanoseconds spent uploading and diff-ing, in that order
+   */
+  private static long[] run(DifferencesController controller, String payload, long firstId, int operations) {
+    long uploads = 0;
+    long diffs = 0;
+    for (long id = firstId; id < firstId + operations; id++) {
+      long start = System.nanoTime();
+      check(controller.leftOperand(id, new DifferencesRequest(payload)));
+      check(controller.rightOperand(id, new DifferencesRequest(payload)));
+      long uploaded = System.nanoTime();
+      check(controller.diffOperation(id));
+      long diffed = System.nanoTime();
+      uploads += uploaded - start;
+      diffs += diffed - uploaded;
+    }
+    return new long[]{uploads, diffs};
+  }
+
+  private static void check(ResponseEntity<?> response) {
+    if (!response.getStatusCode().is2xxSuccessful()) {
+      throw new IllegalStateException("Operation failed: " + response);
+    }
+  }
+
+}
@@ -0,0 +1,76 @@
+package com.waes.interview.assignment.e2e.load;
+
+import java.util.Arrays;
+
+/**
+ * Collects latency samples of a single endpoint and summarizes them as percentiles.
+ * <p>
+ * Samples are kept exact (no bucketing): a load test of a few minutes produces at most a few hundred thousand of them,
+ * which is cheap to keep and to sort once at the end.
+ *
+ * @author Juan Krzemien
+ */
+final class LatencyRecorder {
+
+  private final String name;
+  private long[] samples = new long[1024];
+  private int count;
+  private int errors;
+
+  LatencyRecorder(String name) {
+    this.name = name;
+  }
+
+  /**
+   * Records a request
+   *
+   * @param nanos   Latency of the request, in nanoseconds
+   * @param success Whether the request got the expected response
+   */
+  synchronized void record(long nanos, boolean success) {
+    if (count == samples.length) {
+      samples = Arrays.copyOf(samples, count * 2);
+    }
+    samples[count++] = nanos;
+    if (!success) {
+      errors++;
+    }
+  }
+
+  /**
+   * Summarizes recorded samples
+   *
+   * @param elapsedNanos Duration of the measured period, in nanoseconds
+   * @return One line report with count, errors, throughput and p50/p99/p999/max latencies in milliseconds
+   */
+  synchronized String report(long elapsedNanos) {
+    long[] sorted = Arrays.copyOf(samples, count);
+    Arrays.sort(sorted);
+    double throughput = count / (elapsedNanos / 1e9);
+    return String.format("%-10s %8d %7d %10.1f %9.2f %9.2f %9.2f %9.2f",
+        name, count, errors, throughput,
+        millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+        millis(percentile(sorted, 0.999)), millis(count > 0 ? sorted[count - 1] : 0));
+  }
+
+  static String header() {
+    return String.format("%-10s %8s %7s %10s %9s %9s %9s %9s",
+        "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "max ms");
+  }
+
+  /**
+   * Nearest rank percentile
+   */
+  private static long percentile(long[] sorted, double percentile) {
+    if (sorted.length == 0) {
+      return 0;
+    }
+    int rank = (int) Math.ceil(percentile * sorted.length);
+    return sorted[Math.max(0, rank - 1)];
+  }
+
+  private static double millis(long nanos) {
+    return nanos / 1e6;
+  }
+
+}
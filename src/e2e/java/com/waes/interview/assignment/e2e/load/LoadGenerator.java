@@ -0,0 +1,162 @@
+package com.waes.interview.assignment.e2e.load;
+
+import com.waes.interview.assignment.e2e.models.DifferencesRequest;
+import com.waes.interview.assignment.e2e.models.DifferencesResponse;
+import io.restassured.response.Response;
+
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.waes.interview.assignment.e2e.TestContext.CONTEXT;
+
+/**
+ * Load generator driving concurrent left/right/diff workflows against a running application, reusing the request
+ * models and the per thread RestAssured specification of the End to End suite.
+ * <p>
+ * Workflows are started at a fixed rate (open model), regardless of how long previous ones take. Latency of whole
+ * workflows is measured from their intended start, so time spent queued behind a saturated server is accounted for
+ * instead of hidden (a.k.a. coordinated omission). Endpoint latencies are measured per request.
+ * <p>
+ * Configured through system properties (see README):
+ * <p>
+ * - load.rate: workflows started per second (default 50)
+ * - load.duration: measured seconds (default 30)
+ * - load.warmup: seconds run before measuring (default 5)
+ * - load.threads: concurrent workflows (default 32)
+ * - load.payload-size: operand size in bytes, before Base64 encoding (default 16384)
+ * - load.differences: bytes flipped in the right operand (default 8)
+ * <p>
+ * Target URL is taken from SUT_ENV environment variable, as in End to End tests.
+ *
+ * @author Juan Krzemien
+ */
+public final class LoadGenerator {
+
+  private static final String LEFT = "/v1/diff/{id}/left";
+  private static final String RIGHT = "/v1/diff/{id}/right";
+  private static final String DIFF = "/v1/diff/{id}";
+
+  private final int rate;
+  private final int durationSeconds;
+  private final int warmupSeconds;
+  private final int threads;
+  private final DifferencesRequest left;
+  private final DifferencesRequest right;
+  private final AtomicLong ids = new AtomicLong(System.currentTimeMillis() * 1000);
+
+  private final LatencyRecorder leftLatency = new LatencyRecorder("left");
+  private final LatencyRecorder rightLatency = new LatencyRecorder("right");
+  private final LatencyRecorder diffLatency = new LatencyRecorder("diff");
+  private final LatencyRecorder workflowLatency = new LatencyRecorder("workflow");
+
+  private LoadGenerator(int rate, int durationSeconds, int warmupSeconds, int threads, int payloadSize, int differences) {
+    this.rate = rate;
+    this.durationSeconds = durationSeconds;
+    this.warmupSeconds = warmupSeconds;
+    this.threads = threads;
+
+    Random random = new Random(payloadSize);
+    byte[] data = new byte[payloadSize];
+    random.nextBytes(data);
+    this.left = new DifferencesRequest(Base64.getEncoder().encodeToString(data));
+    for (int i = 0; i < differences && payloadSize > 0; i++) {
+      data[random.nextInt(payloadSize)] ^= 0xFF;
+    }
+    this.right = new DifferencesRequest(Base64.getEncoder().encodeToString(data));
+  }
+
+  /**
+   * Entry point
+   *
+   * @param args Not used. See class documentation for system properties.
+   * @throws InterruptedException if interrupted while waiting for workflows to finish
+   */
+  public static void main(String[] args) throws InterruptedException {
+    LoadGenerator generator = new LoadGenerator(
+        Integer.getInteger("load.rate", 50),
+        Integer.getInteger("load.duration", 30),
+        Integer.getInteger("load.warmup", 5),
+        Integer.getInteger("load.threads", 32),
+        Integer.getInteger("load.payload-size", 16 * 1024),
+        Integer.getInteger("load.differences", 8));
+    generator.run();
+  }
+
+  private void run() throws InterruptedException {
+    System.out.printf("Running %d workflows/s for %ds (+%ds warm up) on %d threads%n", rate, durationSeconds, warmupSeconds, threads);
+
+    ExecutorService pool = Executors.newFixedThreadPool(threads);
+    long period = TimeUnit.SECONDS.toNanos(1) / rate;
+    long start = System.nanoTime();
+    long warmupEnd = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+    long end = warmupEnd + TimeUnit.SECONDS.toNanos(durationSeconds);
+
+    for (long intended = start; intended < end; intended += period) {
+      long wait = intended - System.nanoTime();
+      if (wait > 0) {
+        LockSupport.parkNanos(wait);
+      }
+      long scheduled = intended;
+      pool.execute(() -> workflow(scheduled, scheduled >= warmupEnd));
+    }
+
+    pool.shutdown();
+    pool.awaitTermination(1, TimeUnit.MINUTES);
+    long elapsed = TimeUnit.SECONDS.toNanos(durationSeconds);
+
+    System.out.println(LatencyRecorder.header());
+    System.out.println(leftLatency.report(elapsed));
+    System.out.println(rightLatency.report(elapsed));
+    System.out.println(diffLatency.report(elapsed));
+    System.out.println(workflowLatency.report(elapsed));
+  }
+
+  /**
+   * Left, right and diff requests of a single operation
+   *
+   * @param intended Instant the workflow was meant to start at
+   * @param measured Whether latencies are recorded (false during warm up)
+   */
+  private void workflow(long intended, boolean measured) {
+    String id = String.valueOf(ids.incrementAndGet());
+    boolean success;
+    try {
+      success = post(LEFT, id, left, measured ? leftLatency : null)
+          && post(RIGHT, id, right, measured ? rightLatency : null)
+          && diff(id, measured ? diffLatency : null);
+    } catch (RuntimeException e) {
+      success = false;
+    }
+    if (measured) {
+      workflowLatency.record(System.nanoTime() - intended, success);
+    }
+  }
+
+  private static boolean post(String endpoint, String id, DifferencesRequest request, LatencyRecorder recorder) {
+    long start = System.nanoTime();
+    Response response = CONTEXT.getSpec().given().body(request).pathParam("id", id).post(endpoint);
+    boolean success = response.statusCode() == 200;
+    record(recorder, start, success);
+    return success;
+  }
+
+  private static boolean diff(String id, LatencyRecorder recorder) {
+    long start = System.nanoTime();
+    Response response = CONTEXT.getSpec().given().pathParam("id", id).get(DIFF);
+    boolean success = response.statusCode() == 200 && response.getBody().as(DifferencesResponse.class).getMessage() != null;
+    record(recorder, start, success);
+    return success;
+  }
+
+  private static void record(LatencyRecorder recorder, long start, boolean success) {
+    if (recorder != null) {
+      recorder.record(System.nanoTime() - start, success);
+    }
+  }
+
+}
@@ -0,0 +1,135 @@
+package com.waes.interview.assignment;
+
+import com.waes.interview.assignment.models.DifferencesRequest;
+import com.waes.interview.assignment.models.DifferencesResponse;
+import com.waes.interview.assignment.routing.ConsistentHashRing;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+
+import java.net.ServerSocket;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+
+import static java.lang.String.format;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.springframework.http.HttpStatus.OK;
+
+/**
+ * Integration test suite for routing operations across instances (<code>routing.peers</code>).
+ * <p>
+ * Starts two application instances, each with its own in-memory database (as separate processes would have), and sends
+ * every step of operations to the instance not owning them.
+ *
+ * @author Juan Krzemien
+ */
+public class PeerRoutingIT {
+
+  private static final Random RANDOM = new Random();
+
+  private final TestRestTemplate rest = new TestRestTemplate();
+
+  private List<String> peers;
+  private ConsistentHashRing ring;
+  private ConfigurableApplicationContext first;
+  private ConfigurableApplicationContext second;
+
+  @Before
+  public void setUp() throws Exception {
+    this.peers = asList("http://localhost:" + freePort(), "http://localhost:" + freePort());
+    this.ring = new ConsistentHashRing(peers, 128);
+    this.first = start(0);
+    this.second = start(1);
+  }
+
+  @After
+  public void tearDown() {
+    second.close();
+    first.close();
+  }
+
+  @Test
+  public void stepsForwardedToOwner() {
+    assertDiffThrough(first, ownedBy(peers.get(1)));
+    assertDiffThrough(second, ownedBy(peers.get(0)));
+
+    assertThat("First instance forwarded every step", forwarded(first), is(3.0));
+    assertThat("Second instance forwarded every step", forwarded(second), is(3.0));
+  }
+
+  @Test
+  public void stepsSpreadAcrossInstances() {
+    long id = ownedBy(peers.get(1));
+    String payload = createBase64Data();
+
+    assertThat("Left upload through non owner", post(first, id, "left", payload).getStatusCode(), is(OK));
+    assertThat("Right upload through owner", post(second, id, "right", payload).getStatusCode(), is(OK));
+
+    ResponseEntity<DifferencesResponse> response = rest.getForEntity(url(first, id, ""), DifferencesResponse.class);
+
+    assertThat("Diff through non owner", response.getBody().getMessage(), is("Byte arrays are equal!"));
+  }
+
+  private void assertDiffThrough(ConfigurableApplicationContext instance, long id) {
+    String payload = createBase64Data();
+
+    assertThat("Left upload", post(instance, id, "left", payload).getStatusCode(), is(OK));
+    assertThat("Right upload", post(instance, id, "right", payload).getStatusCode(), is(OK));
+
+    ResponseEntity<DifferencesResponse> response = rest.getForEntity(url(instance, id, ""), DifferencesResponse.class);
+
+    assertThat("HTTP return code is OK (200)", response.getStatusCode(), is(OK));
+    assertThat("Operands are diff-ed by their owner", response.getBody().getMessage(), is("Byte arrays are equal!"));
+  }
+
+  private long ownedBy(String peer) {
+    long id;
+    do {
+      id = Math.abs(RANDOM.nextLong());
+    } while (!ring.owner(id).equals(peer));
+    return id;
+  }
+
+  private ResponseEntity<DifferencesResponse> post(ConfigurableApplicationContext instance, long id, String side, String payload) {
+    return rest.postForEntity(url(instance, id, "/" + side), new DifferencesRequest(payload), DifferencesResponse.class);
+  }
+
+  private String url(ConfigurableApplicationContext instance, long id, String suffix) {
+    return format("%s/v1/diff/%d%s", peers.get(instance == first ? 0 : 1), id, suffix);
+  }
+
+  private static double forwarded(ConfigurableApplicationContext instance) {
+    return instance.getBean(MeterRegistry.class).get("waes.routing.forwarded").tag("outcome", "success").counter().count();
+  }
+
+  private ConfigurableApplicationContext start(int peer) {
+    String self = peers.get(peer);
+    return new SpringApplicationBuilder(App.class)
+        .run("--server.port=" + self.substring(self.lastIndexOf(':') + 1),
+            "--spring.jmx.enabled=false",
+            "--spring.datasource.url=jdbc:h2:mem:peer" + peer,
+            "--routing.peers=" + String.join(",", peers),
+            "--routing.self=" + self);
+  }
+
+  private static int freePort() throws Exception {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private static String createBase64Data() {
+    byte[] buffer = new byte[1024];
+    RANDOM.nextBytes(buffer);
+    return Base64.getEncoder().encodeToString(buffer);
+  }
+
+}
@@ -0,0 +1,90 @@
+package com.waes.interview.assignment;
+
+import com.waes.interview.assignment.models.DifferencesRequest;
+import com.waes.interview.assignment.models.DifferencesResponse;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.File;
+import java.util.Base64;
+import java.util.Random;
+
+import static java.lang.String.format;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.springframework.http.HttpStatus.OK;
+
+/**
+ * Integration test suite for the persistent operand store ("persistent" profile).
+ * <p>
+ * Uploads operands of the same operation across application restarts, backed by the same H2 database file.
+ *
+ * @author Juan Krzemien
+ */
+public class PersistentStoreIT {
+
+  private static final Random RANDOM = new Random();
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private final TestRestTemplate rest = new TestRestTemplate();
+
+  @Test
+  public void operandsSurviveRestarts() {
+    File store = new File(folder.getRoot(), "waes");
+    long id = Math.abs(RANDOM.nextLong());
+    String payload = createBase64Data();
+
+    ConfigurableApplicationContext instance = start(store);
+    try {
+      assertThat("Left upload before restart", post(instance, id, "left", payload).getStatusCode(), is(OK));
+      assertThat("Operand data is kept in LOB storage", instance.getBean(JdbcTemplate.class).queryForObject(
+          "SELECT TYPE_NAME FROM INFORMATION_SCHEMA.COLUMNS WHERE TABLE_NAME = 'DIFFERENCE_OPERAND' AND COLUMN_NAME = 'OPERAND'",
+          String.class), is("BLOB"));
+    } finally {
+      instance.close();
+    }
+
+    instance = start(store);
+    try {
+      assertThat("Right upload after restart", post(instance, id, "right", payload).getStatusCode(), is(OK));
+
+      ResponseEntity<DifferencesResponse> response = rest.getForEntity(url(instance, id, ""), DifferencesResponse.class);
+
+      assertThat("Diff after restart", response.getStatusCode(), is(OK));
+      assertThat("Operand uploaded before restart is diff-ed", response.getBody().getMessage(), is("Byte arrays are equal!"));
+    } finally {
+      instance.close();
+    }
+  }
+
+  private ResponseEntity<DifferencesResponse> post(ConfigurableApplicationContext instance, long id, String side, String payload) {
+    return rest.postForEntity(url(instance, id, "/" + side), new DifferencesRequest(payload), DifferencesResponse.class);
+  }
+
+  private static String url(ConfigurableApplicationContext instance, long id, String suffix) {
+    String port = instance.getEnvironment().getProperty("local.server.port");
+    return format("http://localhost:%s/v1/diff/%d%s", port, id, suffix);
+  }
+
+  private static ConfigurableApplicationContext start(File store) {
+    // Passed as arguments, as default properties would not override profile specific ones
+    return new SpringApplicationBuilder(App.class)
+        .profiles("persistent")
+        .run("--server.port=0", "--spring.jmx.enabled=false", "--store.file.path=" + store.getAbsolutePath());
+  }
+
+  private static String createBase64Data() {
+    byte[] buffer = new byte[64 * 1024];
+    RANDOM.nextBytes(buffer);
+    return Base64.getEncoder().encodeToString(buffer);
+  }
+
+}
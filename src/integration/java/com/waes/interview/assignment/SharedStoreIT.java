@@ -0,0 +1,181 @@
+package com.waes.interview.assignment;
+
+import com.waes.interview.assignment.models.DifferencesRequest;
+import com.waes.interview.assignment.models.DifferencesResponse;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.http.ResponseEntity;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.springframework.http.HttpStatus.BAD_REQUEST;
+import static org.springframework.http.HttpStatus.OK;
+
+/**
+ * Integration test suite for the shared operand store ("shared" profile).
+ * <p>
+ * Starts two application instances on random ports, sharing an H2 database file, and spreads the steps of operations
+ * across them, as a load balancer would. The first instance runs in this JVM and opens the database file first, so it
+ * serves it. The second one runs in a process of its own (same classpath), so it can only reach the database over TCP
+ * (AUTO_SERVER), as separate instances do.
+ *
+ * @author Juan Krzemien
+ */
+public class SharedStoreIT {
+
+  private static final Random RANDOM = new Random();
+  private static final long STARTUP_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(2);
+
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  private final TestRestTemplate rest = new TestRestTemplate();
+
+  private File store;
+  private ConfigurableApplicationContext firstContext;
+  private Process secondProcess;
+  private String first;
+  private String second;
+  private long id;
+
+  @Before
+  public void setUp() throws Exception {
+    this.store = new File(folder.getRoot(), "waes");
+    this.firstContext = start(store);
+    this.first = "http://localhost:" + firstContext.getEnvironment().getProperty("local.server.port");
+    int port = freePort();
+    File log = folder.newFile("second.log");
+    this.secondProcess = startProcess(store, port, log);
+    this.second = "http://localhost:" + port;
+    this.id = Math.abs(RANDOM.nextLong());
+    awaitStartup(secondProcess, second, log);
+  }
+
+  @After
+  public void tearDown() throws InterruptedException {
+    if (secondProcess != null) {
+      secondProcess.destroy();
+      secondProcess.waitFor(30, TimeUnit.SECONDS);
+    }
+    if (firstContext != null) {
+      firstContext.close();
+    }
+  }
+
+  @Test
+  public void stepsServedByDifferentInstances() {
+    String payload = createBase64Data();
+
+    assertThat("Left upload on first instance", post(first, "left", payload).getStatusCode(), is(OK));
+    assertThat("Right upload on second instance", post(second, "right", payload).getStatusCode(), is(OK));
+
+    ResponseEntity<DifferencesResponse> response = rest.getForEntity(url(first, ""), DifferencesResponse.class);
+
+    assertThat("Diff on first instance", response.getStatusCode(), is(OK));
+    assertThat("Operands uploaded to both instances are diff-ed", response.getBody().getMessage(), is("Byte arrays are equal!"));
+
+    response = rest.getForEntity(url(second, ""), DifferencesResponse.class);
+
+    assertThat("Operands processed by first instance are processed for second instance too", response.getStatusCode(), is(BAD_REQUEST));
+
+    assertThat("Operands are stored in the shared file", new File(store.getPath() + ".mv.db").isFile(), is(true));
+  }
+
+  @Test
+  public void pendingOperandsSeenByEveryInstance() {
+    String payload = createBase64Data();
+
+    assertThat("Left upload on first instance", post(first, "left", payload).getStatusCode(), is(OK));
+
+    ResponseEntity<DifferencesResponse> response = post(second, "left", payload);
+
+    assertThat("Second instance rejects duplicated left operand", response.getStatusCode(), is(BAD_REQUEST));
+    assertThat("Message matches expected value", response.getBody().getMessage(),
+        is("The transaction ID has pending operations. Please, specify a different one."));
+  }
+
+  private ResponseEntity<DifferencesResponse> post(String instance, String side, String payload) {
+    return rest.postForEntity(url(instance, "/" + side), new DifferencesRequest(payload), DifferencesResponse.class);
+  }
+
+  private String url(String instance, String suffix) {
+    return format("%s/v1/diff/%d%s", instance, id, suffix);
+  }
+
+  private static ConfigurableApplicationContext start(File store) {
+    // Passed as arguments, as default properties would not override profile specific ones
+    return new SpringApplicationBuilder(App.class)
+        .profiles("shared")
+        .run("--server.port=0", "--spring.jmx.enabled=false", "--store.shared.path=" + store.getAbsolutePath());
+  }
+
+  /**
+   * Starts an instance in a separate JVM, with the classpath (and module options, if any) of this one
+   */
+  private static Process startProcess(File store, int port, File log) throws IOException {
+    List<String> command = new ArrayList<>();
+    command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+    for (String argument : ManagementFactory.getRuntimeMXBean().getInputArguments()) {
+      if (argument.startsWith("--add-")) {
+        command.add(argument);
+      }
+    }
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(App.class.getName());
+    command.add("--spring.profiles.active=shared");
+    command.add("--server.port=" + port);
+    command.add("--spring.jmx.enabled=false");
+    command.add("--store.shared.path=" + store.getAbsolutePath());
+    return new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log).start();
+  }
+
+  /**
+   * Waits until an instance answers HTTP requests, failing with its output if it does not
+   */
+  private void awaitStartup(Process process, String instance, File log) throws IOException, InterruptedException {
+    long deadline = System.currentTimeMillis() + STARTUP_TIMEOUT_MILLIS;
+    while (process.isAlive() && System.currentTimeMillis() < deadline) {
+      try {
+        rest.getForEntity(url(instance, ""), DifferencesResponse.class);
+        return;
+      } catch (RuntimeException e) {
+        // Not listening yet
+        Thread.sleep(200);
+      }
+    }
+    throw new AssertionError("Second instance did not start:\n" + new String(Files.readAllBytes(log.toPath()), UTF_8));
+  }
+
+  private static int freePort() throws IOException {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private static String createBase64Data() {
+    byte[] buffer = new byte[1024];
+    RANDOM.nextBytes(buffer);
+    return Base64.getEncoder().encodeToString(buffer);
+  }
+
+}
@@ -7,6 +7,7 @@ import com.waes.interview.assignment.models.DifferencesRequest;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.MediaType;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
@@ -14,14 +15,26 @@ import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.ResultMatcher;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Base64;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
+import java.util.zip.GZIPOutputStream;
 
 import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
 import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -45,6 +58,18 @@ abstract class AbstractControllerIntegrationTest {
     return mvc.perform(post(uri).content(data).contentType(APPLICATION_JSON));
   }
 
+  ResultActions doPost(String uri, String data, String contentEncoding) throws Exception {
+    return mvc.perform(post(uri).content(data).contentType(APPLICATION_JSON).header(CONTENT_ENCODING, contentEncoding));
+  }
+
+  ResultActions doPostGzip(String uri, String data) throws Exception {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(data.getBytes(UTF_8));
+    }
+    return mvc.perform(post(uri).content(compressed.toByteArray()).contentType(APPLICATION_JSON).header(CONTENT_ENCODING, "gzip"));
+  }
+
   <T> T doPostAndReturn(String uri, String data, Class<T> type) throws Exception {
     return doPostAndReturn(uri, data, status().isOk(), type);
   }
@@ -57,7 +82,23 @@ abstract class AbstractControllerIntegrationTest {
   }
 
   ResultActions doGet(String uri) throws Exception {
-    return mvc.perform(get(uri).contentType(APPLICATION_JSON));
+    return dispatch(mvc.perform(get(uri).contentType(APPLICATION_JSON)));
+  }
+
+  ResultActions doGet(String uri, MediaType accept) throws Exception {
+    return dispatch(mvc.perform(get(uri).accept(accept)));
+  }
+
+  /**
+   * Diff operations are answered asynchronously: waits for the answer, and dispatches it as the servlet container would
+   */
+  private ResultActions dispatch(ResultActions actions) throws Exception {
+    MvcResult result = actions.andReturn();
+    if (!result.getRequest().isAsyncStarted()) {
+      return actions;
+    }
+    result.getAsyncResult(SECONDS.toMillis(30));
+    return mvc.perform(asyncDispatch(result));
   }
 
   <T> T doGetAndReturn(String uri, Class<T> type) throws Exception {
@@ -71,6 +112,35 @@ abstract class AbstractControllerIntegrationTest {
     return fromJson(result.getResponse().getContentAsString(), type);
   }
 
+  /**
+   * Performs a GET on a streaming endpoint, waiting for the stream to end
+   *
+   * @return Events emitted, as pairs of event name and data
+   */
+  List<Map.Entry<String, String>> doGetStream(String uri, ResultMatcher status) throws Exception {
+    MvcResult result = mvc.perform(get(uri).accept(TEXT_EVENT_STREAM))
+        .andExpect(request().asyncStarted())
+        .andExpect(status)
+        .andReturn();
+    result.getAsyncResult(SECONDS.toMillis(30));
+    List<Map.Entry<String, String>> events = new ArrayList<>();
+    for (String event : result.getResponse().getContentAsString().split("\n\n")) {
+      String name = null;
+      StringBuilder data = new StringBuilder();
+      for (String line : event.split("\n")) {
+        if (line.startsWith("event:")) {
+          name = line.substring("event:".length());
+        } else if (line.startsWith("data:")) {
+          data.append(line.substring("data:".length()));
+        }
+      }
+      if (name != null) {
+        events.add(new AbstractMap.SimpleEntry<>(name, data.toString()));
+      }
+    }
+    return events;
+  }
+
   String createBase64JsonData() throws JsonProcessingException {
     byte[] buffer = new byte[1024];
     RANDOM.nextBytes(buffer);
@@ -82,7 +152,7 @@ abstract class AbstractControllerIntegrationTest {
     return mapper.writeValueAsString(new DifferencesRequest(base64));
   }
 
-  private <T> T fromJson(String data, Class<T> type) throws IOException {
+  <T> T fromJson(String data, Class<T> type) throws IOException {
     return mapper.readValue(data, type);
   }
 
@@ -90,7 +160,8 @@ abstract class AbstractControllerIntegrationTest {
 
     ENDPOINT_LEFT("/v1/diff/%s/left"),
     ENDPOINT_RIGHT("/v1/diff/%s/right"),
-    ENDPOINT_DIFF("/v1/diff/%s");
+    ENDPOINT_DIFF("/v1/diff/%s"),
+    ENDPOINT_STREAM("/v1/diff/%s/stream");
 
     private final String endpoint;
 
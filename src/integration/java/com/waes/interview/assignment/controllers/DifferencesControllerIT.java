@@ -1,16 +1,31 @@
 package com.waes.interview.assignment.controllers;
 
+import com.waes.interview.assignment.converters.DifferencesBinaryConverter;
 import com.waes.interview.assignment.models.Difference;
+import com.waes.interview.assignment.models.DifferencesProgress;
 import com.waes.interview.assignment.models.DifferencesResponse;
+import com.waes.interview.assignment.models.DifferencesSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.junit.Before;
 import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
 
 import static com.waes.interview.assignment.controllers.AbstractControllerIntegrationTest.DiffEndpoint.*;
+import static com.waes.interview.assignment.converters.DifferencesBinaryConverter.APPLICATION_DIFF;
 import static java.util.Arrays.asList;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
  * This integration test suite deals with test cases for {@link DifferencesController DifferencesController} endpoints.
@@ -23,6 +38,9 @@ public class DifferencesControllerIT extends AbstractControllerIntegrationTest {
   private static final DifferencesResponse EQUALS = new DifferencesResponse("Byte arrays are equal!");
   private static final DifferencesResponse NOT_EQUALS = new DifferencesResponse("Byte arrays are NOT equal!");
 
+  @Autowired
+  private MeterRegistry registry;
+
   private Long id;
 
   /**
@@ -100,4 +118,187 @@ public class DifferencesControllerIT extends AbstractControllerIntegrationTest {
 
   }
 
-}
\ No newline at end of file
+  @Test
+  public void doDiffEqualsOnly() throws Exception {
+
+    final String leftData = createBase64JsonData("ABCDEFGHIJKLMNOPQRSTUVWXYZ".getBytes());
+    final String rightData = createBase64JsonData("ABCDZFGHXJKLMNWPQRSTUVOIYE".getBytes());
+
+    doPostAndReturn(ENDPOINT_LEFT.with(id), leftData, DifferencesResponse.class);
+    doPostAndReturn(ENDPOINT_RIGHT.with(id), rightData, DifferencesResponse.class);
+
+    DifferencesResponse differences = doGetAndReturn(ENDPOINT_DIFF.with(id) + "?equalsOnly=true", DifferencesResponse.class);
+
+    assertThat("Response matches expectation, listing no differences", differences, is(NOT_EQUALS));
+
+    doPostAndReturn(ENDPOINT_LEFT.with(id), leftData, DifferencesResponse.class);
+    doPostAndReturn(ENDPOINT_RIGHT.with(id), leftData, DifferencesResponse.class);
+
+    differences = doGetAndReturn(ENDPOINT_DIFF.with(id) + "?equalsOnly=true", DifferencesResponse.class);
+
+    assertThat("Response matches expectation", differences, is(EQUALS));
+
+  }
+
+  @Test
+  public void doDiffEqualsOnlyNonCanonicalPayloads() throws Exception {
+
+    // All of them decode to a single zero byte
+    doPostAndReturn(ENDPOINT_LEFT.with(id), "{\"payload\":\"AA\"}", DifferencesResponse.class);
+    doPostAndReturn(ENDPOINT_RIGHT.with(id), "{\"payload\":\"AB==\"}", DifferencesResponse.class);
+
+    DifferencesResponse differences = doGetAndReturn(ENDPOINT_DIFF.with(id) + "?equalsOnly=true", DifferencesResponse.class);
+
+    assertThat("Equality check matches decoded bytes", differences, is(EQUALS));
+
+    doPostAndReturn(ENDPOINT_LEFT.with(id), "{\"payload\":\"AB\"}", DifferencesResponse.class);
+    doPostAndReturn(ENDPOINT_RIGHT.with(id), "{\"payload\":\"AA==\"}", DifferencesResponse.class);
+
+    differences = doGetAndReturn(ENDPOINT_DIFF.with(id), DifferencesResponse.class);
+
+    assertThat("Diff agrees with equality check", differences, is(EQUALS));
+
+  }
+
+  @Test
+  public void doDiffSummary() throws Exception {
+
+    doPostAndReturn(ENDPOINT_LEFT.with(id), createBase64JsonData("ABCDEFGHIJKLMNOPQRSTUVWXYZ".getBytes()), DifferencesResponse.class);
+    doPostAndReturn(ENDPOINT_RIGHT.with(id), createBase64JsonData("ABCDZFGHXJKLMNWPQRSTUVOIYE".getBytes()), DifferencesResponse.class);
+
+    DifferencesResponse expectation = new DifferencesResponse("Byte arrays are NOT equal!",
+        new DifferencesSummary(6, 5, 2, 4, 25));
+
+    DifferencesResponse differences = doGetAndReturn(ENDPOINT_DIFF.with(id) + "?summary=true", DifferencesResponse.class);
+
+    assertThat("Response matches expectation", differences, is(expectation));
+
+  }
+
+  @Test
+  public void doDiffEqualsGzipUploads() throws Exception {
+
+    String data = createBase64JsonData();
+
+    doPostGzip(ENDPOINT_LEFT.with(id), data)
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.message", is("Done")));
+
+    doPostGzip(ENDPOINT_RIGHT.with(id), data)
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.message", is("Done")));
+
+    DifferencesResponse differences = doGetAndReturn(ENDPOINT_DIFF.with(id), DifferencesResponse.class);
+
+    assertThat("Response matches expectation", differences, is(EQUALS));
+
+  }
+
+  @Test
+  public void doDiffNoEqualsBinary() throws Exception {
+
+    final byte[] LEFT_KNOWN_BYTE_ARRAY = "ABCDEFGHIJKLMNOPQRSTUVWXYZ".getBytes();
+    final byte[] RIGHT_KNOWN_BYTE_ARRAY = "ABCDZFGHXJKLMNWPQRSTUVOIYE".getBytes();
+
+    doPostAndReturn(ENDPOINT_LEFT.with(id), createBase64JsonData(LEFT_KNOWN_BYTE_ARRAY), DifferencesResponse.class);
+    doPostAndReturn(ENDPOINT_RIGHT.with(id), createBase64JsonData(RIGHT_KNOWN_BYTE_ARRAY), DifferencesResponse.class);
+
+    MvcResult result = doGet(ENDPOINT_DIFF.with(id), APPLICATION_DIFF)
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(APPLICATION_DIFF))
+        .andReturn();
+
+    DifferencesResponse expectation = new DifferencesResponse("Byte arrays are NOT equal!", asList(
+        new Difference(4, 1),
+        new Difference(8, 1),
+        new Difference(14, 1),
+        new Difference(22, 2),
+        new Difference(25, 1)
+    ));
+
+    DifferencesResponse differences = DifferencesBinaryConverter.read(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()));
+
+    assertThat("Message is as expected", differences, is(expectation));
+
+  }
+
+  @Test
+  public void doDiffStream() throws Exception {
+
+    final byte[] LEFT_KNOWN_BYTE_ARRAY = "ABCDEFGHIJKLMNOPQRSTUVWXYZ".getBytes();
+    final byte[] RIGHT_KNOWN_BYTE_ARRAY = "ABCDZFGHXJKLMNWPQRSTUVOIYE".getBytes();
+
+    doPostAndReturn(ENDPOINT_LEFT.with(id), createBase64JsonData(LEFT_KNOWN_BYTE_ARRAY), DifferencesResponse.class);
+    doPostAndReturn(ENDPOINT_RIGHT.with(id), createBase64JsonData(RIGHT_KNOWN_BYTE_ARRAY), DifferencesResponse.class);
+
+    List<Map.Entry<String, String>> events = doGetStream(ENDPOINT_STREAM.with(id), status().isOk());
+
+    List<Difference> differences = new ArrayList<>();
+    for (Map.Entry<String, String> event : events.subList(0, events.size() - 2)) {
+      assertThat("Differences come first", event.getKey(), is("difference"));
+      differences.add(fromJson(event.getValue(), Difference.class));
+    }
+    assertThat("Differences are as expected", differences, is(asList(
+        new Difference(4, 1),
+        new Difference(8, 1),
+        new Difference(14, 1),
+        new Difference(22, 2),
+        new Difference(25, 1)
+    )));
+
+    Map.Entry<String, String> progress = events.get(events.size() - 2);
+    assertThat("Progress follows", progress.getKey(), is("progress"));
+    assertThat("Whole operands were scanned", fromJson(progress.getValue(), DifferencesProgress.class), is(new DifferencesProgress(26, 26)));
+
+    Map.Entry<String, String> result = events.get(events.size() - 1);
+    assertThat("Result comes last", result.getKey(), is("result"));
+    assertThat("Result summarizes differences", fromJson(result.getValue(), DifferencesResponse.class),
+        is(new DifferencesResponse("Byte arrays are NOT equal!", new DifferencesSummary(6, 5, 2, 4, 25))));
+
+    // Operands were processed
+    doGetStream(ENDPOINT_STREAM.with(id), status().isBadRequest());
+
+  }
+
+  @Test
+  public void doDiffStreamWithoutOperands() throws Exception {
+
+    List<Map.Entry<String, String>> events = doGetStream(ENDPOINT_STREAM.with(id), status().isBadRequest());
+
+    assertThat("There is a single event", events.size(), is(1));
+    assertThat("Event is an error", events.get(0).getKey(), is("error"));
+    assertThat("Error matches expectation", fromJson(events.get(0).getValue(), DifferencesResponse.class),
+        is(new DifferencesResponse("No comparison pending for ID [" + id + "]")));
+
+  }
+
+  @Test
+  public void doDiffRecordsPhaseMetrics() throws Exception {
+
+    String data = createBase64JsonData();
+
+    doPostAndReturn(ENDPOINT_LEFT.with(id), data, DifferencesResponse.class);
+    doPostAndReturn(ENDPOINT_RIGHT.with(id), data, DifferencesResponse.class);
+
+    long[] before = phaseCounts();
+
+    doGetAndReturn(ENDPOINT_DIFF.with(id), DifferencesResponse.class);
+
+    long[] after = phaseCounts();
+    for (int phase = 0; phase < before.length; phase++) {
+      assertThat("Phase " + phase + " was timed once", after[phase] - before[phase], is(1L));
+    }
+    assertThat("Left payload size was recorded", registry.get("waes.diff.payload.last").tag("side", "left").gauge().value(), is(1024.0));
+  }
+
+  private long[] phaseCounts() {
+    String[] phases = {"fetch", "decode", "diff", "persist", "serialize"};
+    long[] counts = new long[phases.length];
+    for (int i = 0; i < phases.length; i++) {
+      Timer timer = registry.find("waes.diff.phase").tag("phase", phases[i]).timer();
+      counts[i] = timer != null ? timer.count() : 0;
+    }
+    return counts;
+  }
+
+}
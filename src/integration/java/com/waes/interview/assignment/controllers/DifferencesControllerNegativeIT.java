@@ -123,4 +123,12 @@ public class DifferencesControllerNegativeIT extends AbstractControllerIntegrati
 
   }
 
-}
\ No newline at end of file
+  @Test
+  public void setLeftContentInvalidGzip() throws Exception {
+
+    doPost(ENDPOINT_LEFT.with(id), createBase64JsonData(), "gzip")
+        .andExpect(status().isBadRequest());
+
+  }
+
+}
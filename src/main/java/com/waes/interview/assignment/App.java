@@ -1,11 +1,52 @@
 package com.waes.interview.assignment;
 
+import com.waes.interview.assignment.admission.AdmissionControlFilter;
+import com.waes.interview.assignment.admission.MemoryBudget;
+import com.waes.interview.assignment.async.AsyncDiffs;
+import com.waes.interview.assignment.async.TomcatConnectionProbes;
+import com.waes.interview.assignment.buffers.BufferPool;
+import com.waes.interview.assignment.compression.OperandCodec;
+import com.waes.interview.assignment.converters.DifferencesBinaryConverter;
+import com.waes.interview.assignment.differentiator.ByteArrayChunkDiffer;
 import com.waes.interview.assignment.differentiator.ByteArrayDiffer;
+import com.waes.interview.assignment.differentiator.ByteArrayEditDiffer;
+import com.waes.interview.assignment.differentiator.ByteArrayUnitDiffer;
 import com.waes.interview.assignment.differentiator.Differentiable;
+import com.waes.interview.assignment.filters.GzipRequestFilter;
+import com.waes.interview.assignment.metrics.DiffMetrics;
+import com.waes.interview.assignment.metrics.SerializationTimer;
+import com.waes.interview.assignment.metrics.SlowDiffEndpoint;
+import com.waes.interview.assignment.metrics.SlowDiffRecorder;
+import com.waes.interview.assignment.precompute.PrecomputedDiffs;
+import com.waes.interview.assignment.ratelimit.RateLimit;
+import com.waes.interview.assignment.ratelimit.RateLimitFilter;
+import com.waes.interview.assignment.repositories.OperandsRepository;
+import com.waes.interview.assignment.repositories.ProcessedOperandsWriter;
+import com.waes.interview.assignment.routing.ConsistentHashRing;
+import com.waes.interview.assignment.routing.PeerForwardingFilter;
+import com.waes.interview.assignment.startup.LazyInitBeanFactoryPostProcessor;
+import com.waes.interview.assignment.streaming.DiffStreams;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.boot.SpringApplication;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.stream.Collectors.toList;
 
 /**
  * Main application class
@@ -39,9 +80,242 @@ public class App {
   @Configuration
   static class AppConfiguration {
 
+    /**
+     * Differentiable implementation is selected via <code>differences.engine</code> property:
+     * <p>
+     * - aligned: byte by byte comparison of equal length operands ({@link ByteArrayDiffer ByteArrayDiffer}), merging
+     * runs closer than <code>differences.merge-gap</code> bytes and reporting <code>differences.max-runs</code> at most
+     * - edit: insertion/deletion aware comparison of operands of any length ({@link ByteArrayEditDiffer ByteArrayEditDiffer})
+     * - chunked: matched/unmatched ranges of operands of any length, by content-defined chunks of
+     * <code>differences.chunk-size</code> bytes on average ({@link ByteArrayChunkDiffer ByteArrayChunkDiffer})
+     * - records: record by record comparison, in records of <code>differences.record-size</code> bytes
+     * ({@link ByteArrayUnitDiffer ByteArrayUnitDiffer})
+     * - lines: line by line comparison, in lines ({@link ByteArrayUnitDiffer ByteArrayUnitDiffer})
+     */
+    @Bean
+    public Differentiable<byte[]> differentiable(@Value("${differences.engine:aligned}") String engine,
+                                                 @Value("${differences.chunk-size:2048}") int chunkSize,
+                                                 @Value("${differences.record-size:512}") int recordSize,
+                                                 @Value("${differences.merge-gap:0}") int mergeGap,
+                                                 @Value("${differences.max-runs:0}") int maxRuns) {
+      switch (engine) {
+        case "aligned":
+          return new ByteArrayDiffer(mergeGap, maxRuns);
+        case "edit":
+          return new ByteArrayEditDiffer();
+        case "chunked":
+          return new ByteArrayChunkDiffer(chunkSize);
+        case "records":
+          return ByteArrayUnitDiffer.records(recordSize);
+        case "lines":
+          return ByteArrayUnitDiffer.lines();
+        default:
+          throw new IllegalArgumentException("Unknown differences engine: " + engine);
+      }
+    }
+
+    @Bean
+    public OperandCodec operandCodec(@Value("${operands.codec:NONE}") OperandCodec codec) {
+      return codec;
+    }
+
+    @Bean
+    public FilterRegistrationBean<GzipRequestFilter> gzipRequestFilter(@Value("${http.request.max-inflated-size:2097152}") long maxInflatedSize) {
+      FilterRegistrationBean<GzipRequestFilter> registration = new FilterRegistrationBean<>(new GzipRequestFilter(maxInflatedSize));
+      registration.addUrlPatterns("/v1/diff/*");
+      return registration;
+    }
+
+    /**
+     * Memory budget defaults to a quarter of the maximum heap size, unless <code>admission.memory-budget</code> is set
+     */
+    @Bean
+    public MemoryBudget memoryBudget(MeterRegistry registry,
+                                     @Value("${admission.memory-budget:0}") long budgetBytes,
+                                     @Value("${admission.max-wait-ms:100}") long maxWaitMillis,
+                                     @Value("${admission.retry-after-seconds:1}") long retryAfterSeconds) {
+      MemoryBudget budget = new MemoryBudget(budgetBytes > 0 ? budgetBytes : Runtime.getRuntime().maxMemory() / 4,
+          maxWaitMillis, retryAfterSeconds);
+      registry.gauge("waes.admission.reserved", budget, MemoryBudget::getReservedBytes);
+      return budget;
+    }
+
+    /**
+     * Admission runs before gzip decoding, so compressed uploads are not inflated unless admitted
+     */
+    @Bean
+    public FilterRegistrationBean<AdmissionControlFilter> admissionControlFilter(MemoryBudget budget,
+                                                                                 @Value("${http.request.max-inflated-size:2097152}") long maxBodySize) {
+      FilterRegistrationBean<AdmissionControlFilter> registration = new FilterRegistrationBean<>(new AdmissionControlFilter(budget, maxBodySize));
+      registration.addUrlPatterns("/v1/diff/*");
+      registration.setOrder(Ordered.LOWEST_PRECEDENCE - 1);
+      return registration;
+    }
+
+    /**
+     * Rate limiting runs first, so rejected requests do not take memory from the budget.
+     * <p>
+     * Limits are set per endpoint via <code>ratelimit.{left|right|diff}.rate</code> (requests per second per client, 0
+     * disables the limit) and <code>ratelimit.{left|right|diff}.burst</code>.
+     */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(MeterRegistry registry,
+                                                                   @Value("${ratelimit.client-header:X-Client-Id}") String clientHeader,
+                                                                   @Value("${ratelimit.left.rate:0}") double leftRate,
+                                                                   @Value("${ratelimit.left.burst:1}") int leftBurst,
+                                                                   @Value("${ratelimit.right.rate:0}") double rightRate,
+                                                                   @Value("${ratelimit.right.burst:1}") int rightBurst,
+                                                                   @Value("${ratelimit.diff.rate:0}") double diffRate,
+                                                                   @Value("${ratelimit.diff.burst:1}") int diffBurst) {
+      Map<RateLimitFilter.Endpoint, RateLimit> limits = new EnumMap<>(RateLimitFilter.Endpoint.class);
+      limits.put(RateLimitFilter.Endpoint.LEFT, new RateLimit(leftRate, leftBurst));
+      limits.put(RateLimitFilter.Endpoint.RIGHT, new RateLimit(rightRate, rightBurst));
+      limits.put(RateLimitFilter.Endpoint.DIFF, new RateLimit(diffRate, diffBurst));
+      FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(new RateLimitFilter(clientHeader, limits, registry));
+      registration.addUrlPatterns("/v1/diff/*");
+      registration.setOrder(Ordered.LOWEST_PRECEDENCE - 2);
+      return registration;
+    }
+
+    /**
+     * Forwarding runs before any other filter, so requests owned by other instances take no local resources.
+     * <p>
+     * Enabled by listing instances sharing operation IDs in <code>routing.peers</code> (base URLs, this one included as
+     * <code>routing.self</code>).
+     */
+    @Bean
+    @ConditionalOnProperty("routing.peers")
+    public FilterRegistrationBean<PeerForwardingFilter> peerForwardingFilter(MeterRegistry registry,
+                                                                             @Value("${routing.peers}") String[] peers,
+                                                                             @Value("${routing.self}") String self,
+                                                                             @Value("${routing.virtual-nodes:128}") int virtualNodes,
+                                                                             @Value("${routing.timeout-ms:5000}") int timeoutMillis,
+                                                                             @Value("${differences.timeout-ms:0}") long diffTimeoutMillis,
+                                                                             @Value("${ratelimit.client-header:X-Client-Id}") String clientHeader) {
+      List<String> ring = Arrays.stream(peers).map(String::trim).filter(peer -> !peer.isEmpty()).collect(toList());
+      FilterRegistrationBean<PeerForwardingFilter> registration = new FilterRegistrationBean<>(
+          new PeerForwardingFilter(new ConsistentHashRing(ring, virtualNodes), self.trim(), clientHeader, timeoutMillis,
+              diffTimeoutMillis, registry));
+      registration.addUrlPatterns("/v1/diff/*");
+      registration.setOrder(Ordered.LOWEST_PRECEDENCE - 3);
+      return registration;
+    }
+
+    @Bean
+    public BufferPool bufferPool(MeterRegistry registry,
+                                 @Value("${buffers.pool.max-size:2097152}") int maxPooledSize,
+                                 @Value("${buffers.pool.per-class:8}") int buffersPerClass) {
+      BufferPool pool = new BufferPool(maxPooledSize, buffersPerClass);
+      registry.gauge("waes.buffers.idle", pool, BufferPool::getIdleBytes);
+      return pool;
+    }
+
+    /**
+     * Marks are written write-behind when <code>operands.write-behind.delay-ms</code> is set. The writer is closed
+     * along with the context, writing any queued mark
+     */
+    @Bean
+    public ProcessedOperandsWriter processedOperandsWriter(MeterRegistry registry, OperandsRepository repository,
+                                                           @Value("${operands.write-behind.delay-ms:0}") long delayMillis,
+                                                           @Value("${operands.write-behind.batch-size:256}") int batchSize) {
+      ProcessedOperandsWriter writer = new ProcessedOperandsWriter(repository, delayMillis, batchSize);
+      registry.gauge("waes.operands.pending-marks", writer, ProcessedOperandsWriter::getPendingCount);
+      return writer;
+    }
+
+    /**
+     * Diff operations are computed ahead of time, on right operand uploads, when <code>differences.precompute.threads</code>
+     * is set
+     */
+    @Bean
+    public PrecomputedDiffs precomputedDiffs(MeterRegistry registry, MemoryBudget budget,
+                                             @Value("${differences.precompute.threads:0}") int threads,
+                                             @Value("${differences.precompute.queue-size:64}") int queueSize,
+                                             @Value("${differences.precompute.max-results:1024}") int maxResults) {
+      PrecomputedDiffs precomputedDiffs = new PrecomputedDiffs(budget, threads, queueSize, maxResults);
+      registry.gauge("waes.precompute.results", precomputedDiffs, PrecomputedDiffs::size);
+      return precomputedDiffs;
+    }
+
+    /**
+     * Streamed diff operations run on <code>differences.stream.threads</code> threads of their own, off request threads
+     */
+    @Bean
+    public DiffStreams diffStreams(MeterRegistry registry,
+                                   @Value("${differences.stream.threads:2}") int threads,
+                                   @Value("${differences.stream.queue-size:16}") int queueSize,
+                                   @Value("${differences.stream.timeout-ms:60000}") long timeoutMillis) {
+      DiffStreams streams = new DiffStreams(threads, queueSize, timeoutMillis);
+      registry.gauge("waes.streams.active", streams, DiffStreams::getActiveCount);
+      return streams;
+    }
+
+    /**
+     * Regular diff operations run on <code>differences.async.threads</code> threads of their own, off request threads, so
+     * they are cancelled once their client goes away
+     */
+    @Bean
+    public AsyncDiffs asyncDiffs(MeterRegistry registry,
+                                 @Value("${differences.async.threads:8}") int threads,
+                                 @Value("${differences.async.queue-size:256}") int queueSize,
+                                 @Value("${differences.async.probe-interval-ms:1000}") long probeIntervalMs) {
+      AsyncDiffs diffs = new AsyncDiffs(threads, queueSize, probeIntervalMs);
+      registry.gauge("waes.diffs.active", diffs, AsyncDiffs::getActiveCount);
+      return diffs;
+    }
+
+    /**
+     * Tomcat does not notice clients going away while their request waits for its diff, so requests are provided with
+     * a probe of their connection
+     */
+    @Bean
+    public WebServerFactoryCustomizer<TomcatServletWebServerFactory> connectionProbes() {
+      return factory -> factory.addContextValves(new TomcatConnectionProbes());
+    }
+
+    @Bean
+    public DifferencesBinaryConverter differencesBinaryConverter() {
+      return new DifferencesBinaryConverter();
+    }
+
+    @Bean
+    public DiffMetrics diffMetrics(MeterRegistry registry, SlowDiffRecorder slowDiffRecorder) {
+      return new DiffMetrics(registry, slowDiffRecorder);
+    }
+
+    @Bean
+    public SlowDiffRecorder slowDiffRecorder(@Value("${differences.slow.threshold-ms:500}") long thresholdMillis,
+                                             @Value("${differences.slow.capacity:64}") int capacity) {
+      return new SlowDiffRecorder(thresholdMillis, capacity);
+    }
+
+    @Bean
+    public SlowDiffEndpoint slowDiffEndpoint(SlowDiffRecorder slowDiffRecorder) {
+      return new SlowDiffEndpoint(slowDiffRecorder);
+    }
+
+    /**
+     * Fast startup profile ("fast") defers creation of beans to their first use. Static, as bean factory post
+     * processors must be created before the rest of this configuration
+     */
+    @Bean
+    @Profile("fast")
+    public static LazyInitBeanFactoryPostProcessor lazyInitBeanFactoryPostProcessor() {
+      return new LazyInitBeanFactoryPostProcessor();
+    }
+
+    /**
+     * Serialization of diff results is timed from the outside of the controller, so {@link SerializationTimer SerializationTimer}
+     * (a controller advice, picked up by component scan) is also registered as interceptor for the results endpoint.
+     */
     @Bean
-    public Differentiable<byte[]> differentiable() {
-      return new ByteArrayDiffer();
+    public WebMvcConfigurer serializationTimerConfigurer(SerializationTimer serializationTimer) {
+      return new WebMvcConfigurer() {
+        @Override
+        public void addInterceptors(InterceptorRegistry registry) {
+          registry.addInterceptor(serializationTimer).addPathPatterns("/v1/diff/*");
+        }
+      };
     }
 
   }
@@ -0,0 +1,84 @@
+package com.waes.interview.assignment.admission;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+import static javax.servlet.http.HttpServletResponse.SC_SERVICE_UNAVAILABLE;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * Servlet filter admitting operand uploads (POST requests) only while they fit in the {@link MemoryBudget MemoryBudget}.
+ * <p>
+ * An upload is charged {@link #UPLOAD_OVERHEAD UPLOAD_OVERHEAD} times its body size (mostly its Base64 payload), the
+ * most its buffers take at once:
+ * <ul>
+ * <li>While parsed, the JSON parser holds the payload as characters (2 bytes each), while it is copied into Base64
+ * bytes (1 byte each).</li>
+ * <li>While stored, once the parser is released, the Base64 bytes are held along with the stored operand (the very same
+ * bytes, or a compressed copy of them) and the copy of it the persistence context keeps to detect changes.</li>
+ * </ul>
+ * Compressed or chunked bodies have no known size up front, so they are charged for the maximum body size accepted.
+ * <p>
+ * Uploads not admitted in time are rejected with 503 (Service Unavailable) and a Retry-After header.
+ *
+ * @author Juan Krzemien
+ */
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+  static final int UPLOAD_OVERHEAD = 3;
+  private static final String POST = "POST";
+  private static final String REJECTED = "{\"message\":\"Server is busy. Please, retry later.\"}";
+
+  /**
+   * Class members
+   */
+  private final MemoryBudget budget;
+  private final long maxBodySize;
+
+  /**
+   * Constructor
+   *
+   * @param budget      Budget uploads are charged to
+   * @param maxBodySize Maximum body size, in bytes, of uploads with unknown size
+   */
+  public AdmissionControlFilter(MemoryBudget budget, long maxBodySize) {
+    this.budget = budget;
+    this.maxBodySize = maxBodySize;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !POST.equalsIgnoreCase(request.getMethod());
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+    long bodySize = request.getContentLengthLong();
+    if (bodySize < 0 || request.getHeader(CONTENT_ENCODING) != null) {
+      bodySize = maxBodySize;
+    }
+
+    MemoryBudget.Reservation reservation = budget.reserve(bodySize * UPLOAD_OVERHEAD);
+    if (reservation == null) {
+      response.setStatus(SC_SERVICE_UNAVAILABLE);
+      response.setHeader(RETRY_AFTER, String.valueOf(budget.getRetryAfterSeconds()));
+      response.setContentType(APPLICATION_JSON_VALUE);
+      response.getWriter().write(REJECTED);
+      return;
+    }
+
+    try {
+      chain.doFilter(request, response);
+    } finally {
+      reservation.close();
+    }
+  }
+
+}
@@ -0,0 +1,125 @@
+package com.waes.interview.assignment.admission;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Budget of memory that requests in flight may take, so bursts of large requests are queued or rejected instead of
+ * exhausting the heap.
+ * <p>
+ * Requests reserve an estimate of the memory they need before allocating it, and release it once done. Reservations
+ * wait up to a bounded time for memory to be released by other requests, then give up.
+ * <p>
+ * Memory is accounted in KiB. A single reservation larger than the whole budget is capped to it, so it is admitted
+ * once nothing else is in flight.
+ *
+ * @author Juan Krzemien
+ */
+public class MemoryBudget {
+
+  private static final int KIB = 1024;
+
+  /**
+   * Class members
+   */
+  private final int totalKib;
+  private final long maxWaitMillis;
+  private final long retryAfterSeconds;
+  private final Semaphore available;
+
+  /**
+   * Constructor
+   *
+   * @param budgetBytes       Memory, in bytes, that requests in flight may take
+   * @param maxWaitMillis     Maximum time, in milliseconds, a reservation waits for memory to be released
+   * @param retryAfterSeconds Seconds clients are told to wait before retrying requests not admitted
+   */
+  public MemoryBudget(long budgetBytes, long maxWaitMillis, long retryAfterSeconds) {
+    if (budgetBytes < KIB) {
+      throw new IllegalArgumentException("Memory budget must be at least 1 KiB");
+    }
+    this.totalKib = (int) Math.min(Integer.MAX_VALUE, budgetBytes / KIB);
+    this.maxWaitMillis = maxWaitMillis;
+    this.retryAfterSeconds = retryAfterSeconds;
+    this.available = new Semaphore(totalKib);
+  }
+
+  /**
+   * Reserves memory, waiting up to the configured time for it to be available
+   *
+   * @param bytes Memory to reserve, in bytes
+   * @return Reservation to release once done, or null if memory did not become available in time
+   */
+  public Reservation reserve(long bytes) {
+    int kib = kib(bytes);
+    try {
+      if (available.tryAcquire(kib) || (maxWaitMillis > 0 && available.tryAcquire(kib, maxWaitMillis, TimeUnit.MILLISECONDS))) {
+        return new Reservation(kib);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return null;
+  }
+
+  /**
+   * Reserves memory only if available right away, for work that may as well not be done
+   *
+   * @param bytes Memory to reserve, in bytes
+   * @return Reservation to release once done, or null if memory is not available
+   */
+  public Reservation tryReserve(long bytes) {
+    int kib = kib(bytes);
+    return available.tryAcquire(kib) ? new Reservation(kib) : null;
+  }
+
+  /**
+   * @return Memory currently reserved, in bytes
+   */
+  public long getReservedBytes() {
+    return (long) (totalKib - available.availablePermits()) * KIB;
+  }
+
+  /**
+   * @return Memory that requests in flight may take, in bytes
+   */
+  public long getBudgetBytes() {
+    return (long) totalKib * KIB;
+  }
+
+  /**
+   * @return Seconds clients are told to wait before retrying requests not admitted
+   */
+  public long getRetryAfterSeconds() {
+    return retryAfterSeconds;
+  }
+
+  /**
+   * @return Bytes in KiB, rounded up, and capped to the whole budget
+   */
+  private int kib(long bytes) {
+    return (int) Math.min(totalKib, Math.max(1, (bytes + KIB - 1) / KIB));
+  }
+
+  /**
+   * Memory reserved by a request. Released at most once.
+   */
+  public final class Reservation implements AutoCloseable {
+
+    private final int kib;
+    private boolean released;
+
+    private Reservation(int kib) {
+      this.kib = kib;
+    }
+
+    @Override
+    public void close() {
+      if (!released) {
+        released = true;
+        available.release(kib);
+      }
+    }
+  }
+
+}
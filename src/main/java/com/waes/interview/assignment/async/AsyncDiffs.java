@@ -0,0 +1,175 @@
+package com.waes.interview.assignment.async;
+
+import com.waes.interview.assignment.differentiator.Cancellation;
+import org.springframework.web.context.request.async.DeferredResult;
+
+import javax.servlet.ServletRequest;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runner of diff operations of regular (not streamed) requests, answered through {@link DeferredResult DeferredResult}s.
+ * <p>
+ * A request thread blocked on a diff is never told its client went away. Diffs run on a bounded pool of threads of
+ * their own instead, with a bounded queue, while request threads are released. Diffs not fitting in the queue are not
+ * started at all.
+ * <p>
+ * Deferred results are tied to the {@link Cancellation Cancellation} of their diff: once the request ends before the
+ * diff does (the request timed out or failed), the diff is cancelled, so it stops comparing (or does not even start, if
+ * still queued) instead of running to completion for nobody. As containers do not notice clients going away from
+ * requests they are neither reading nor writing, connections of requests waiting for their diff are also checked
+ * periodically through their {@link ConnectionProbe ConnectionProbe}, if any, cancelling diffs of closed ones.
+ *
+ * @author Juan Krzemien
+ */
+public class AsyncDiffs implements AutoCloseable {
+
+  /**
+   * Class members
+   */
+  private final ThreadPoolExecutor executor;
+  private final ScheduledExecutorService watchdog;
+  private final Set<Watched> watched = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Constructor
+   *
+   * @param threads         Threads running diffs
+   * @param queueSize       Maximum amount of diffs waiting for a thread
+   * @param probeIntervalMs Time, in milliseconds, between checks of the connections of requests waiting for their diff
+   */
+  public AsyncDiffs(int threads, int queueSize, long probeIntervalMs) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Diffs require at least 1 thread");
+    }
+    if (probeIntervalMs < 1) {
+      throw new IllegalArgumentException("Connections must be checked at least every millisecond");
+    }
+    AtomicInteger counter = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(Math.max(1, queueSize)), runnable -> {
+      Thread thread = new Thread(runnable, "diff-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "diff-watchdog");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.watchdog.scheduleWithFixedDelay(this::probe, probeIntervalMs, probeIntervalMs, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Starts a diff in the background.
+   * <p>
+   * Deferred results never time out by themselves: diffs answer on their own once past their deadline.
+   *
+   * @param request      Request to answer
+   * @param cancellation Token of the diff, cancelled once the request ends or its client goes away
+   * @param diff         Diff to run, providing the result
+   * @param busy         Result to answer with if there is no room for the diff
+   * @param <T>          Type of the result
+   * @return Deferred result of the diff
+   */
+  public <T> DeferredResult<T> submit(ServletRequest request, Cancellation cancellation, Supplier<T> diff,
+                                      Supplier<T> busy) {
+    final DeferredResult<T> result = new DeferredResult<>(0L);
+    result.onTimeout(cancellation::cancel);
+    result.onError(error -> cancellation.cancel());
+    result.onCompletion(cancellation::cancel);
+
+    final Watched running = new Watched(ConnectionProbe.of(request), cancellation);
+    try {
+      executor.execute(() -> {
+        try {
+          T value = diff.get();
+          running.answer(() -> result.setResult(value));
+        } catch (RuntimeException e) {
+          running.answer(() -> result.setErrorResult(e));
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      result.setResult(busy.get());
+      return result;
+    }
+    if (running.probe != null) {
+      watched.add(running);
+    }
+    return result;
+  }
+
+  /**
+   * Checks connections of requests waiting for their diff, cancelling diffs of closed ones
+   */
+  private void probe() {
+    watched.removeIf(Watched::isDone);
+  }
+
+  /**
+   * @return Amount of diffs running
+   */
+  public int getActiveCount() {
+    return executor.getActiveCount();
+  }
+
+  /**
+   * Stops running diffs, dropping the ones not started yet
+   */
+  @Override
+  public void close() {
+    watchdog.shutdownNow();
+    executor.shutdownNow();
+  }
+
+  /**
+   * Diff whose request connection is checked while waiting for it.
+   * <p>
+   * Answering and probing exclude each other, so connections are never probed once their request is answered.
+   */
+  private static final class Watched {
+
+    private final ConnectionProbe probe;
+    private final Cancellation cancellation;
+    private boolean answered;
+
+    private Watched(ConnectionProbe probe, Cancellation cancellation) {
+      this.probe = probe;
+      this.cancellation = cancellation;
+    }
+
+    private synchronized void answer(Runnable answer) {
+      answered = true;
+      answer.run();
+    }
+
+    /**
+     * @return true if no longer waiting for the diff, cancelling it if its client went away
+     */
+    private synchronized boolean isDone() {
+      if (answered || cancellation.isCancelled()) {
+        return true;
+      }
+      try {
+        if (probe.isClosed()) {
+          cancellation.cancel();
+          return true;
+        }
+        return false;
+      } catch (RuntimeException e) {
+        // Not checkable: let the diff run to completion, as if not watched
+        return true;
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,39 @@
+package com.waes.interview.assignment.async;
+
+import javax.servlet.ServletRequest;
+
+/**
+ * Tells whether the client of a request went away, without writing anything to it.
+ * <p>
+ * The Servlet API has no way to do so: containers only notice closed connections upon reading from or writing to them,
+ * and nothing is read from, nor written to, a request waiting for its diff. Probes are container specific, so they are
+ * made available to the application as an attribute of requests, by the container integration knowing how to probe
+ * its connections (see {@link TomcatConnectionProbes TomcatConnectionProbes}).
+ *
+ * @author Juan Krzemien
+ */
+@FunctionalInterface
+public interface ConnectionProbe {
+
+  /**
+   * Request attribute holding the probe of the connection of the request
+   */
+  String ATTRIBUTE = ConnectionProbe.class.getName();
+
+  /**
+   * Checks the connection, without blocking
+   *
+   * @return true if the client closed (or reset) the connection, false otherwise
+   */
+  boolean isClosed();
+
+  /**
+   * @param request Request to get the probe of its connection for
+   * @return Probe of the connection of the request, or null if the container does not provide one
+   */
+  static ConnectionProbe of(ServletRequest request) {
+    Object probe = request.getAttribute(ATTRIBUTE);
+    return probe instanceof ConnectionProbe ? (ConnectionProbe) probe : null;
+  }
+
+}
@@ -0,0 +1,61 @@
+package com.waes.interview.assignment.async;
+
+import org.apache.catalina.connector.Request;
+import org.apache.catalina.connector.Response;
+import org.apache.catalina.valves.ValveBase;
+import org.apache.coyote.ActionCode;
+
+import javax.servlet.ServletException;
+import java.io.IOException;
+
+/**
+ * Tomcat valve providing requests with a {@link ConnectionProbe ConnectionProbe} of their connection.
+ * <p>
+ * Tomcat stops watching connections of asynchronous requests until they are answered, so a client going away is not
+ * noticed. Probes make up for it with a non-blocking read of the connection: closed (or reset) connections fail to be
+ * read, which Tomcat reports as 1 byte available, although that is not what it buffered. Data actually sent by clients
+ * (pipelined requests) is buffered by Tomcat for later, as with any other read, so it does not count as a closed
+ * connection.
+ * <p>
+ * Probes must not be used once their request is answered, as Tomcat recycles requests (and reads their connections)
+ * from then on.
+ *
+ * @author Juan Krzemien
+ */
+public class TomcatConnectionProbes extends ValveBase {
+
+  /**
+   * Constructor
+   */
+  public TomcatConnectionProbes() {
+    super(true);
+  }
+
+  @Override
+  public void invoke(Request request, Response response) throws IOException, ServletException {
+    final org.apache.coyote.Request coyoteRequest = request.getCoyoteRequest();
+    request.setAttribute(ConnectionProbe.ATTRIBUTE, (ConnectionProbe) () -> isClosed(coyoteRequest));
+    getNext().invoke(request, response);
+  }
+
+  /**
+   * @param request Request whose connection to probe
+   * @return true if reading its connection failed, false otherwise
+   */
+  static boolean isClosed(org.apache.coyote.Request request) {
+    // Data already buffered is not read again, so it would tell nothing about the connection
+    request.action(ActionCode.AVAILABLE, Boolean.FALSE);
+    if (request.getAvailable() > 0) {
+      return false;
+    }
+    // Reads whatever the connection has, without blocking: failed reads report 1 byte available, not what is buffered
+    request.action(ActionCode.AVAILABLE, Boolean.TRUE);
+    int read = request.getAvailable();
+    if (read != 1) {
+      return false;
+    }
+    request.action(ActionCode.AVAILABLE, Boolean.FALSE);
+    return request.getAvailable() != read;
+  }
+
+}
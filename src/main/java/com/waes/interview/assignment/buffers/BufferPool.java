@@ -0,0 +1,107 @@
+package com.waes.interview.assignment.buffers;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool of byte arrays, organized in size classes (powers of 2), for working memory of diff operations.
+ * <p>
+ * Borrowed arrays are at least as large as requested, so callers must track how many leading bytes they use. Every
+ * size class keeps a bounded amount of idle arrays in a lock-free queue: returning an array to a full class, or
+ * requesting more than the largest class, falls back to regular allocation and garbage collection.
+ * <p>
+ * Assumption: Arrays are not cleared when returned, so borrowers must never read past what they wrote.
+ *
+ * @author Juan Krzemien
+ */
+public class BufferPool {
+
+  private static final int MIN_CLASS_BITS = 12;
+
+  /**
+   * Class members
+   */
+  private final int maxClassBits;
+  private final int buffersPerClass;
+  private final ConcurrentLinkedQueue<byte[]>[] idle;
+  private final AtomicInteger[] idleCounts;
+
+  /**
+   * Constructor
+   *
+   * @param maxPooledSize   Largest array size, in bytes, worth pooling. Rounded up to a power of 2.
+   * @param buffersPerClass Maximum amount of idle arrays kept per size class. Zero disables pooling.
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  public BufferPool(int maxPooledSize, int buffersPerClass) {
+    this.maxClassBits = Math.max(MIN_CLASS_BITS, bits(maxPooledSize));
+    this.buffersPerClass = buffersPerClass;
+    int classes = maxClassBits - MIN_CLASS_BITS + 1;
+    this.idle = new ConcurrentLinkedQueue[classes];
+    this.idleCounts = new AtomicInteger[classes];
+    for (int i = 0; i < classes; i++) {
+      idle[i] = new ConcurrentLinkedQueue<>();
+      idleCounts[i] = new AtomicInteger();
+    }
+  }
+
+  /**
+   * Borrows an array
+   *
+   * @param minSize Minimum size of the array, in bytes
+   * @return An array of at least the requested size, to give back through {@link #release(byte[]) release} once done
+   */
+  public byte[] acquire(int minSize) {
+    int bits = Math.max(MIN_CLASS_BITS, bits(minSize));
+    if (bits > maxClassBits) {
+      return new byte[minSize];
+    }
+    int sizeClass = bits - MIN_CLASS_BITS;
+    byte[] buffer = idle[sizeClass].poll();
+    if (buffer != null) {
+      idleCounts[sizeClass].decrementAndGet();
+      return buffer;
+    }
+    return new byte[1 << bits];
+  }
+
+  /**
+   * Gives back a borrowed array. Arrays not borrowed from this pool (and null) are ignored.
+   *
+   * @param buffer Array to give back. Must not be used afterwards.
+   */
+  public void release(byte[] buffer) {
+    if (buffer == null || Integer.bitCount(buffer.length) != 1) {
+      return;
+    }
+    int bits = bits(buffer.length);
+    if (bits < MIN_CLASS_BITS || bits > maxClassBits) {
+      return;
+    }
+    int sizeClass = bits - MIN_CLASS_BITS;
+    if (idleCounts[sizeClass].incrementAndGet() <= buffersPerClass) {
+      idle[sizeClass].offer(buffer);
+    } else {
+      idleCounts[sizeClass].decrementAndGet();
+    }
+  }
+
+  /**
+   * @return Total size, in bytes, of idle arrays held
+   */
+  public long getIdleBytes() {
+    long total = 0;
+    for (int i = 0; i < idleCounts.length; i++) {
+      total += (long) idleCounts[i].get() << (i + MIN_CLASS_BITS);
+    }
+    return total;
+  }
+
+  /**
+   * Bits needed for a power of 2 not lower than given size
+   */
+  private static int bits(int size) {
+    return size <= 1 ? 0 : 32 - Integer.numberOfLeadingZeros(size - 1);
+  }
+
+}
@@ -0,0 +1,196 @@
+package com.waes.interview.assignment.compression;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * At-rest encodings for the Base64 data stored in {@link com.waes.interview.assignment.models.DifferenceOperand DifferenceOperand}.
+ * <p>
+ * The codec used to store an operand is persisted along with it, so operands written under a previous configuration
+ * can still be read after the configured codec changes.
+ * <p>
+ * Assumption: Only codecs shipped with the JVM are considered (no extra dependencies), which leaves DEFLATE at
+ * different compression levels as the only real option. See README for benchmark numbers of each codec.
+ *
+ * @author Juan Krzemien
+ */
+public enum OperandCodec {
+
+  /**
+   * Stores data as is. Cheapest in CPU, most expensive in storage.
+   */
+  NONE {
+    @Override
+    public byte[] compress(byte[] data) {
+      return data;
+    }
+
+    @Override
+    public byte[] decompress(byte[] data, int size) {
+      return data;
+    }
+
+    @Override
+    public byte[] decompress(byte[] data, int size, byte[] buffer) {
+      return data;
+    }
+
+    @Override
+    public boolean isCompressed() {
+      return false;
+    }
+  },
+
+  /**
+   * DEFLATE tuned for speed. Base64 text of padded binaries still shrinks considerably at this level.
+   */
+  DEFLATE_FAST {
+    @Override
+    public byte[] compress(byte[] data) {
+      return deflate(data, Deflater.BEST_SPEED);
+    }
+
+    @Override
+    public byte[] decompress(byte[] data, int size) {
+      return inflate(data, size);
+    }
+  },
+
+  /**
+   * DEFLATE with its default (balanced) compression level.
+   */
+  DEFLATE {
+    @Override
+    public byte[] compress(byte[] data) {
+      return deflate(data, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    @Override
+    public byte[] decompress(byte[] data, int size) {
+      return inflate(data, size);
+    }
+  };
+
+  /**
+   * Size of the chunks used while compressing
+   */
+  private static final int CHUNK_SIZE = 8 * 1024;
+
+  /**
+   * Encodes the provided data for storage.
+   *
+   * @param data Raw data to encode
+   * @return Encoded data, ready to be stored
+   */
+  public abstract byte[] compress(byte[] data);
+
+  /**
+   * Decodes previously encoded data.
+   * <p>
+   * Since the original size is known, data is decoded chunk by chunk straight into a buffer of the exact size,
+   * avoiding intermediate streams and buffer growth.
+   *
+   * @param data Data previously encoded with {@link #compress(byte[]) compress}
+   * @param size Size of the raw data
+   * @return Raw data. Might be the very same instance provided if no decoding was required.
+   * @throws IllegalArgumentException if data cannot be decoded or does not match expected size
+   */
+  public abstract byte[] decompress(byte[] data, int size);
+
+  /**
+   * Decodes previously encoded data into a caller supplied buffer, if decoding is required at all.
+   *
+   * @param data   Data previously encoded with {@link #compress(byte[]) compress}
+   * @param size   Size of the raw data
+   * @param buffer Buffer of at least <code>size</code> bytes to decode into. Ignored if no decoding is required.
+   * @return Array whose leading <code>size</code> bytes hold raw data: either the buffer provided, or the very same data
+   * instance provided if no decoding was required.
+   * @throws IllegalArgumentException if data cannot be decoded or does not match expected size
+   */
+  public byte[] decompress(byte[] data, int size, byte[] buffer) {
+    return inflate(data, size, buffer);
+  }
+
+  /**
+   * Indicates whether stored data needs decoding, so callers know whether to supply a buffer for it.
+   *
+   * @return true if {@link #decompress(byte[], int, byte[]) decompress} writes into the buffer provided
+   */
+  public boolean isCompressed() {
+    return true;
+  }
+
+  /**
+   * Compresses provided data using DEFLATE at given level
+   *
+   * @param data  Raw data to compress
+   * @param level DEFLATE compression level
+   * @return Compressed data
+   */
+  private static byte[] deflate(byte[] data, int level) {
+    Deflater deflater = new Deflater(level);
+    try {
+      deflater.setInput(data);
+      deflater.finish();
+      ByteArrayOutputStream output = new ByteArrayOutputStream(Math.max(data.length / 4, 64));
+      byte[] chunk = new byte[CHUNK_SIZE];
+      while (!deflater.finished()) {
+        int count = deflater.deflate(chunk);
+        output.write(chunk, 0, count);
+      }
+      return output.toByteArray();
+    } finally {
+      // Release native resources right away instead of waiting for finalization
+      deflater.end();
+    }
+  }
+
+  /**
+   * Decompresses DEFLATE compressed data
+   *
+   * @param data Compressed data
+   * @param size Size of the decompressed data
+   * @return Decompressed data
+   */
+  private static byte[] inflate(byte[] data, int size) {
+    return inflate(data, size, new byte[size]);
+  }
+
+  /**
+   * Decompresses DEFLATE compressed data into provided buffer
+   *
+   * @param data   Compressed data
+   * @param size   Size of the decompressed data
+   * @param output Buffer of at least <code>size</code> bytes to decompress into
+   * @return Provided buffer
+   */
+  private static byte[] inflate(byte[] data, int size, byte[] output) {
+    if (size == 0) {
+      return output;
+    }
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(data);
+      int length = 0;
+      while (!inflater.finished()) {
+        int count = inflater.inflate(output, length, size - length);
+        if (count == 0 && (length == size || inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        length += count;
+      }
+      if (length != size || !inflater.finished()) {
+        throw new IllegalArgumentException("Compressed data does not match expected size");
+      }
+      return output;
+    } catch (DataFormatException e) {
+      throw new IllegalArgumentException("Invalid compressed data", e);
+    } finally {
+      // Release native resources right away instead of waiting for finalization
+      inflater.end();
+    }
+  }
+
+}
@@ -1,22 +1,55 @@
 package com.waes.interview.assignment.controllers;
 
+import com.waes.interview.assignment.admission.MemoryBudget;
+import com.waes.interview.assignment.async.AsyncDiffs;
+import com.waes.interview.assignment.buffers.BufferPool;
+import com.waes.interview.assignment.compression.OperandCodec;
+import com.waes.interview.assignment.differentiator.ByteArrayDifferentiable;
+import com.waes.interview.assignment.differentiator.ByteArrays;
+import com.waes.interview.assignment.differentiator.Cancellation;
+import com.waes.interview.assignment.differentiator.DiffCancelledException;
+import com.waes.interview.assignment.differentiator.DifferencesListener;
+import com.waes.interview.assignment.differentiator.DifferencesSummarizer;
 import com.waes.interview.assignment.differentiator.Differentiable;
+import com.waes.interview.assignment.encoding.Base64Decoder;
+import com.waes.interview.assignment.metrics.DiffMetrics;
+import com.waes.interview.assignment.metrics.DiffTrace;
 import com.waes.interview.assignment.models.Difference;
 import com.waes.interview.assignment.models.DifferenceOperand;
+import com.waes.interview.assignment.models.DifferencesProgress;
 import com.waes.interview.assignment.models.DifferencesRequest;
 import com.waes.interview.assignment.models.DifferencesResponse;
+import com.waes.interview.assignment.models.DifferencesSummary;
+import com.waes.interview.assignment.precompute.PrecomputedDiffs;
 import com.waes.interview.assignment.repositories.OperandsRepository;
+import com.waes.interview.assignment.repositories.ProcessedOperandsWriter;
+import com.waes.interview.assignment.streaming.DiffStreams;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
+import static com.waes.interview.assignment.converters.DifferencesBinaryConverter.APPLICATION_DIFF_VALUE;
+import static com.waes.interview.assignment.encoding.Base64Decoder.maxDecodedSize;
+import static com.waes.interview.assignment.metrics.DiffPhase.*;
 import static java.lang.String.format;
-import static java.util.Base64.getDecoder;
+import static java.util.Arrays.asList;
+import static java.util.Arrays.copyOf;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.MediaType.APPLICATION_JSON;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
 import static org.springframework.http.ResponseEntity.badRequest;
 import static org.springframework.http.ResponseEntity.ok;
+import static org.springframework.http.ResponseEntity.status;
 import static org.springframework.util.MimeTypeUtils.APPLICATION_JSON_VALUE;
 
 /**
@@ -28,6 +61,8 @@ import static org.springframework.util.MimeTypeUtils.APPLICATION_JSON_VALUE;
  * POST /v1/diff/{id}/right
  * GET /v1/diff/{id}
  * <p>
+ * Plus a streamed alternative to the latter, for large operands: GET /v1/diff/{id}/stream
+ * <p>
  * Assumption: A differentiation cannot be done without 2 sides (left & right) so I designed this controller
  * to require consumers to set /left operand FIRST and THEN to set /right operand. Meaning API invocation order matters.
  *
@@ -48,22 +83,62 @@ public class DifferencesController {
   private static final String DUPLICATE_TRANSACTION_ID = "The transaction ID has pending operations. Please, specify a different one.";
   private static final String WRONG_INVOCATION_ORDER = "Must call endpoint /left before calling endpoint /right";
   private static final String DATA_INTEGRITY = "Payload cannot exceed 1 MB in size!";
+  private static final String SERVER_BUSY = "Server is busy. Please, retry later.";
+  private static final String TIMED_OUT = "Diff operation timed out. Please, retry later.";
+  private static final int MAX_PAYLOAD_SIZE = 1024 * 1024;
+  private static final int DIFF_OVERHEAD = 2;
+  private static final String PROGRESS_EVENT = "progress";
+  private static final String DIFFERENCE_EVENT = "difference";
+  private static final String RESULT_EVENT = "result";
+  private static final String ERROR_EVENT = "error";
 
   /**
    * Class members
    */
   private final OperandsRepository repository;
   private final Differentiable<byte[]> differentiable;
+  private final OperandCodec codec;
+  private final DiffMetrics metrics;
+  private final MemoryBudget budget;
+  private final BufferPool buffers;
+  private final ProcessedOperandsWriter processedWriter;
+  private final PrecomputedDiffs precomputedDiffs;
+  private final DiffStreams streams;
+  private final AsyncDiffs diffs;
+  private final long timeoutMillis;
 
   /**
    * Constructor
    *
-   * @param repository     Implementation of a storage for operands between endpoint invocations.
-   * @param differentiable Implementation of a differentiable for diff-ing /left and /right endpoints
+   * @param repository      Implementation of a storage for operands between endpoint invocations.
+   * @param differentiable  Implementation of a differentiable for diff-ing /left and /right endpoints
+   * @param codec           Codec to store incoming operands with
+   * @param metrics         Metrics to record diff operations into
+   * @param budget          Memory budget diff operations are charged to
+   * @param buffers         Pool of working memory for decoding operands
+   * @param processedWriter  Writer of the processed mark of diff-ed operands
+   * @param precomputedDiffs Results of diff operations computed ahead of time, on right operand uploads
+   * @param streams          Runner of streamed diff operations
+   * @param diffs            Runner of regular diff operations, off request threads
+   * @param timeoutMillis    Time, in milliseconds, diff operations may take at most (0 for no deadline)
    */
-  public DifferencesController(@Autowired OperandsRepository repository, @Autowired Differentiable<byte[]> differentiable) {
+  public DifferencesController(@Autowired OperandsRepository repository, @Autowired Differentiable<byte[]> differentiable,
+                               @Autowired OperandCodec codec, @Autowired DiffMetrics metrics,
+                               @Autowired MemoryBudget budget, @Autowired BufferPool buffers,
+                               @Autowired ProcessedOperandsWriter processedWriter,
+                               @Autowired PrecomputedDiffs precomputedDiffs, @Autowired DiffStreams streams,
+                               @Autowired AsyncDiffs diffs, @Value("${differences.timeout-ms:0}") long timeoutMillis) {
     this.repository = repository;
     this.differentiable = differentiable;
+    this.codec = codec;
+    this.metrics = metrics;
+    this.budget = budget;
+    this.buffers = buffers;
+    this.processedWriter = processedWriter;
+    this.precomputedDiffs = precomputedDiffs;
+    this.streams = streams;
+    this.diffs = diffs;
+    this.timeoutMillis = timeoutMillis;
   }
 
   /**
@@ -83,7 +158,7 @@ public class DifferencesController {
     }
 
     // Fail upon invalid requests
-    if (request == null || request.getPayload().isEmpty()) {
+    if (request == null || request.getPayloadLength() == 0) {
       return badRequest().body(new DifferencesResponse(INVALID_BASE64_PAYLOAD));
     }
 
@@ -92,7 +167,12 @@ public class DifferencesController {
       return badRequest().body(new DifferencesResponse(DUPLICATE_TRANSACTION_ID));
     }
 
-    DifferenceOperand operand = DifferenceOperand.from(id, request.getPayload(), false);
+    // Fail upon payloads too large. Compressed operands may not hit storage limits, so check it up front
+    if (request.getPayloadLength() > MAX_PAYLOAD_SIZE) {
+      return badRequest().body(new DifferencesResponse(DATA_INTEGRITY));
+    }
+
+    DifferenceOperand operand = DifferenceOperand.fromBase64Bytes(id, request.getBase64Bytes(), false, codec);
 
     try {
       repository.save(operand);
@@ -120,7 +200,7 @@ public class DifferencesController {
     }
 
     // Fail upon invalid requests
-    if (request == null || request.getPayload().isEmpty()) {
+    if (request == null || request.getPayloadLength() == 0) {
       return badRequest().body(new DifferencesResponse(INVALID_BASE64_PAYLOAD));
     }
 
@@ -134,7 +214,12 @@ public class DifferencesController {
       return badRequest().body(new DifferencesResponse(DUPLICATE_TRANSACTION_ID));
     }
 
-    DifferenceOperand operand = DifferenceOperand.from(id, request.getPayload(), false);
+    // Fail upon payloads too large. Compressed operands may not hit storage limits, so check it up front
+    if (request.getPayloadLength() > MAX_PAYLOAD_SIZE) {
+      return badRequest().body(new DifferencesResponse(DATA_INTEGRITY));
+    }
+
+    DifferenceOperand operand = DifferenceOperand.fromBase64Bytes(id, request.getBase64Bytes(), false, codec);
 
     try {
       repository.save(operand);
@@ -142,25 +227,211 @@ public class DifferencesController {
       return badRequest().body(new DifferencesResponse(DATA_INTEGRITY));
     }
 
+    // Both operands are available from now on, so the diff may start right away
+    precomputedDiffs.submit(id, asList(transactions.get(0), operand), this::precompute);
+
     return ok(new DifferencesResponse("Done"));
   }
 
   /**
    * Endpoint for getting the results of diff operation.
+   * <p>
+   * Results are rendered as JSON by default. Consumers may request a compact binary encoding instead, through
+   * <code>Accept: application/x-waes-diff</code> (see {@link com.waes.interview.assignment.converters.DifferencesBinaryConverter DifferencesBinaryConverter}).
+   * <p>
+   * Consumers needing a yes/no answer only may ask for <code>equalsOnly=true</code>: operands are then compared up to
+   * their first difference, with no differences listed. Consumers needing to know how different operands are, rather
+   * than where, may ask for <code>summary=true</code>: differences are then aggregated into a
+   * {@link DifferencesSummary DifferencesSummary} instead of listed.
+   * <p>
+   * Operations not fitting in the {@link MemoryBudget MemoryBudget} in time are answered with 503 (Service Unavailable)
+   * and a Retry-After header, leaving operands pending. So are operations going past their deadline: the configured
+   * one, or a shorter one asked for by consumers through <code>timeoutMs</code>.
+   * <p>
+   * Operations run off the request thread, on {@link AsyncDiffs AsyncDiffs}, so they are stopped once consumers go away,
+   * leaving operands pending too. Operations not fitting in its queue are answered with 503 (Service Unavailable)
+   * and a Retry-After header.
    *
-   * @param id ID for the operation
-   * @return {@link DifferencesResponse DifferencesResponse} with message indicating the result of the operation
+   * @param id         ID for the operation
+   * @param equalsOnly Whether to just tell if operands are equal, instead of listing their differences
+   * @param summary    Whether to summarize differences, instead of listing them. Ignored for equality checks.
+   * @param timeoutMs  Time, in milliseconds, the operation may take at most (0 for the configured deadline)
+   * @param request    Request of the operation
+   * @return Deferred {@link DifferencesResponse DifferencesResponse} with message indicating the result of the operation
    */
-  @GetMapping(value = "/v1/diff/{id}", produces = APPLICATION_JSON_VALUE)
+  @GetMapping(value = "/v1/diff/{id}", produces = {APPLICATION_JSON_VALUE, APPLICATION_DIFF_VALUE})
   @ResponseBody
-  public ResponseEntity<DifferencesResponse> diffOperation(@PathVariable Long id) {
+  public DeferredResult<ResponseEntity<DifferencesResponse>> diffRequest(
+      @PathVariable Long id, @RequestParam(defaultValue = "false") boolean equalsOnly,
+      @RequestParam(defaultValue = "false") boolean summary, @RequestParam(defaultValue = "0") long timeoutMs,
+      HttpServletRequest request) {
+    final Cancellation cancellation = Cancellation.withTimeout(deadline(timeoutMs));
+    return diffs.submit(request, cancellation,
+        () -> diffOperation(id, equalsOnly, summary, cancellation),
+        () -> status(SERVICE_UNAVAILABLE)
+            .header(RETRY_AFTER, String.valueOf(budget.getRetryAfterSeconds()))
+            .body(new DifferencesResponse(SERVER_BUSY)));
+  }
+
+  /**
+   * Same as {@link #diffRequest(Long, boolean, boolean, long, HttpServletRequest) diffRequest}, on the calling thread.
+   *
+   * @param id         ID for the operation
+   * @param equalsOnly Whether to just tell if operands are equal, instead of listing their differences
+   * @param summary    Whether to summarize differences, instead of listing them. Ignored for equality checks.
+   * @param timeoutMs  Time, in milliseconds, the operation may take at most (0 for the configured deadline)
+   * @return {@link DifferencesResponse DifferencesResponse} with message indicating the result of the operation
+   */
+  public ResponseEntity<DifferencesResponse> diffOperation(Long id, boolean equalsOnly, boolean summary, long timeoutMs) {
+    return diffOperation(id, equalsOnly, summary, Cancellation.withTimeout(deadline(timeoutMs)));
+  }
+
+  /**
+   * Same as {@link #diffRequest(Long, boolean, boolean, long, HttpServletRequest) diffRequest}, on the calling thread,
+   * stopped through provided token.
+   *
+   * @param id           ID for the operation
+   * @param equalsOnly   Whether to just tell if operands are equal, instead of listing their differences
+   * @param summary      Whether to summarize differences, instead of listing them. Ignored for equality checks.
+   * @param cancellation Token to stop the operation with
+   * @return {@link DifferencesResponse DifferencesResponse} with message indicating the result of the operation
+   */
+  private ResponseEntity<DifferencesResponse> diffOperation(Long id, boolean equalsOnly, boolean summary,
+                                                            Cancellation cancellation) {
 
     // Fail upon invalid IDs
     if (id == null) {
       return badRequest().body(new DifferencesResponse(INVALID_ID));
     }
 
+    final DiffTrace trace = new DiffTrace(id);
+    try {
+      return diffOperation(id, equalsOnly, summary, trace, cancellation);
+    } catch (DiffCancelledException e) {
+      // Operands are left pending, so clients can retry
+      metrics.cancelled(e.isTimedOut());
+      return status(SERVICE_UNAVAILABLE)
+          .header(RETRY_AFTER, String.valueOf(budget.getRetryAfterSeconds()))
+          .body(new DifferencesResponse(TIMED_OUT));
+    } finally {
+      metrics.record(trace);
+    }
+  }
+
+  /**
+   * Same as {@link #diffOperation(Long, boolean, boolean, long) diffOperation}, with the configured deadline.
+   *
+   * @param id         ID for the operation
+   * @param equalsOnly Whether to just tell if operands are equal, instead of listing their differences
+   * @param summary    Whether to summarize differences, instead of listing them. Ignored for equality checks.
+   * @return {@link DifferencesResponse DifferencesResponse} with message indicating the result of the operation
+   */
+  public ResponseEntity<DifferencesResponse> diffOperation(Long id, boolean equalsOnly, boolean summary) {
+    return diffOperation(id, equalsOnly, summary, 0);
+  }
+
+  /**
+   * Same as {@link #diffOperation(Long, boolean, boolean, long) diffOperation}, listing differences.
+   *
+   * @param id ID for the operation
+   * @return {@link DifferencesResponse DifferencesResponse} with message indicating the result of the operation
+   */
+  public ResponseEntity<DifferencesResponse> diffOperation(Long id) {
+    return diffOperation(id, false, false);
+  }
+
+  /**
+   * Endpoint for streaming the results of diff operation, as Server-Sent Events.
+   * <p>
+   * Listing differences of large operands takes a while, and the regular endpoint answers nothing until done. This one
+   * answers right away, and emits events while diff-ing, in the background:
+   * <p>
+   * - progress: {@link DifferencesProgress DifferencesProgress} of the comparison, every now and then
+   * - difference: every {@link Difference Difference}, as found (engines unable to tell complete differences while
+   * comparing emit them all at the end)
+   * - result: {@link DifferencesResponse DifferencesResponse} with message indicating the result of the operation and a
+   * {@link DifferencesSummary DifferencesSummary} of the differences emitted, last
+   * <p>
+   * Operations failing before streaming starts are answered with a single error event, holding a
+   * {@link DifferencesResponse DifferencesResponse} with message indicating the failure, and the same status the
+   * regular endpoint would answer with. Operations not fitting in the {@link MemoryBudget MemoryBudget}, or in the
+   * {@link DiffStreams DiffStreams} queue, are answered with 503 (Service Unavailable) and a Retry-After header.
+   * <p>
+   * Operands are marked as processed once all differences are emitted. Streams aborted before leave operands pending:
+   * streams going past their deadline (as in the regular endpoint) end with an error event, while streams whose client
+   * went away are just stopped.
+   *
+   * @param id        ID for the operation
+   * @param timeoutMs Time, in milliseconds, the operation may take at most (0 for the configured deadline)
+   * @return Emitter of the events of the operation
+   */
+  @GetMapping(value = "/v1/diff/{id}/stream", produces = TEXT_EVENT_STREAM_VALUE)
+  public ResponseEntity<SseEmitter> streamOperation(@PathVariable Long id, @RequestParam(defaultValue = "0") long timeoutMs) {
+
+    // Fail upon invalid IDs
+    if (id == null) {
+      return badRequest().body(streamError(INVALID_ID));
+    }
+
+    final DiffTrace trace = new DiffTrace(id);
+    long time = System.nanoTime();
+
+    final List<DifferenceOperand> operands = repository.findByOperationIdAndProcessed(id, false);
+    final long fetched = trace.mark(FETCH, time);
+
+    // Fail upon operands count mismatch
+    if (operands.size() != 2) {
+      return badRequest().body(streamError(format(NO_COMPARISON_PENDING_FOR_ID, id)));
+    }
+
+    // Fail upon invalid operands
+    if (operands.stream().anyMatch(operand -> !operand.isValid())) {
+      return badRequest().body(streamError(INVALID_OPERANDS));
+    }
+
+    // Fail upon lack of memory, charged as the regular endpoint does. The reservation is released once the stream ends
+    long memory = DIFF_OVERHEAD * ((long) operands.get(0).getSize() + operands.get(1).getSize());
+    final MemoryBudget.Reservation reservation = budget.reserve(memory);
+    if (reservation == null) {
+      return streamBusy();
+    }
+
+    final Cancellation cancellation = Cancellation.withTimeout(deadline(timeoutMs));
+    final SseEmitter emitter = streams.emitter(cancellation);
+    boolean started = streams.start(() -> {
+      try {
+        streamOperands(operands, emitter, trace, fetched, cancellation);
+      } finally {
+        reservation.close();
+        metrics.record(trace);
+      }
+    });
+    if (!started) {
+      reservation.close();
+      return streamBusy();
+    }
+    return ok(emitter);
+  }
+
+  /**
+   * Diff operation itself, accounting time spent per phase into provided trace.
+   *
+   * @param id           ID for the operation
+   * @param equalsOnly   Whether to just tell if operands are equal, instead of listing their differences
+   * @param summary      Whether to summarize differences, instead of listing them
+   * @param trace        Trace of the operation
+   * @param cancellation Token to stop the operation with
+   * @return {@link DifferencesResponse DifferencesResponse} with message indicating the result of the operation
+   * @throws DiffCancelledException if the operation is stopped before done
+   */
+  private ResponseEntity<DifferencesResponse> diffOperation(Long id, boolean equalsOnly, boolean summary, DiffTrace trace,
+                                                            Cancellation cancellation) {
+    // Operations cancelled while queued do not even start
+    cancellation.check();
+    long time = System.nanoTime();
+
     final List<DifferenceOperand> operands = repository.findByOperationIdAndProcessed(id, false);
+    time = trace.mark(FETCH, time);
 
     // Fail upon operands count mismatch
     if (operands.size() != 2) {
@@ -172,53 +443,375 @@ public class DifferencesController {
       return badRequest().body(new DifferencesResponse(INVALID_OPERANDS));
     }
 
-    byte[] left = decode(operands.get(0).getData());
-    byte[] right = decode(operands.get(1).getData());
+    // Serve differences computed ahead of time, if any. Waiting for them to be computed counts as diff-ing
+    final DifferencesResponse precomputed = equalsOnly || summary ? null : precomputedDiffs.take(id, operands, cancellation);
+    if (precomputed != null) {
+      trace.differences(precomputed.getDifferences().size());
+      trace.mark(DIFF, time);
+      return markOperandsAsProcessed(operands, ok(precomputed), trace);
+    }
+
+    // Fail upon lack of memory. Base64 data and decoded bytes of both operands are held at once, so charge twice their
+    // size. Equality checks hold (at most) Base64 data only
+    long memory = (equalsOnly ? 1 : DIFF_OVERHEAD) * ((long) operands.get(0).getSize() + operands.get(1).getSize());
+    try (MemoryBudget.Reservation reservation = budget.reserve(memory)) {
+      if (reservation == null) {
+        return status(SERVICE_UNAVAILABLE)
+            .header(RETRY_AFTER, String.valueOf(budget.getRetryAfterSeconds()))
+            .body(new DifferencesResponse(SERVER_BUSY));
+      }
+      ResponseEntity<DifferencesResponse> response = equalsOnly
+          ? compareOperands(operands, trace, time)
+          : diffOperands(operands, summary, trace, time, cancellation);
+      return markOperandsAsProcessed(operands, response, trace);
+    }
+  }
 
-    // Do not operate on different length arrays, just indicate they are not equal
-    if (left.length != right.length) {
-      markOperandsAsProcessed(operands);
-      return ok().body(new DifferencesResponse(BYTE_ARRAYS_ARE_NOT_EQUAL));
+  /**
+   * Computes differences of an operation ahead of time, in the background. Operations not fitting in the
+   * {@link MemoryBudget MemoryBudget} right away are left to be computed when asked for.
+   * <p>
+   * Operands are not marked as processed until the result is served.
+   *
+   * @param operands Left and right operands
+   * @return {@link DifferencesResponse DifferencesResponse} the operation would be answered with, or null if not computed
+   */
+  private DifferencesResponse precompute(List<DifferenceOperand> operands) {
+    if (operands.stream().anyMatch(operand -> !operand.isValid())) {
+      return null;
     }
+    long memory = DIFF_OVERHEAD * ((long) operands.get(0).getSize() + operands.get(1).getSize());
+    try (MemoryBudget.Reservation reservation = budget.reserve(memory)) {
+      if (reservation == null) {
+        return null;
+      }
+      return diffOperands(operands, false, new DiffTrace(operands.get(0).getOperationId()), System.nanoTime(),
+          Cancellation.withTimeout(timeoutMillis)).getBody();
+    }
+  }
 
-    // Process operands
-    final List<Difference> differences = differentiable.diff(left, right);
+  /**
+   * Tells whether valid operands are equal, accounting time spent per phase into provided trace.
+   * <p>
+   * Uploaded Base64 payloads are stored canonical, padded and with unused bits cleared (see
+   * {@link com.waes.interview.assignment.converters.DifferencesRequestDeserializer DifferencesRequestDeserializer}),
+   * so they are equal if and only if decoded operands are. Base64 data is compared as is, without decoding it, and
+   * only up to the first difference. Operands of different size are told apart without reading their data at all.
+   *
+   * @param operands Left and right operands
+   * @param trace    Trace of the operation
+   * @param time     Instant the current phase started at
+   * @return {@link DifferencesResponse DifferencesResponse} with message indicating the result of the operation
+   */
+  private ResponseEntity<DifferencesResponse> compareOperands(List<DifferenceOperand> operands, DiffTrace trace, long time) {
+    DifferenceOperand leftOperand = operands.get(0);
+    DifferenceOperand rightOperand = operands.get(1);
+    boolean sameSize = leftOperand.getSize() == rightOperand.getSize();
+    byte[] leftBase64 = sameSize && leftOperand.getCodec().isCompressed() ? buffers.acquire(leftOperand.getSize()) : null;
+    byte[] rightBase64 = sameSize && rightOperand.getCodec().isCompressed() ? buffers.acquire(rightOperand.getSize()) : null;
+    try {
+      boolean equal = false;
+      if (sameSize) {
+        byte[] left = leftOperand.getBase64Bytes(leftBase64);
+        byte[] right = rightOperand.getBase64Bytes(rightBase64);
+        time = trace.mark(DECODE, time);
+
+        equal = ByteArrays.mismatch(left, right, leftOperand.getSize()) == -1;
+        trace.mark(DIFF, time);
+      }
+
+      return ok(new DifferencesResponse(equal ? BYTE_ARRAYS_ARE_EQUAL : BYTE_ARRAYS_ARE_NOT_EQUAL));
+    } finally {
+      buffers.release(leftBase64);
+      buffers.release(rightBase64);
+    }
+  }
 
-    markOperandsAsProcessed(operands);
+  /**
+   * Decodes and diffs valid operands, accounting time spent per phase into provided trace.
+   *
+   * @param operands     Left and right operands
+   * @param summary      Whether to summarize differences, instead of listing them
+   * @param trace        Trace of the operation
+   * @param time         Instant the current phase started at
+   * @param cancellation Token to stop the operation with
+   * @return {@link DifferencesResponse DifferencesResponse} with message indicating the result of the operation
+   * @throws DiffCancelledException if the operation is stopped before done
+   */
+  private ResponseEntity<DifferencesResponse> diffOperands(List<DifferenceOperand> operands, boolean summary, DiffTrace trace,
+                                                           long time, Cancellation cancellation) {
+    DifferenceOperand leftOperand = operands.get(0);
+    DifferenceOperand rightOperand = operands.get(1);
+    byte[] leftBase64 = leftOperand.getCodec().isCompressed() ? buffers.acquire(leftOperand.getSize()) : null;
+    byte[] rightBase64 = rightOperand.getCodec().isCompressed() ? buffers.acquire(rightOperand.getSize()) : null;
+    byte[] left = buffers.acquire(maxDecodedSize(leftOperand.getSize()));
+    byte[] right = buffers.acquire(maxDecodedSize(rightOperand.getSize()));
+    try {
+      int leftLength = decode(leftOperand, leftBase64, left);
+      int rightLength = decode(rightOperand, rightBase64, right);
+      trace.sizes(leftLength, rightLength);
+      time = trace.mark(DECODE, time);
+
+      // Do not operate on different length arrays, unless differentiable supports it. Just indicate they are not equal
+      if (leftLength != rightLength && !differentiable.supportsDifferentLengths()) {
+        return ok().body(new DifferencesResponse(BYTE_ARRAYS_ARE_NOT_EQUAL));
+      }
+
+      if (summary) {
+        return summarizeOperands(left, leftLength, right, rightLength, trace, time, cancellation);
+      }
+
+      // Process operands
+      final List<Difference> differences = diff(left, leftLength, right, rightLength, cancellation);
+      trace.differences(differences.size());
+      trace.mark(DIFF, time);
+
+      // If we noticed differences, then arrays were not equal
+      if (!differences.isEmpty()) {
+        return ok(new DifferencesResponse(BYTE_ARRAYS_ARE_NOT_EQUAL, differences));
+      }
+
+      // Otherwise, arrays were equals
+      return ok(new DifferencesResponse(BYTE_ARRAYS_ARE_EQUAL, differences));
+    } finally {
+      // Differences hold no reference to operands, so buffers can be reused right away
+      buffers.release(leftBase64);
+      buffers.release(rightBase64);
+      buffers.release(left);
+      buffers.release(right);
+    }
+  }
 
-    // If we noticed differences, then arrays were not equal
-    if (!differences.isEmpty()) {
-      return ok(new DifferencesResponse(BYTE_ARRAYS_ARE_NOT_EQUAL, differences));
+  /**
+   * Decodes and diffs valid operands, emitting differences as found, accounting time spent per phase into provided
+   * trace. Completes the emitter, with an error if the stream is aborted.
+   *
+   * @param operands     Left and right operands
+   * @param emitter      Emitter of the events of the operation
+   * @param trace        Trace of the operation
+   * @param time         Instant the current phase started at
+   * @param cancellation Token to stop the operation with
+   */
+  private void streamOperands(List<DifferenceOperand> operands, SseEmitter emitter, DiffTrace trace, long time,
+                              Cancellation cancellation) {
+    DifferenceOperand leftOperand = operands.get(0);
+    DifferenceOperand rightOperand = operands.get(1);
+    byte[] leftBase64 = leftOperand.getCodec().isCompressed() ? buffers.acquire(leftOperand.getSize()) : null;
+    byte[] rightBase64 = rightOperand.getCodec().isCompressed() ? buffers.acquire(rightOperand.getSize()) : null;
+    byte[] left = buffers.acquire(maxDecodedSize(leftOperand.getSize()));
+    byte[] right = buffers.acquire(maxDecodedSize(rightOperand.getSize()));
+    try {
+      // Streams may wait in the queue long enough for their client to go away
+      cancellation.check();
+
+      int leftLength = decode(leftOperand, leftBase64, left);
+      int rightLength = decode(rightOperand, rightBase64, right);
+      trace.sizes(leftLength, rightLength);
+      time = trace.mark(DECODE, time);
+
+      final DifferencesResponse result;
+
+      // Do not operate on different length arrays, unless differentiable supports it. Just indicate they are not equal
+      if (leftLength != rightLength && !differentiable.supportsDifferentLengths()) {
+        result = new DifferencesResponse(BYTE_ARRAYS_ARE_NOT_EQUAL);
+      } else {
+        final DifferencesSummarizer summarizer = new DifferencesSummarizer();
+        stream(left, leftLength, right, rightLength, new DifferencesListener() {
+          @Override
+          public void difference(Difference difference) {
+            summarizer.add(difference);
+            send(emitter, DIFFERENCE_EVENT, difference);
+          }
+
+          @Override
+          public void difference(Difference difference, int differingBytes) {
+            summarizer.add(difference, differingBytes);
+            send(emitter, DIFFERENCE_EVENT, difference);
+          }
+
+          @Override
+          public void progress(int scanned, int total) {
+            send(emitter, PROGRESS_EVENT, new DifferencesProgress(scanned, total));
+          }
+        }, cancellation);
+        final DifferencesSummary summary = summarizer.toSummary();
+        trace.differences(summary.getRuns());
+        result = new DifferencesResponse(summary.getRuns() > 0 ? BYTE_ARRAYS_ARE_NOT_EQUAL : BYTE_ARRAYS_ARE_EQUAL, summary);
+      }
+      trace.mark(DIFF, time);
+
+      markOperandsAsProcessed(operands, ok(result), trace);
+      send(emitter, RESULT_EVENT, result);
+      emitter.complete();
+    } catch (DiffCancelledException e) {
+      metrics.cancelled(e.isTimedOut());
+      // Clients still listening are told about deadlines. Nobody is listening to cancelled streams
+      if (e.isTimedOut()) {
+        sendQuietly(emitter, ERROR_EVENT, new DifferencesResponse(TIMED_OUT));
+      }
+      emitter.complete();
+    } catch (UncheckedIOException e) {
+      // Clients going away may also surface as failures to send events, before the request is told
+      metrics.cancelled(false);
+      emitter.completeWithError(e);
+    } catch (RuntimeException e) {
+      emitter.completeWithError(e);
+    } finally {
+      buffers.release(leftBase64);
+      buffers.release(rightBase64);
+      buffers.release(left);
+      buffers.release(right);
     }
+  }
 
-    // Otherwise, arrays were equals
-    return ok(new DifferencesResponse(BYTE_ARRAYS_ARE_EQUAL, differences));
+  /**
+   * Summarizes differences of decoded operands, accounting time spent per phase into provided trace.
+   */
+  private ResponseEntity<DifferencesResponse> summarizeOperands(byte[] left, int leftLength, byte[] right, int rightLength,
+                                                                DiffTrace trace, long time, Cancellation cancellation) {
+    final DifferencesSummary summary = summarize(left, leftLength, right, rightLength, cancellation);
+    trace.differences(summary.getRuns());
+    trace.mark(DIFF, time);
+
+    return ok(new DifferencesResponse(summary.getRuns() > 0 ? BYTE_ARRAYS_ARE_NOT_EQUAL : BYTE_ARRAYS_ARE_EQUAL, summary));
+  }
+
+  /**
+   * Summarizes differences of the leading bytes of provided buffers, the same way {@link #diff diff} lists them.
+   */
+  private DifferencesSummary summarize(byte[] left, int leftLength, byte[] right, int rightLength, Cancellation cancellation) {
+    if (differentiable instanceof ByteArrayDifferentiable) {
+      return ((ByteArrayDifferentiable) differentiable).summarize(left, leftLength, right, rightLength, cancellation);
+    }
+    cancellation.check();
+    return differentiable.summarize(copyOf(left, leftLength), copyOf(right, rightLength));
+  }
+
+  /**
+   * Diffs the leading bytes of provided buffers.
+   * <p>
+   * Region aware differentiables work on the buffers as they are, and stop half way once cancelled. Others require
+   * exact size copies, and can only be stopped before starting.
+   */
+  private List<Difference> diff(byte[] left, int leftLength, byte[] right, int rightLength, Cancellation cancellation) {
+    if (differentiable instanceof ByteArrayDifferentiable) {
+      return ((ByteArrayDifferentiable) differentiable).diff(left, leftLength, right, rightLength, cancellation);
+    }
+    cancellation.check();
+    return differentiable.diff(copyOf(left, leftLength), copyOf(right, rightLength));
+  }
+
+  /**
+   * Diffs the leading bytes of provided buffers, handing differences over to a listener.
+   * <p>
+   * Region aware differentiables work on the buffers as they are, and may hand differences over as found. Others
+   * require exact size copies, and hand differences over once done.
+   */
+  private void stream(byte[] left, int leftLength, byte[] right, int rightLength, DifferencesListener listener,
+                      Cancellation cancellation) {
+    if (differentiable instanceof ByteArrayDifferentiable) {
+      ((ByteArrayDifferentiable) differentiable).stream(left, leftLength, right, rightLength, listener, cancellation);
+      return;
+    }
+    cancellation.check();
+    differentiable.diff(copyOf(left, leftLength), copyOf(right, rightLength)).forEach(listener::difference);
+    int total = Math.max(leftLength, rightLength);
+    listener.progress(total, total);
   }
 
   /**
    * Marks the operands as processed by {@link DifferencesController DifferencesController}.
+   * <p>
+   * Operands are marked through a bulk update, possibly write-behind, instead of being saved again along with their data.
    *
    * @param operands List of operands to set as processed
+   * @param response Response of the operation, returned as is
+   * @param trace    Trace of the operation
+   * @return Provided response
+   */
+  private ResponseEntity<DifferencesResponse> markOperandsAsProcessed(List<DifferenceOperand> operands,
+                                                                      ResponseEntity<DifferencesResponse> response,
+                                                                      DiffTrace trace) {
+    long time = System.nanoTime();
+    processedWriter.markProcessed(operands);
+    trace.mark(PERSIST, time);
+    return response;
+  }
+
+  /**
+   * Emits an event, as JSON
+   *
+   * @throws UncheckedIOException if the event cannot be sent (e.g. the client went away)
+   */
+  private static void send(SseEmitter emitter, String name, Object data) {
+    try {
+      emitter.send(SseEmitter.event().name(name).data(data, APPLICATION_JSON));
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Emits an event, if the client is still there
    */
-  private void markOperandsAsProcessed(List<DifferenceOperand> operands) {
-    operands.forEach(operand -> operand.setProcessed(true));
-    repository.saveAll(operands);
+  private static void sendQuietly(SseEmitter emitter, String name, Object data) {
+    try {
+      send(emitter, name, data);
+    } catch (RuntimeException e) {
+      // Client went away as well
+    }
   }
 
   /**
-   * Decodes the incoming request payload from Base64 into a byte array.
+   * Deadline of an operation: the one asked for by the consumer, if any, but never past the configured one
+   *
+   * @param requestedMillis Time, in milliseconds, asked for by the consumer (0 or less for none)
+   * @return Time, in milliseconds, the operation may take at most (0 for no deadline)
+   */
+  private long deadline(long requestedMillis) {
+    return Cancellation.timeoutMillis(requestedMillis, timeoutMillis);
+  }
+
+  /**
+   * Emitter of a single error event, already complete
+   *
+   * @param message Message indicating the failure
+   * @return Emitter of the error event
+   */
+  private static SseEmitter streamError(String message) {
+    SseEmitter emitter = new SseEmitter();
+    // Events sent before the emitter is handled are held, and sent once it is
+    send(emitter, ERROR_EVENT, new DifferencesResponse(message));
+    emitter.complete();
+    return emitter;
+  }
+
+  private ResponseEntity<SseEmitter> streamBusy() {
+    return status(SERVICE_UNAVAILABLE)
+        .header(RETRY_AFTER, String.valueOf(budget.getRetryAfterSeconds()))
+        .body(streamError(SERVER_BUSY));
+  }
+
+  /**
+   * Decodes the stored operand payload from Base64 into provided buffer.
+   * <p>
+   * Stored data is decompressed (if required) and Base64 decoded from bytes into provided buffers, validating it in
+   * the same pass. Neither the Base64 payload is materialized as a String nor intermediate arrays are allocated.
    * <p>
-   * Any failure during attempting to do so will result in a zero length byte array returning.
+   * Any failure during attempting to do so will result in nothing decoded.
    *
-   * @param base64Data Incoming Base64 data from {@link DifferencesRequest DifferencesRequest}
-   * @return a byte array with the decoding of the Base64 payload present in the incoming {@link DifferencesRequest DifferencesRequest}
+   * @param operand      Stored operand holding the Base64 data from {@link DifferencesRequest DifferencesRequest}
+   * @param base64Buffer Buffer of at least the operand size to decompress Base64 data into, if compressed
+   * @param buffer       Buffer of at least {@link Base64Decoder#maxDecodedSize(int) maxDecodedSize} bytes to decode into
+   * @return Amount of leading bytes of the buffer holding the decoding of the Base64 payload present in the incoming
+   * {@link DifferencesRequest DifferencesRequest}
    */
-  private byte[] decode(String base64Data) {
+  private static int decode(DifferenceOperand operand, byte[] base64Buffer, byte[] buffer) {
     try {
-      return getDecoder().decode(base64Data);
+      return Base64Decoder.decode(operand.getBase64Bytes(base64Buffer), operand.getSize(), buffer);
     } catch (Exception e) {
       // Should never happen
-      return new byte[0];
+      return 0;
     }
   }
 
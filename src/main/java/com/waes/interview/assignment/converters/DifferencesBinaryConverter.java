@@ -0,0 +1,212 @@
+package com.waes.interview.assignment.converters;
+
+import com.waes.interview.assignment.models.Difference;
+import com.waes.interview.assignment.models.DifferencesResponse;
+import com.waes.interview.assignment.models.DifferencesSummary;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * HTTP message converter for a compact binary representation of {@link DifferencesResponse DifferencesResponse}.
+ * <p>
+ * Selected through content negotiation (<code>Accept: application/x-waes-diff</code>) as a cheaper alternative to JSON
+ * for consumers dealing with dense differences. Layout (all integers are base 128 varints, as in Protocol Buffers):
+ * <p>
+ * - message length, followed by message bytes (UTF-8)
+ * - differences count
+ * - for every difference: position delta (zig-zag encoded) from the end of the previous difference, then its offset
+ * shifted left one bit, with the lowest bit flagging a right side specific range. If flagged, right position delta
+ * (zig-zag encoded) from the end of the previous right side range and right offset follow.
+ * - optionally, for summarized operations: differing bytes, runs, largest run, then first and last positions plus one
+ * (zero when absent). Readers stopping after differences are unaffected.
+ * <p>
+ * Since differences are sorted and do not overlap, position deltas stay small and most differences fit in 2 bytes.
+ *
+ * @author Juan Krzemien
+ */
+public class DifferencesBinaryConverter extends AbstractHttpMessageConverter<DifferencesResponse> {
+
+  /**
+   * Media type served by this converter
+   */
+  public static final String APPLICATION_DIFF_VALUE = "application/x-waes-diff";
+  public static final MediaType APPLICATION_DIFF = MediaType.valueOf(APPLICATION_DIFF_VALUE);
+
+  private static final int BUFFER_SIZE = 8 * 1024;
+  // Longest message accepted by readers, so a malformed length cannot make them allocate at will
+  private static final int MAX_MESSAGE_LENGTH = 64 * 1024;
+
+  /**
+   * Constructor
+   */
+  public DifferencesBinaryConverter() {
+    super(APPLICATION_DIFF);
+  }
+
+  @Override
+  protected boolean supports(Class<?> clazz) {
+    return DifferencesResponse.class.isAssignableFrom(clazz);
+  }
+
+  @Override
+  protected DifferencesResponse readInternal(Class<? extends DifferencesResponse> clazz, HttpInputMessage inputMessage) throws IOException {
+    try {
+      return read(inputMessage.getBody());
+    } catch (EOFException e) {
+      throw new HttpMessageNotReadableException("Truncated differences", e);
+    }
+  }
+
+  @Override
+  protected void writeInternal(DifferencesResponse response, HttpOutputMessage outputMessage) throws IOException {
+    write(response, outputMessage.getBody());
+  }
+
+  /**
+   * Writes provided response to given stream, using the binary layout of this converter.
+   *
+   * @param response Response to write
+   * @param stream   Stream to write response into. It is flushed, but not closed.
+   * @throws IOException upon stream failures
+   */
+  public static void write(DifferencesResponse response, OutputStream stream) throws IOException {
+    OutputStream output = new BufferedOutputStream(stream, BUFFER_SIZE);
+
+    byte[] message = response.getMessage() != null ? response.getMessage().getBytes(UTF_8) : new byte[0];
+    writeVarint(output, message.length);
+    output.write(message);
+
+    List<Difference> differences = response.getDifferences();
+    writeVarint(output, differences.size());
+
+    long end = 0;
+    long rightEnd = 0;
+    for (Difference difference : differences) {
+      boolean aligned = difference.isAligned();
+      writeZigZag(output, difference.getPosition() - end);
+      writeVarint(output, ((long) difference.getOffset() << 1) | (aligned ? 0 : 1));
+      end = (long) difference.getPosition() + difference.getOffset();
+      if (!aligned) {
+        writeZigZag(output, difference.getRightPosition() - rightEnd);
+        writeVarint(output, difference.getRightOffset());
+        rightEnd = (long) difference.getRightPosition() + difference.getRightOffset();
+      }
+    }
+
+    DifferencesSummary summary = response.getSummary();
+    if (summary != null) {
+      writeVarint(output, summary.getDifferingBytes());
+      writeVarint(output, summary.getRuns());
+      writeVarint(output, summary.getLargestRun());
+      writeVarint(output, summary.getFirstPosition() != null ? summary.getFirstPosition() + 1L : 0);
+      writeVarint(output, summary.getLastPosition() != null ? summary.getLastPosition() + 1L : 0);
+    }
+
+    output.flush();
+  }
+
+  /**
+   * Reads a response from given stream, using the binary layout of this converter.
+   *
+   * @param stream Stream to read response from
+   * @return Response read
+   * @throws IOException upon stream failures or truncated content
+   * @throws HttpMessageNotReadableException upon malformed content, such as negative or oversized lengths
+   */
+  public static DifferencesResponse read(InputStream stream) throws IOException {
+    InputStream input = new BufferedInputStream(stream, BUFFER_SIZE);
+
+    byte[] message = new byte[readLength(input, MAX_MESSAGE_LENGTH)];
+    new DataInputStream(input).readFully(message);
+
+    int count = readLength(input, Integer.MAX_VALUE);
+    // Do not trust the count for pre-allocating, since content may be truncated
+    List<Difference> differences = new ArrayList<>(Math.min(count, BUFFER_SIZE));
+
+    long end = 0;
+    long rightEnd = 0;
+    for (int i = 0; i < count; i++) {
+      long position = end + readZigZag(input);
+      long flaggedOffset = readVarint(input);
+      long offset = flaggedOffset >>> 1;
+      end = position + offset;
+      if ((flaggedOffset & 1) == 0) {
+        differences.add(new Difference((int) position, (int) offset));
+      } else {
+        long rightPosition = rightEnd + readZigZag(input);
+        long rightOffset = readVarint(input);
+        differences.add(new Difference((int) position, (int) offset, (int) rightPosition, (int) rightOffset));
+        rightEnd = rightPosition + rightOffset;
+      }
+    }
+
+    // Summary is optional, and the last thing in the stream
+    DifferencesSummary summary = null;
+    input.mark(1);
+    if (input.read() != -1) {
+      input.reset();
+      long differingBytes = readVarint(input);
+      int runs = (int) readVarint(input);
+      int largestRun = (int) readVarint(input);
+      long firstPosition = readVarint(input);
+      long lastPosition = readVarint(input);
+      summary = new DifferencesSummary(differingBytes, runs, largestRun,
+          firstPosition > 0 ? (int) (firstPosition - 1) : null, lastPosition > 0 ? (int) (lastPosition - 1) : null);
+    }
+
+    return new DifferencesResponse(new String(message, UTF_8), differences, summary);
+  }
+
+  /**
+   * Reads a length (or count), failing on values out of 0 to max range instead of trusting them
+   */
+  private static int readLength(InputStream input, int max) throws IOException {
+    long length = readVarint(input);
+    if (length < 0 || length > max) {
+      throw new HttpMessageNotReadableException("Malformed length: " + Long.toUnsignedString(length));
+    }
+    return (int) length;
+  }
+
+  private static void writeZigZag(OutputStream output, long value) throws IOException {
+    writeVarint(output, (value << 1) ^ (value >> 63));
+  }
+
+  private static long readZigZag(InputStream input) throws IOException {
+    long zigzag = readVarint(input);
+    return (zigzag >>> 1) ^ -(zigzag & 1);
+  }
+
+  private static void writeVarint(OutputStream output, long value) throws IOException {
+    while ((value & ~0x7FL) != 0) {
+      output.write((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    output.write((int) value);
+  }
+
+  private static long readVarint(InputStream input) throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = input.read();
+      if (b == -1) {
+        throw new EOFException();
+      }
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new HttpMessageNotReadableException("Malformed varint");
+  }
+
+}
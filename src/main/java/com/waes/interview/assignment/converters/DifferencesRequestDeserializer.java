@@ -0,0 +1,191 @@
+package com.waes.interview.assignment.converters;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.waes.interview.assignment.models.DifferencesRequest;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import static java.util.Arrays.copyOf;
+
+/**
+ * Streaming Jackson deserializer for {@link DifferencesRequest DifferencesRequest}.
+ * <p>
+ * Default deserialization builds the whole Base64 <code>payload</code> as a String (2 bytes per character) before it
+ * is converted to bytes for storage. Instead, the payload is copied out of the parser's text buffer, segment by segment,
+ * into US-ASCII Base64 bytes, taking 1 byte per character and no String. The text buffer still holds the whole payload
+ * (2 bytes per character) while copied, until the request is parsed.
+ * <p>
+ * As a side effect, payloads are validated while copied: invalid Base64 fails the request (400 Bad Request) up front.
+ * Accepted payloads are the ones {@link java.util.Base64#getDecoder() Base64.getDecoder()} accepts (standard alphabet,
+ * optional padding at the end only), and are stored in canonical form: padded, and with the unused bits of the last
+ * character cleared. Payloads decoding to the same bytes are then stored as the same Base64 text, which equality
+ * checks rely on.
+ *
+ * @author Juan Krzemien
+ */
+public class DifferencesRequestDeserializer extends StdDeserializer<DifferencesRequest> {
+
+  private static final long serialVersionUID = 1L;
+  private static final String PAYLOAD = "payload";
+  private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+
+  /**
+   * Constructor
+   */
+  public DifferencesRequestDeserializer() {
+    super(DifferencesRequest.class);
+  }
+
+  @Override
+  public DifferencesRequest deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+    JsonToken token = parser.currentToken();
+    if (token == JsonToken.START_OBJECT) {
+      token = parser.nextToken();
+    }
+
+    byte[] payload = null;
+    for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+      String field = parser.getCurrentName();
+      token = parser.nextToken();
+      if (PAYLOAD.equals(field) && token == JsonToken.VALUE_STRING) {
+        payload = readBase64(parser, context);
+      } else if (PAYLOAD.equals(field) && token != JsonToken.VALUE_NULL) {
+        return (DifferencesRequest) context.handleUnexpectedToken(DifferencesRequest.class, parser);
+      } else {
+        parser.skipChildren();
+      }
+    }
+
+    if (token != JsonToken.END_OBJECT) {
+      return (DifferencesRequest) context.handleUnexpectedToken(DifferencesRequest.class, parser);
+    }
+    return DifferencesRequest.fromBase64Bytes(payload);
+  }
+
+  /**
+   * Copies current string token into US-ASCII bytes, validating it as Base64 and making it canonical
+   */
+  private static byte[] readBase64(JsonParser parser, DeserializationContext context) throws IOException {
+    // Completes the token first, so Base64 bytes are allocated once, at their final size
+    Base64Writer base64 = new Base64Writer(parser.getTextLength());
+    try {
+      parser.getText(base64);
+      base64.close();
+    } catch (IllegalArgumentException e) {
+      // Turn invalid Base64 into a mapping failure (400 Bad Request)
+      throw context.weirdStringException(null, byte[].class, e.getMessage());
+    }
+    return base64.toByteArray();
+  }
+
+  /**
+   * Writer of Base64 text into US-ASCII bytes, validating it on the fly with the rules of
+   * {@link java.util.Base64#getDecoder() Base64.getDecoder()}: standard alphabet only, and padding (optional) only to
+   * complete the last 4 characters unit.
+   * <p>
+   * Output is canonical: missing padding is added on close, and unused bits of the last character of an incomplete
+   * unit are cleared. That character is held back until known to be the last one.
+   */
+  private static final class Base64Writer extends Writer {
+
+    private final byte[] bytes;
+    private int size;
+    // Characters of the current 4 characters unit, and padding characters still expected to complete it
+    private int unitLength;
+    private int missingPadding;
+    private boolean padded;
+    // Last alphabet character, not written yet (-1 if none)
+    private int held = -1;
+
+    /**
+     * Constructor
+     *
+     * @param length Length of the Base64 text to write, padding included if any
+     */
+    private Base64Writer(int length) {
+      // Padded to complete 4 characters units, if not already
+      this.bytes = new byte[(length + 3) / 4 * 4];
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int length) {
+      for (int i = offset; i < offset + length; i++) {
+        char c = chars[i];
+        if (padded) {
+          throw new IllegalArgumentException("Input has characters after padding");
+        }
+        if (c == '=') {
+          if (missingPadding == 0 && unitLength < 2) {
+            throw new IllegalArgumentException("Input has padding in the middle");
+          }
+          if (missingPadding == 0) {
+            writeHeld();
+          }
+          // Units of 2 characters take 2 padding characters, units of 3 take 1
+          missingPadding = (missingPadding == 0 ? 4 - unitLength : missingPadding) - 1;
+          padded = missingPadding == 0;
+          bytes[size++] = (byte) c;
+        } else if (missingPadding > 0) {
+          throw new IllegalArgumentException("Input has incomplete padding");
+        } else if (isAlphabet(c)) {
+          if (held >= 0) {
+            bytes[size++] = (byte) held;
+          }
+          held = c;
+          unitLength = (unitLength + 1) & 3;
+        } else {
+          throw new IllegalArgumentException("Illegal base64 character " + Integer.toHexString(c));
+        }
+      }
+    }
+
+    @Override
+    public void flush() {
+      // Nothing is buffered
+    }
+
+    /**
+     * Validates the end of input, padding it if needed
+     */
+    @Override
+    public void close() {
+      if (missingPadding > 0) {
+        throw new IllegalArgumentException("Input has incomplete padding");
+      }
+      if (unitLength == 1 && !padded) {
+        throw new IllegalArgumentException("Input has a dangling character");
+      }
+      writeHeld();
+      for (int i = unitLength; !padded && unitLength > 0 && i < 4; i++) {
+        bytes[size++] = '=';
+      }
+    }
+
+    /**
+     * Writes the held character, clearing its unused bits if it ends an incomplete unit: 4 of them after 2
+     * characters (1 byte), 2 of them after 3 characters (2 bytes)
+     */
+    private void writeHeld() {
+      if (held < 0) {
+        return;
+      }
+      int unused = unitLength == 2 ? 0x0F : unitLength == 3 ? 0x03 : 0;
+      bytes[size++] = (byte) ALPHABET.charAt(ALPHABET.indexOf(held) & ~unused);
+      held = -1;
+    }
+
+    byte[] toByteArray() {
+      return size == bytes.length ? bytes : copyOf(bytes, size);
+    }
+
+    private static boolean isAlphabet(char c) {
+      return c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z' || c >= '0' && c <= '9' || c == '+' || c == '/';
+    }
+
+  }
+
+}
@@ -0,0 +1,199 @@
+package com.waes.interview.assignment.differentiator;
+
+import com.waes.interview.assignment.models.Difference;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Implementation of Differentiable for binary data of any length, based on content-defined chunking.
+ * <p>
+ * Meant for large operands where knowing which regions match is enough, without paying for an edit distance
+ * algorithm. Both operands are split in chunks whose boundaries depend on their content (a Gear rolling hash), so an
+ * insertion or deletion only affects the chunks around it. Chunks are matched by hash (and verified byte by byte), in
+ * order, and the unmatched ranges in between are reported as differences holding the range of both sides
+ * ({ position, offset } for the left side and { rightPosition, rightOffset } for the right side).
+ * <p>
+ * Whatever falls between differences is a matched range. Differences are as coarse as chunks are: expect them to span
+ * about one chunk around every actual change.
+ * <p>
+ * This algorithm performs in O(n + m) time and requires O((n + m) / chunkSize) memory besides the operands.
+ * Cancellation is checked every chunk.
+ *
+ * @author Juan Krzemien
+ */
+public class ByteArrayChunkDiffer implements ByteArrayDifferentiable {
+
+  /**
+   * Gear hash table. Fixed seed, so chunk boundaries are stable across runs.
+   */
+  private static final long[] GEAR = new long[256];
+
+  static {
+    Random random = new Random(0x5EED);
+    for (int i = 0; i < GEAR.length; i++) {
+      GEAR[i] = random.nextLong();
+    }
+  }
+
+  /**
+   * Largest average chunk size, so maximum chunk sizes (4 times the average) still fit in an int
+   */
+  public static final int MAX_AVERAGE_CHUNK_SIZE = 1 << 28;
+
+  /**
+   * Class members
+   */
+  private final int minChunkSize;
+  private final int maxChunkSize;
+  private final long boundaryMask;
+
+  /**
+   * Constructor
+   *
+   * @param averageChunkSize Expected average size of chunks. Rounded to a power of 2, not lower than 64 bytes.
+   * @throws IllegalArgumentException if negative or above {@link #MAX_AVERAGE_CHUNK_SIZE MAX_AVERAGE_CHUNK_SIZE}
+   */
+  public ByteArrayChunkDiffer(int averageChunkSize) {
+    if (averageChunkSize < 0 || averageChunkSize > MAX_AVERAGE_CHUNK_SIZE) {
+      throw new IllegalArgumentException("Average chunk size must be between 0 and " + MAX_AVERAGE_CHUNK_SIZE + ": " + averageChunkSize);
+    }
+    int bits = Math.max(6, 31 - Integer.numberOfLeadingZeros(averageChunkSize));
+    int average = 1 << bits;
+    this.minChunkSize = average / 4;
+    this.maxChunkSize = average * 4;
+    // Gear hash mixes older bytes into higher bits, so boundaries are decided by the highest bits
+    this.boundaryMask = ((1L << bits) - 1) << (64 - bits);
+  }
+
+  /**
+   * Compares the leading bytes of two byte arrays looking for unmatched ranges
+   *
+   * @param left         First byte array to compare
+   * @param leftLength   Amount of leading bytes of the first array to compare
+   * @param right        Second byte array to compare
+   * @param rightLength  Amount of leading bytes of the second array to compare
+   * @param cancellation Token to stop the comparison with
+   * @return List of unmatched ranges between the two provided byte arrays, if any.
+   */
+  @Override
+  public List<Difference> diff(byte[] left, int leftLength, byte[] right, int rightLength, Cancellation cancellation) {
+
+    // Do not operate on null arrays
+    if (left == null || right == null) {
+      return unmodifiableList(emptyList());
+    }
+
+    // Index left chunks by hash, in ascending order
+    Map<Long, ArrayDeque<int[]>> leftChunks = new HashMap<>();
+    for (int start = 0; start < leftLength; ) {
+      cancellation.check();
+      int end = boundary(left, start, leftLength);
+      leftChunks.computeIfAbsent(hash(left, start, end), key -> new ArrayDeque<>()).add(new int[]{start, end});
+      start = end;
+    }
+
+    // Scan right chunks, matching them in order against left ones
+    final List<Difference> differences = new ArrayList<>();
+    int leftCursor = 0;
+    int rightCursor = 0;
+    for (int start = 0; start < rightLength; ) {
+      cancellation.check();
+      int end = boundary(right, start, rightLength);
+      int[] match = match(leftChunks.get(hash(right, start, end)), leftCursor, left, right, start, end);
+      if (match != null) {
+        addUnmatched(leftCursor, match[0], rightCursor, start, differences);
+        leftCursor = match[1];
+        rightCursor = end;
+      }
+      start = end;
+    }
+    addUnmatched(leftCursor, leftLength, rightCursor, rightLength, differences);
+
+    return unmodifiableList(differences);
+  }
+
+  /**
+   * This implementation reports unmatched ranges of both sides, so it handles arrays of different lengths
+   *
+   * @return true
+   */
+  @Override
+  public boolean supportsDifferentLengths() {
+    return true;
+  }
+
+  /**
+   * Finds the end of the chunk starting at given position, not going past given length
+   */
+  private int boundary(byte[] data, int start, int length) {
+    int limit = Math.min(length, start + maxChunkSize);
+    int position = Math.min(limit, start + minChunkSize);
+    long hash = 0;
+    for (; position < limit; position++) {
+      hash = (hash << 1) + GEAR[data[position] & 0xFF];
+      if ((hash & boundaryMask) == 0) {
+        return position + 1;
+      }
+    }
+    return limit;
+  }
+
+  /**
+   * Picks the first left chunk with the same content at or after given position. Chunks behind it are dropped for
+   * good, as they can no longer match.
+   */
+  private static int[] match(ArrayDeque<int[]> candidates, int leftCursor, byte[] left, byte[] right, int start, int end) {
+    if (candidates == null) {
+      return null;
+    }
+    while (!candidates.isEmpty() && candidates.peekFirst()[0] < leftCursor) {
+      candidates.pollFirst();
+    }
+    for (int[] candidate : candidates) {
+      if (equal(left, candidate[0], candidate[1], right, start, end)) {
+        candidates.remove(candidate);
+        return candidate;
+      }
+    }
+    return null;
+  }
+
+  private static void addUnmatched(int leftStart, int leftEnd, int rightStart, int rightEnd, List<Difference> differences) {
+    if (leftStart != leftEnd || rightStart != rightEnd) {
+      differences.add(new Difference(leftStart, leftEnd - leftStart, rightStart, rightEnd - rightStart));
+    }
+  }
+
+  /**
+   * FNV-1a hash of a chunk
+   */
+  private static long hash(byte[] data, int start, int end) {
+    long hash = 0xcbf29ce484222325L;
+    for (int i = start; i < end; i++) {
+      hash ^= data[i] & 0xFF;
+      hash *= 0x100000001b3L;
+    }
+    return hash;
+  }
+
+  private static boolean equal(byte[] left, int leftStart, int leftEnd, byte[] right, int rightStart, int rightEnd) {
+    if (leftEnd - leftStart != rightEnd - rightStart) {
+      return false;
+    }
+    for (int i = leftStart, j = rightStart; i < leftEnd; i++, j++) {
+      if (left[i] != right[j]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+}
@@ -1,9 +1,12 @@
 package com.waes.interview.assignment.differentiator;
 
 import com.waes.interview.assignment.models.Difference;
+import com.waes.interview.assignment.models.DifferencesSummary;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.function.IntConsumer;
 
 import static java.util.Collections.emptyList;
 import static java.util.Collections.unmodifiableList;
@@ -14,7 +17,18 @@ import static java.util.Collections.unmodifiableList;
  * Takes two byte arrays of equal length and compares them looking for differences.
  * Differences will be stored as a list of Difference types ({ position=difference start , offSet = difference length })
  * <p>
- * This algorithm performs in O(n) complexity, as a full traversal of the arrays is required.
+ * This algorithm performs in O(n) complexity, as a full traversal of the arrays is required. Summaries are aggregated
+ * in the same traversal, without creating any Difference, so they take constant memory however dense differences are.
+ * <p>
+ * Optionally, runs separated by fewer than a given amount of equal bytes (gap tolerance) are merged into one, and the
+ * amount of differences is capped: once exceeded, the gap tolerance is doubled and differences found so far are merged
+ * again, as many times as required, so dense regions are reported as coarse ones instead. Summaries apply the gap
+ * tolerance, but not the cap, as they are bounded anyway. Merged runs keep count of their bytes actually differing, so
+ * summaries (and streamed differences) count those only, not the equal bytes merged in between.
+ * <p>
+ * Arrays are traversed in blocks of {@link #PROGRESS_INTERVAL} bytes, checking for cancellation before every block.
+ * Streamed comparisons hand differences over as found, reporting progress after every block.
+ * Capped differences may be merged again until the very end, so they are handed over once the comparison is done.
  * <p>
  * Deals with the portion of the WAES exercise:
  * <p>
@@ -26,18 +40,56 @@ import static java.util.Collections.unmodifiableList;
  * @author Juan Krzemien
  */
 
-public class ByteArrayDiffer implements Differentiable<byte[]> {
+public class ByteArrayDiffer implements ByteArrayDifferentiable {
+
+  /**
+   * Amount of bytes compared between progress reports of streamed comparisons, and between cancellation checks
+   */
+  public static final int PROGRESS_INTERVAL = 64 * 1024;
+
+  private static final IntConsumer NO_PROGRESS = scanned -> {
+  };
 
   /**
-   * Compares two byte arrays looking for differences
+   * Class members
+   */
+  private final int mergeGap;
+  private final int maxRuns;
+
+  /**
+   * Constructor. Every run of differing bytes is reported as is.
+   */
+  public ByteArrayDiffer() {
+    this(0, 0);
+  }
+
+  /**
+   * Constructor
    *
-   * @param left  First byte array to compare
-   * @param right Second byte array to compare
+   * @param mergeGap Runs separated by fewer equal bytes than this are merged (0 or 1 disables merging)
+   * @param maxRuns  Maximum amount of differences to report, merging them into coarser ones if needed (0 for no limit)
+   */
+  public ByteArrayDiffer(int mergeGap, int maxRuns) {
+    if (mergeGap < 0 || maxRuns < 0) {
+      throw new IllegalArgumentException("Merge gap and maximum runs cannot be negative");
+    }
+    this.mergeGap = mergeGap;
+    this.maxRuns = maxRuns;
+  }
+
+  /**
+   * Compares the leading bytes of two byte arrays looking for differences
+   *
+   * @param left         First byte array to compare
+   * @param leftLength   Amount of leading bytes of the first array to compare
+   * @param right        Second byte array to compare
+   * @param rightLength  Amount of leading bytes of the second array to compare
+   * @param cancellation Token to stop the comparison with
    * @return Instance holding a text message with comparison outcome and the list of differences found between the two
    * provided byte arrays, if any.
    */
   @Override
-  public List<Difference> diff(byte[] left, byte[] right) {
+  public List<Difference> diff(byte[] left, int leftLength, byte[] right, int rightLength, Cancellation cancellation) {
 
     // Do not operate on null arrays
     if (left == null || right == null) {
@@ -45,50 +97,263 @@ public class ByteArrayDiffer implements Differentiable<byte[]> {
     }
 
     // Save one size for later re-usability, as both arrays to operated on should be equal
-    int leftSize = left.length;
+    int leftSize = leftLength;
 
     // Do not operate on different length arrays
-    if (leftSize != right.length) {
+    if (leftSize != rightLength) {
       return unmodifiableList(emptyList());
     }
 
-    // Set the initial capacity of the array backed list to our arrays size
-    final List<Difference> differences = new ArrayList<>(leftSize);
+    // Let runs grow with the differences found. Sizing them after the arrays would allocate a slot per byte upfront,
+    // even for (the usual) sparse differences
+    final Runs runs = new Runs(mergeGap, maxRuns);
+    scan(left, right, leftSize, runs, NO_PROGRESS, cancellation);
+
+    return unmodifiableList(runs.toDifferences());
+  }
+
+  /**
+   * Compares the leading bytes of two byte arrays, aggregating differences in a single pass instead of listing them
+   *
+   * @param left         First byte array to compare
+   * @param leftLength   Amount of leading bytes of the first array to compare
+   * @param right        Second byte array to compare
+   * @param rightLength  Amount of leading bytes of the second array to compare
+   * @param cancellation Token to stop the comparison with
+   * @return Summary of the differences found between the two provided byte arrays. Empty for arrays of different length.
+   */
+  @Override
+  public DifferencesSummary summarize(byte[] left, int leftLength, byte[] right, int rightLength, Cancellation cancellation) {
+    DifferencesSummarizer summarizer = new DifferencesSummarizer();
+
+    // Do not operate on null or different length arrays
+    if (left != null && right != null && leftLength == rightLength) {
+      GapMerger merger = new GapMerger(mergeGap, summarizer::add);
+      scan(left, right, leftLength, merger, NO_PROGRESS, cancellation);
+      merger.flush();
+    }
+
+    return summarizer.toSummary();
+  }
+
+  /**
+   * Compares the leading bytes of two byte arrays, handing differences over to a listener as found. Uncapped
+   * differences are complete once the next one starts (or, when merging, once far enough from it), so they are handed
+   * over in the same traversal finding them.
+   *
+   * @param left         First byte array to compare
+   * @param leftLength   Amount of leading bytes of the first array to compare
+   * @param right        Second byte array to compare
+   * @param rightLength  Amount of leading bytes of the second array to compare
+   * @param listener     Receiver of the differences found and of the progress of the comparison
+   * @param cancellation Token to stop the comparison with
+   */
+  @Override
+  public void stream(byte[] left, int leftLength, byte[] right, int rightLength, DifferencesListener listener,
+                     Cancellation cancellation) {
+    // Null or different length arrays have no differences
+    if (left == null || right == null || leftLength != rightLength) {
+      ByteArrayDifferentiable.super.stream(left, leftLength, right, rightLength, listener, cancellation);
+      return;
+    }
+
+    // Capped differences are only known at the end
+    if (maxRuns > 0) {
+      final Runs runs = new Runs(mergeGap, maxRuns);
+      scan(left, right, leftLength, runs, NO_PROGRESS, cancellation);
+      runs.forEach((position, length, differing) -> listener.difference(new Difference(position, length), differing));
+      listener.progress(leftLength, leftLength);
+      return;
+    }
+
+    if (mergeGap > 1) {
+      GapMerger merger = new GapMerger(mergeGap,
+          (position, length, differing) -> listener.difference(new Difference(position, length), differing));
+      scan(left, right, leftLength, merger, scanned -> listener.progress(scanned, leftLength), cancellation);
+      merger.flush();
+    } else {
+      // Nothing to merge, so runs are complete as soon as found
+      RunConsumer found = (position, length) -> listener.difference(new Difference(position, length));
+      scan(left, right, leftLength, found, scanned -> listener.progress(scanned, leftLength), cancellation);
+    }
+    listener.progress(leftLength, leftLength);
+  }
+
+  /**
+   * Traverses the leading bytes of two byte arrays once, reporting every run of differing bytes found, in order.
+   * Progress is reported every {@link #PROGRESS_INTERVAL} bytes, but for the last ones, and cancellation checked before.
+   */
+  private static void scan(byte[] left, byte[] right, int leftSize, RunConsumer runs, IntConsumer progress,
+                           Cancellation cancellation) {
     int offSetStartMark = -1;
     int offSet = 1;
 
-    // Traverse array once, using left size (since both are equal in length)
-    for (int i = 0; i < leftSize; i++) {
-      // Compare value for current position between arrays
+    // Traverse array once, using left size (since both are equal in length), in blocks between progress reports
+    for (int blockStart = 0, blockEnd; blockStart < leftSize; blockStart = blockEnd) {
+      cancellation.check();
+      blockEnd = leftSize - blockStart > PROGRESS_INTERVAL ? blockStart + PROGRESS_INTERVAL : leftSize;
+      for (int i = blockStart; i < blockEnd; i++) {
+        // Compare value for current position between arrays
 
-      // If difference...
-      if (left[i] != right[i]) {
-        // ...and we are not counting offsets
-        if (offSetStartMark == -1) {
-          // Mark beginning of offset
-          offSetStartMark = i;
+        // If difference...
+        if (left[i] != right[i]) {
+          // ...and we are not counting offsets
+          if (offSetStartMark == -1) {
+            // Mark beginning of offset
+            offSetStartMark = i;
+          } else {
+            // If we are already counting offset, increase counter
+            offSet++;
+          }
         } else {
-          // If we are already counting offset, increase counter
-          offSet++;
-        }
-      } else {
-        // If there is no difference...
-        if (offSetStartMark != -1) { // ... and we were counting offsets
-          // Store the difference offSetStartMark/offSet
-          differences.add(new Difference(offSetStartMark, offSet));
-          // Stop counting
-          offSet = 1;
-          offSetStartMark = -1;
+          // If there is no difference...
+          if (offSetStartMark != -1) { // ... and we were counting offsets
+            // Store the difference offSetStartMark/offSet
+            runs.accept(offSetStartMark, offSet);
+            // Stop counting
+            offSet = 1;
+            offSetStartMark = -1;
+          }
         }
       }
+      if (blockEnd < leftSize) {
+        progress.accept(blockEnd);
+      }
     }
 
     // We may have reached the end of the arrays while counting offSets
     if (offSetStartMark != -1) {
-      differences.add(new Difference(offSetStartMark, offSet));
+      runs.accept(offSetStartMark, offSet);
     }
+  }
+
+  /**
+   * Receiver of runs of differing bytes, avoiding boxing of positions and lengths
+   */
+  @FunctionalInterface
+  private interface RunConsumer {
+    void accept(int position, int length);
+  }
+
+  /**
+   * Receiver of merged runs, along with the amount of their bytes actually differing
+   */
+  @FunctionalInterface
+  private interface MergedRunConsumer {
+    void accept(int position, int length, int differing);
+  }
+
+  /**
+   * Merges runs closer than the gap tolerance, keeping the last run pending until the next one proves it complete
+   */
+  private static final class GapMerger implements RunConsumer {
+
+    private final int gap;
+    private final MergedRunConsumer downstream;
+    private int start = -1;
+    private int end;
+    private int differing;
+
+    GapMerger(int gap, MergedRunConsumer downstream) {
+      this.gap = gap;
+      this.downstream = downstream;
+    }
+
+    @Override
+    public void accept(int position, int length) {
+      if (start != -1 && position - end < gap) {
+        end = position + length;
+        differing += length;
+        return;
+      }
+      flush();
+      start = position;
+      end = position + length;
+      differing = length;
+    }
+
+    void flush() {
+      if (start != -1) {
+        downstream.accept(start, end - start, differing);
+        start = -1;
+      }
+    }
+  }
 
-    return unmodifiableList(differences);
+  /**
+   * Collects runs as [start, end) pairs, along with their differing bytes, merging runs closer than the gap tolerance.
+   * The tolerance is doubled, and collected runs merged again, whenever they exceed the maximum.
+   */
+  private static final class Runs implements RunConsumer {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final int maxRuns;
+    private int gap;
+    private int[] starts = new int[INITIAL_CAPACITY];
+    private int[] ends = new int[INITIAL_CAPACITY];
+    private int[] differing = new int[INITIAL_CAPACITY];
+    private int size;
+
+    Runs(int gap, int maxRuns) {
+      this.gap = gap;
+      this.maxRuns = maxRuns;
+    }
+
+    @Override
+    public void accept(int position, int length) {
+      if (size > 0 && position - ends[size - 1] < gap) {
+        ends[size - 1] = position + length;
+        differing[size - 1] += length;
+        return;
+      }
+      if (size == starts.length) {
+        starts = Arrays.copyOf(starts, size * 2);
+        ends = Arrays.copyOf(ends, size * 2);
+        differing = Arrays.copyOf(differing, size * 2);
+      }
+      starts[size] = position;
+      ends[size] = position + length;
+      differing[size] = length;
+      size++;
+      while (maxRuns > 0 && size > maxRuns) {
+        coarsen();
+      }
+    }
+
+    /**
+     * Doubles the gap tolerance, merging collected runs accordingly
+     */
+    private void coarsen() {
+      gap = gap > Integer.MAX_VALUE / 2 ? Integer.MAX_VALUE : Math.max(2, gap * 2);
+      int last = 0;
+      for (int i = 1; i < size; i++) {
+        if (starts[i] - ends[last] < gap) {
+          ends[last] = ends[i];
+          differing[last] += differing[i];
+        } else {
+          last++;
+          starts[last] = starts[i];
+          ends[last] = ends[i];
+          differing[last] = differing[i];
+        }
+      }
+      size = last + 1;
+    }
+
+    void forEach(MergedRunConsumer consumer) {
+      for (int i = 0; i < size; i++) {
+        consumer.accept(starts[i], ends[i] - starts[i], differing[i]);
+      }
+    }
+
+    List<Difference> toDifferences() {
+      List<Difference> differences = new ArrayList<>(size);
+      for (int i = 0; i < size; i++) {
+        differences.add(new Difference(starts[i], ends[i] - starts[i]));
+      }
+      return differences;
+    }
   }
 
 }
@@ -0,0 +1,146 @@
+package com.waes.interview.assignment.differentiator;
+
+import com.waes.interview.assignment.models.Difference;
+import com.waes.interview.assignment.models.DifferencesSummary;
+
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Region aware {@link Differentiable Differentiable} for binary data.
+ * <p>
+ * Compares the leading bytes of each array only, so callers may hand over arrays larger than their contents (e.g.
+ * pooled buffers) instead of allocating exact size copies.
+ * <p>
+ * Comparisons of regions take a {@link Cancellation Cancellation} token, checked every chunk of work, so they can be
+ * stopped half way (throwing {@link DiffCancelledException DiffCancelledException}). Overloads without token run to
+ * completion.
+ *
+ * @author Juan Krzemien
+ */
+public interface ByteArrayDifferentiable extends Differentiable<byte[]> {
+
+  /**
+   * Compares the leading bytes of two byte arrays looking for differences, until done or cancelled
+   *
+   * @param left         First byte array to compare
+   * @param leftLength   Amount of leading bytes of the first array to compare
+   * @param right        Second byte array to compare
+   * @param rightLength  Amount of leading bytes of the second array to compare
+   * @param cancellation Token to stop the comparison with
+   * @return List of differences found between the two regions, if any.
+   * @throws DiffCancelledException if cancelled before done
+   */
+  List<Difference> diff(byte[] left, int leftLength, byte[] right, int rightLength, Cancellation cancellation);
+
+  /**
+   * Compares the leading bytes of two byte arrays looking for differences
+   *
+   * @param left        First byte array to compare
+   * @param leftLength  Amount of leading bytes of the first array to compare
+   * @param right       Second byte array to compare
+   * @param rightLength Amount of leading bytes of the second array to compare
+   * @return List of differences found between the two regions, if any.
+   */
+  default List<Difference> diff(byte[] left, int leftLength, byte[] right, int rightLength) {
+    return diff(left, leftLength, right, rightLength, Cancellation.NONE);
+  }
+
+  /**
+   * Compares two whole byte arrays looking for differences
+   *
+   * @param left  First byte array to compare
+   * @param right Second byte array to compare
+   * @return List of differences found between the two, if any.
+   */
+  @Override
+  default List<Difference> diff(byte[] left, byte[] right) {
+    // Do not operate on null arrays
+    if (left == null || right == null) {
+      return unmodifiableList(emptyList());
+    }
+    return diff(left, left.length, right, right.length);
+  }
+
+  /**
+   * Compares the leading bytes of two byte arrays, aggregating their differences instead of listing them, until done
+   * or cancelled
+   *
+   * @param left         First byte array to compare
+   * @param leftLength   Amount of leading bytes of the first array to compare
+   * @param right        Second byte array to compare
+   * @param rightLength  Amount of leading bytes of the second array to compare
+   * @param cancellation Token to stop the comparison with
+   * @return Summary of the differences found between the two regions
+   * @throws DiffCancelledException if cancelled before done
+   */
+  default DifferencesSummary summarize(byte[] left, int leftLength, byte[] right, int rightLength, Cancellation cancellation) {
+    return DifferencesSummarizer.of(diff(left, leftLength, right, rightLength, cancellation));
+  }
+
+  /**
+   * Compares the leading bytes of two byte arrays, aggregating their differences instead of listing them
+   *
+   * @param left        First byte array to compare
+   * @param leftLength  Amount of leading bytes of the first array to compare
+   * @param right       Second byte array to compare
+   * @param rightLength Amount of leading bytes of the second array to compare
+   * @return Summary of the differences found between the two regions
+   */
+  default DifferencesSummary summarize(byte[] left, int leftLength, byte[] right, int rightLength) {
+    return summarize(left, leftLength, right, rightLength, Cancellation.NONE);
+  }
+
+  /**
+   * Compares the leading bytes of two byte arrays, handing differences over to a listener instead of listing them.
+   * <p>
+   * By default, differences are handed over once the whole comparison is done, followed by a single progress report.
+   * Implementations able to tell complete differences while comparing hand them over as found instead.
+   *
+   * @param left         First byte array to compare
+   * @param leftLength   Amount of leading bytes of the first array to compare
+   * @param right        Second byte array to compare
+   * @param rightLength  Amount of leading bytes of the second array to compare
+   * @param listener     Receiver of the differences found and of the progress of the comparison
+   * @param cancellation Token to stop the comparison with
+   * @throws DiffCancelledException if cancelled before done
+   */
+  default void stream(byte[] left, int leftLength, byte[] right, int rightLength, DifferencesListener listener,
+                      Cancellation cancellation) {
+    diff(left, leftLength, right, rightLength, cancellation).forEach(listener::difference);
+    int total = Math.max(leftLength, rightLength);
+    listener.progress(total, total);
+  }
+
+  /**
+   * Compares the leading bytes of two byte arrays, handing differences over to a listener instead of listing them
+   *
+   * @param left        First byte array to compare
+   * @param leftLength  Amount of leading bytes of the first array to compare
+   * @param right       Second byte array to compare
+   * @param rightLength Amount of leading bytes of the second array to compare
+   * @param listener    Receiver of the differences found and of the progress of the comparison
+   */
+  default void stream(byte[] left, int leftLength, byte[] right, int rightLength, DifferencesListener listener) {
+    stream(left, leftLength, right, rightLength, listener, Cancellation.NONE);
+  }
+
+  /**
+   * Compares two whole byte arrays, aggregating their differences instead of listing them
+   *
+   * @param left  First byte array to compare
+   * @param right Second byte array to compare
+   * @return Summary of the differences found between the two
+   */
+  @Override
+  default DifferencesSummary summarize(byte[] left, byte[] right) {
+    // Do not operate on null arrays
+    if (left == null || right == null) {
+      return new DifferencesSummarizer().toSummary();
+    }
+    return summarize(left, left.length, right, right.length);
+  }
+
+}
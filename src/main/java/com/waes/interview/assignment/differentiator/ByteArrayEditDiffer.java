@@ -0,0 +1,355 @@
+package com.waes.interview.assignment.differentiator;
+
+import com.waes.interview.assignment.models.Difference;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Arrays.fill;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Implementation of Differentiable for binary data of any length, aware of inserted and deleted bytes.
+ * <p>
+ * Unlike {@link ByteArrayDiffer ByteArrayDiffer}, a single inserted or deleted byte does not turn the rest of the data
+ * into one long difference. Every difference reports the range affected on both sides
+ * ({ position, offset } for the left side and { rightPosition, rightOffset } for the right side).
+ * <p>
+ * Algorithm:
+ * <p>
+ * 1. Common prefix and suffix are skipped.
+ * 2. Left side is split in fixed size blocks, indexed by a polynomial hash. Right side is scanned with a rolling hash
+ * of the same size, and every block found (in order) becomes an anchor, extended byte by byte in both directions.
+ * 3. Regions between anchors are diff-ed with Myers' O(ND) algorithm, bounded both in region size and edit distance.
+ * Regions exceeding those bounds are reported as a single replaced range.
+ * <p>
+ * Steps 1 and 2 perform in O(n + m) time and O(n / BLOCK_SIZE) memory. Step 3 is bounded by a constant per region,
+ * so the whole algorithm stays near-linear. The trade-off is that results are not guaranteed to be minimal:
+ * anchors are picked greedily, and moved blocks are reported as deleted on one side and inserted on the other.
+ * <p>
+ * Cancellation is checked every {@link #CANCELLATION_INTERVAL} bytes scanned in step 2, and before every region diff-ed.
+ *
+ * @author Juan Krzemien
+ */
+public class ByteArrayEditDiffer implements ByteArrayDifferentiable {
+
+  /**
+   * Constant definitions
+   */
+  private static final int BLOCK_SIZE = 32;
+  private static final long BASE = 0x100000001B3L;
+  private static final int MAX_CANDIDATES = 8;
+  private static final int MAX_EDIT_DISTANCE = 256;
+  private static final int MAX_REGION_SIZE = 64 * 1024;
+  private static final int CANCELLATION_INTERVAL = 64 * 1024;
+
+  /**
+   * Compares the leading bytes of two byte arrays looking for differences, including inserted and deleted bytes
+   *
+   * @param left         First byte array to compare
+   * @param leftLength   Amount of leading bytes of the first array to compare
+   * @param right        Second byte array to compare
+   * @param rightLength  Amount of leading bytes of the second array to compare
+   * @param cancellation Token to stop the comparison with
+   * @return List of differences found between the two provided byte arrays, if any.
+   */
+  @Override
+  public List<Difference> diff(byte[] left, int leftLength, byte[] right, int rightLength, Cancellation cancellation) {
+
+    // Do not operate on null arrays
+    if (left == null || right == null) {
+      return unmodifiableList(emptyList());
+    }
+
+    // Skip common prefix and suffix
+    int start = 0;
+    int leftEnd = leftLength;
+    int rightEnd = rightLength;
+    while (start < leftEnd && start < rightEnd && left[start] == right[start]) {
+      start++;
+    }
+    while (leftEnd > start && rightEnd > start && left[leftEnd - 1] == right[rightEnd - 1]) {
+      leftEnd--;
+      rightEnd--;
+    }
+
+    final List<Difference> differences = new ArrayList<>();
+    if (start == leftEnd && start == rightEnd) {
+      return unmodifiableList(differences);
+    }
+
+    // Find anchors, diff-ing the regions in between
+    BlockIndex index = new BlockIndex(left, start, leftEnd);
+    int leftCursor = start;
+    int rightCursor = start;
+    int position = start;
+    long hash = 0;
+    int hashed = 0;
+
+    while (position < rightEnd) {
+      // Roll the hash one byte forward
+      hash = hash * BASE + (right[position] & 0xFF);
+      if (hashed == BLOCK_SIZE) {
+        hash -= (right[position - BLOCK_SIZE] & 0xFF) * index.outgoingFactor;
+      } else {
+        hashed++;
+      }
+      position++;
+
+      if (position % CANCELLATION_INTERVAL == 0) {
+        cancellation.check();
+      }
+
+      if (hashed < BLOCK_SIZE) {
+        continue;
+      }
+
+      int rightBlock = position - BLOCK_SIZE;
+      int leftBlock = index.find(hash, leftCursor, right, rightBlock);
+      if (leftBlock == -1) {
+        continue;
+      }
+
+      // Extend anchor in both directions
+      int anchorLeft = leftBlock;
+      int anchorRight = rightBlock;
+      while (anchorLeft > leftCursor && anchorRight > rightCursor && left[anchorLeft - 1] == right[anchorRight - 1]) {
+        anchorLeft--;
+        anchorRight--;
+      }
+      int length = leftBlock + BLOCK_SIZE - anchorLeft;
+      while (anchorLeft + length < leftEnd && anchorRight + length < rightEnd && left[anchorLeft + length] == right[anchorRight + length]) {
+        length++;
+      }
+
+      cancellation.check();
+      diffRegion(left, leftCursor, anchorLeft, right, rightCursor, anchorRight, differences);
+
+      leftCursor = anchorLeft + length;
+      rightCursor = anchorRight + length;
+      position = rightCursor;
+      hash = 0;
+      hashed = 0;
+    }
+
+    cancellation.check();
+    diffRegion(left, leftCursor, leftEnd, right, rightCursor, rightEnd, differences);
+
+    return unmodifiableList(differences);
+  }
+
+  /**
+   * This implementation reports inserted and deleted bytes, so it handles arrays of different lengths
+   *
+   * @return true
+   */
+  @Override
+  public boolean supportsDifferentLengths() {
+    return true;
+  }
+
+  /**
+   * Diffs a region between anchors, adding any difference found to provided list.
+   */
+  private static void diffRegion(byte[] left, int leftStart, int leftEnd, byte[] right, int rightStart, int rightEnd,
+                                 List<Difference> differences) {
+    int leftLength = leftEnd - leftStart;
+    int rightLength = rightEnd - rightStart;
+    if (leftLength == 0 && rightLength == 0) {
+      return;
+    }
+    if (leftLength == 0 || rightLength == 0
+        || leftLength + rightLength > MAX_REGION_SIZE
+        || !myers(left, leftStart, leftLength, right, rightStart, rightLength, differences)) {
+      differences.add(new Difference(leftStart, leftLength, rightStart, rightLength));
+    }
+  }
+
+  /**
+   * Myers' greedy O(ND) difference algorithm, bounded to {@link #MAX_EDIT_DISTANCE MAX_EDIT_DISTANCE} edits.
+   * <p>
+   * Consecutive edits are merged into a single difference.
+   *
+   * @return true if differences were found within bounds and added to provided list, false otherwise
+   */
+  private static boolean myers(byte[] left, int leftStart, int n, byte[] right, int rightStart, int m,
+                               List<Difference> differences) {
+    int max = Math.min(n + m, MAX_EDIT_DISTANCE);
+    int offset = max + 1;
+    int[] v = new int[2 * max + 3];
+    List<int[]> trace = new ArrayList<>();
+
+    for (int d = 0; d <= max; d++) {
+      trace.add(v.clone());
+      for (int k = -d; k <= d; k += 2) {
+        int x = (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) ? v[offset + k + 1] : v[offset + k - 1] + 1;
+        int y = x - k;
+        while (x < n && y < m && left[leftStart + x] == right[rightStart + y]) {
+          x++;
+          y++;
+        }
+        v[offset + k] = x;
+        if (x >= n && y >= m) {
+          backtrack(trace, offset, d, n, m, leftStart, rightStart, differences);
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Walks Myers' trace backwards, rebuilding edits as differences in ascending order.
+   */
+  private static void backtrack(List<int[]> trace, int offset, int distance, int n, int m, int leftStart, int rightStart,
+                                List<Difference> differences) {
+    // Edits are found from last to first. Collect them as [left position, left length, right position, right length]
+    List<int[]> edits = new ArrayList<>();
+    int x = n;
+    int y = m;
+    for (int d = distance; d > 0; d--) {
+      int[] v = trace.get(d);
+      int k = x - y;
+      int previousK = (k == -d || (k != d && v[offset + k - 1] < v[offset + k + 1])) ? k + 1 : k - 1;
+      int previousX = v[offset + previousK];
+      int previousY = previousX - previousK;
+      // Skip matching bytes
+      while (x > previousX && y > previousY) {
+        x--;
+        y--;
+      }
+      boolean insertion = previousK == k + 1;
+      int[] last = edits.isEmpty() ? null : edits.get(edits.size() - 1);
+      // Merge with following edit when adjacent
+      if (last != null && last[0] == x && last[2] == y) {
+        if (insertion) {
+          last[2]--;
+          last[3]++;
+        } else {
+          last[0]--;
+          last[1]++;
+        }
+      } else {
+        edits.add(insertion ? new int[]{x, 0, y - 1, 1} : new int[]{x - 1, 1, y, 0});
+      }
+      x = previousX;
+      y = previousY;
+    }
+
+    for (int i = edits.size() - 1; i >= 0; i--) {
+      int[] edit = edits.get(i);
+      differences.add(new Difference(leftStart + edit[0], edit[1], rightStart + edit[2], edit[3]));
+    }
+  }
+
+  /**
+   * Open addressing hash index of the fixed size blocks of a byte array region.
+   * <p>
+   * Blocks sharing a hash are chained in ascending position order. Since lookups only ask for blocks at or after an
+   * increasing position, chain heads are advanced permanently, keeping lookups amortized constant time.
+   */
+  private static final class BlockIndex {
+
+    private static final int EMPTY = -1;
+    private static final int EXHAUSTED = -2;
+
+    private final byte[] data;
+    private final int start;
+    private final long[] keys;
+    private final int[] heads;
+    private final int[] next;
+    private final int mask;
+    private final long outgoingFactor;
+
+    BlockIndex(byte[] data, int start, int end) {
+      this.data = data;
+      this.start = start;
+      int blocks = Math.max(0, (end - start) / BLOCK_SIZE);
+      int capacity = Integer.highestOneBit(Math.max(blocks, 1) * 2 - 1) << 1;
+      this.keys = new long[capacity];
+      this.heads = new int[capacity];
+      this.next = new int[blocks];
+      this.mask = capacity - 1;
+
+      long factor = 1;
+      for (int i = 0; i < BLOCK_SIZE - 1; i++) {
+        factor *= BASE;
+      }
+      this.outgoingFactor = factor * BASE;
+
+      fill(heads, EMPTY);
+      int[] tails = new int[capacity];
+      // Insert blocks in ascending order, appending to chains
+      for (int block = 0; block < blocks; block++) {
+        next[block] = -1;
+        long hash = hash(data, start + block * BLOCK_SIZE);
+        int slot = slot(hash);
+        if (heads[slot] == EMPTY) {
+          keys[slot] = hash;
+          heads[slot] = block;
+        } else {
+          next[tails[slot]] = block;
+        }
+        tails[slot] = block;
+      }
+    }
+
+    /**
+     * Finds the first block at or after given position whose content matches a block of the provided array.
+     *
+     * @return Position of the block found, or -1 if there is none
+     */
+    int find(long hash, int from, byte[] other, int otherPosition) {
+      int slot = slot(hash);
+      int block = heads[slot];
+      if (block < 0) {
+        return -1;
+      }
+      // Drop blocks behind requested position for good
+      while (block >= 0 && start + block * BLOCK_SIZE < from) {
+        block = next[block];
+      }
+      // Exhausted chains keep their slot (flagged as -2), so probing sequences of other hashes stay intact
+      heads[slot] = block >= 0 ? block : EXHAUSTED;
+      if (block < 0) {
+        return -1;
+      }
+      // Verify content, as hashes may collide
+      for (int candidates = 0; block >= 0 && candidates < MAX_CANDIDATES; candidates++, block = next[block]) {
+        int position = start + block * BLOCK_SIZE;
+        if (matches(data, position, other, otherPosition)) {
+          return position;
+        }
+      }
+      return -1;
+    }
+
+    private int slot(long hash) {
+      int slot = (int) (hash ^ (hash >>> 32)) & mask;
+      // Linear probing
+      while (heads[slot] != EMPTY && keys[slot] != hash) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+
+    private static long hash(byte[] data, int position) {
+      long hash = 0;
+      for (int i = 0; i < BLOCK_SIZE; i++) {
+        hash = hash * BASE + (data[position + i] & 0xFF);
+      }
+      return hash;
+    }
+
+    private static boolean matches(byte[] data, int position, byte[] other, int otherPosition) {
+      for (int i = 0; i < BLOCK_SIZE; i++) {
+        if (data[position + i] != other[otherPosition + i]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+
+}
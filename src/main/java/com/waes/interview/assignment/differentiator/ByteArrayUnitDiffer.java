@@ -0,0 +1,171 @@
+package com.waes.interview.assignment.differentiator;
+
+import com.waes.interview.assignment.models.Difference;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Implementation of Differentiable for binary data made of units: fixed size records (or words) or newline delimited
+ * lines.
+ * <p>
+ * Operands are compared unit by unit, in order, each unit as a whole (up to its first differing byte, see
+ * {@link ByteArrays#mismatch(byte[], int, byte[], int, int) ByteArrays.mismatch}). Differences are reported in units
+ * rather than bytes: position is the index of the first differing unit and offset the amount of consecutive differing
+ * units. A trailing partial record, or a last line lacking its newline, is a unit too.
+ * <p>
+ * Units present in one operand only (e.g. records appended to the right operand) are reported as a last difference
+ * holding the range of both sides ({ position, offset } for the left side and { rightPosition, rightOffset } for the
+ * right side), merged with the differing units right before them, if any.
+ * <p>
+ * Units are compared by position, so an inserted or deleted line turns every following line into a difference. Use
+ * {@link ByteArrayEditDiffer ByteArrayEditDiffer} when lines move around.
+ * <p>
+ * This algorithm performs in O(n) time and requires no memory besides the differences. Cancellation is checked every
+ * {@link #CANCELLATION_INTERVAL} bytes compared, at unit boundaries.
+ *
+ * @author Juan Krzemien
+ */
+public class ByteArrayUnitDiffer implements ByteArrayDifferentiable {
+
+  /**
+   * Constant definitions
+   */
+  private static final int LINES = 0;
+  private static final byte NEWLINE = '\n';
+  private static final int CANCELLATION_INTERVAL = 64 * 1024;
+
+  /**
+   * Class members
+   */
+  private final int unitSize;
+
+  private ByteArrayUnitDiffer(int unitSize) {
+    this.unitSize = unitSize;
+  }
+
+  /**
+   * Factory method for differs comparing fixed size units, such as words or records
+   *
+   * @param unitSize Size of units, in bytes
+   * @return Differ reporting differences in units of given size
+   */
+  public static ByteArrayUnitDiffer records(int unitSize) {
+    if (unitSize <= 0) {
+      throw new IllegalArgumentException("Unit size must be positive: " + unitSize);
+    }
+    return new ByteArrayUnitDiffer(unitSize);
+  }
+
+  /**
+   * Factory method for differs comparing newline (<code>\n</code>) delimited lines
+   *
+   * @return Differ reporting differences in lines
+   */
+  public static ByteArrayUnitDiffer lines() {
+    return new ByteArrayUnitDiffer(LINES);
+  }
+
+  /**
+   * Compares the leading bytes of two byte arrays unit by unit, looking for differences
+   *
+   * @param left         First byte array to compare
+   * @param leftLength   Amount of leading bytes of the first array to compare
+   * @param right        Second byte array to compare
+   * @param rightLength  Amount of leading bytes of the second array to compare
+   * @param cancellation Token to stop the comparison with
+   * @return List of differences found between the two provided byte arrays, in units, if any.
+   */
+  @Override
+  public List<Difference> diff(byte[] left, int leftLength, byte[] right, int rightLength, Cancellation cancellation) {
+
+    // Do not operate on null arrays
+    if (left == null || right == null) {
+      return unmodifiableList(emptyList());
+    }
+
+    final List<Difference> differences = new ArrayList<>();
+    int runStart = -1;
+    int unit = 0;
+    int leftStart = 0;
+    int rightStart = 0;
+    int checked = 0;
+    cancellation.check();
+
+    // Compare units present in both operands
+    for (; leftStart < leftLength && rightStart < rightLength; unit++) {
+      if (leftStart - checked >= CANCELLATION_INTERVAL) {
+        cancellation.check();
+        checked = leftStart;
+      }
+      int leftEnd = end(left, leftStart, leftLength);
+      int rightEnd = end(right, rightStart, rightLength);
+      int length = leftEnd - leftStart;
+      boolean differs = length != rightEnd - rightStart || ByteArrays.mismatch(left, leftStart, right, rightStart, length) != -1;
+
+      if (differs && runStart == -1) {
+        runStart = unit;
+      } else if (!differs && runStart != -1) {
+        differences.add(new Difference(runStart, unit - runStart));
+        runStart = -1;
+      }
+      leftStart = leftEnd;
+      rightStart = rightEnd;
+    }
+
+    // Units present in one operand only extend the last run, if still open
+    int leftRemaining = count(left, leftStart, leftLength);
+    int rightRemaining = count(right, rightStart, rightLength);
+    if (leftRemaining > 0 || rightRemaining > 0) {
+      int start = runStart != -1 ? runStart : unit;
+      differences.add(new Difference(start, unit - start + leftRemaining, start, unit - start + rightRemaining));
+    } else if (runStart != -1) {
+      differences.add(new Difference(runStart, unit - runStart));
+    }
+
+    return unmodifiableList(differences);
+  }
+
+  /**
+   * This implementation reports units present in one operand only, so it handles arrays of different lengths
+   *
+   * @return true
+   */
+  @Override
+  public boolean supportsDifferentLengths() {
+    return true;
+  }
+
+  /**
+   * Finds the end of the unit starting at given position, not going past given length
+   */
+  private int end(byte[] data, int start, int length) {
+    if (unitSize != LINES) {
+      return Math.min(length, start + unitSize);
+    }
+    for (int i = start; i < length; i++) {
+      if (data[i] == NEWLINE) {
+        return i + 1;
+      }
+    }
+    return length;
+  }
+
+  /**
+   * Counts the units from given position up to given length
+   */
+  private int count(byte[] data, int start, int length) {
+    if (unitSize != LINES) {
+      return (int) (((long) length - start + unitSize - 1) / unitSize);
+    }
+    int units = 0;
+    for (; start < length; units++) {
+      start = end(data, start, length);
+    }
+    return units;
+  }
+
+}
@@ -0,0 +1,102 @@
+package com.waes.interview.assignment.differentiator;
+
+/**
+ * Token telling {@link ByteArrayDifferentiable ByteArrayDifferentiable} comparisons to stop, either once cancelled (e.g.
+ * the client went away) or once past its deadline.
+ * <p>
+ * Cancellation is cooperative: comparisons {@link #check() check} the token every chunk of work, and stop by throwing
+ * {@link DiffCancelledException DiffCancelledException}. Tokens may be cancelled from any thread. Checking is a volatile
+ * read, plus a {@link System#nanoTime()} call for tokens with deadline.
+ *
+ * @author Juan Krzemien
+ */
+public final class Cancellation {
+
+  /**
+   * Token never cancelled, for comparisons running to completion
+   */
+  public static final Cancellation NONE = new Cancellation(false, 0);
+
+  // Longest timeout whose deadline does not overflow nanoTime arithmetic, about 146 years
+  private static final long MAX_TIMEOUT_MILLIS = Long.MAX_VALUE / 2 / 1_000_000;
+
+  private final boolean hasDeadline;
+  private final long deadline;
+  private volatile boolean cancelled;
+
+  private Cancellation(boolean hasDeadline, long deadline) {
+    this.hasDeadline = hasDeadline;
+    this.deadline = deadline;
+  }
+
+  /**
+   * Creates a token, with a deadline
+   *
+   * @param timeoutMillis Time, in milliseconds, the comparison may take from now on (0 or less for no deadline). Timeouts
+   *                      beyond a century make no deadline either.
+   * @return New token, not cancelled
+   */
+  public static Cancellation withTimeout(long timeoutMillis) {
+    // Timeouts too long to be told in nanoseconds are as good as none
+    if (timeoutMillis <= 0 || timeoutMillis > MAX_TIMEOUT_MILLIS) {
+      return new Cancellation(false, 0);
+    }
+    return new Cancellation(true, System.nanoTime() + timeoutMillis * 1_000_000);
+  }
+
+  /**
+   * Time an operation may take, as asked for by its consumer, but never beyond the configured time
+   *
+   * @param requestedMillis  Time, in milliseconds, asked for by the consumer (0 or less for none)
+   * @param configuredMillis Time, in milliseconds, operations may take at most (0 or less for no limit)
+   * @return Time, in milliseconds, the operation may take at most (0 or less for no deadline)
+   */
+  public static long timeoutMillis(long requestedMillis, long configuredMillis) {
+    if (requestedMillis <= 0) {
+      return configuredMillis;
+    }
+    return configuredMillis > 0 ? Math.min(requestedMillis, configuredMillis) : requestedMillis;
+  }
+
+  /**
+   * Cancels the comparison. Has no effect on {@link #NONE NONE}.
+   */
+  public void cancel() {
+    if (this != NONE) {
+      cancelled = true;
+    }
+  }
+
+  /**
+   * @return Whether the comparison was cancelled, or is past its deadline
+   */
+  public boolean isCancelled() {
+    return cancelled || hasDeadline && System.nanoTime() - deadline >= 0;
+  }
+
+  /**
+   * @return Time, in nanoseconds, left until the deadline: 0 once cancelled or past it, {@link Long#MAX_VALUE} for tokens
+   * without deadline
+   */
+  public long remainingNanos() {
+    if (cancelled) {
+      return 0;
+    }
+    return hasDeadline ? Math.max(0, deadline - System.nanoTime()) : Long.MAX_VALUE;
+  }
+
+  /**
+   * Stops the comparison if cancelled, or past its deadline
+   *
+   * @throws DiffCancelledException if the comparison was cancelled, or is past its deadline
+   */
+  public void check() {
+    if (cancelled) {
+      throw new DiffCancelledException(false);
+    }
+    if (hasDeadline && System.nanoTime() - deadline >= 0) {
+      throw new DiffCancelledException(true);
+    }
+  }
+
+}
@@ -0,0 +1,31 @@
+package com.waes.interview.assignment.differentiator;
+
+/**
+ * Thrown by comparisons stopped through their {@link Cancellation Cancellation} token.
+ *
+ * @author Juan Krzemien
+ */
+public class DiffCancelledException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  private final boolean timedOut;
+
+  /**
+   * Constructor
+   *
+   * @param timedOut Whether the comparison went past its deadline, rather than being cancelled
+   */
+  public DiffCancelledException(boolean timedOut) {
+    super(timedOut ? "Diff operation went past its deadline" : "Diff operation was cancelled", null, false, false);
+    this.timedOut = timedOut;
+  }
+
+  /**
+   * @return Whether the comparison went past its deadline, rather than being cancelled
+   */
+  public boolean isTimedOut() {
+    return timedOut;
+  }
+
+}
@@ -0,0 +1,42 @@
+package com.waes.interview.assignment.differentiator;
+
+import com.waes.interview.assignment.models.Difference;
+
+/**
+ * Receiver of the differences found by a {@link ByteArrayDifferentiable ByteArrayDifferentiable} while comparing,
+ * along with the progress of the comparison.
+ * <p>
+ * Differences are received in ascending position order, each one once complete. Listeners may abort the comparison by
+ * throwing an unchecked exception, which is propagated to the caller as is.
+ *
+ * @author Juan Krzemien
+ */
+public interface DifferencesListener {
+
+  /**
+   * Receives a difference found
+   *
+   * @param difference Difference found
+   */
+  void difference(Difference difference);
+
+  /**
+   * Receives a difference found, along with the amount of its bytes actually differing: fewer than its length when
+   * runs of differing bytes were merged into it across equal bytes. Defaults to {@link #difference(Difference)}.
+   *
+   * @param difference     Difference found
+   * @param differingBytes Amount of bytes of the difference actually differing
+   */
+  default void difference(Difference difference, int differingBytes) {
+    difference(difference);
+  }
+
+  /**
+   * Receives the progress of the comparison. Differences starting before the scanned amount may still be pending.
+   *
+   * @param scanned Amount of leading bytes compared so far
+   * @param total   Amount of bytes to compare
+   */
+  void progress(int scanned, int total);
+
+}
@@ -0,0 +1,96 @@
+package com.waes.interview.assignment.differentiator;
+
+import com.waes.interview.assignment.models.Difference;
+import com.waes.interview.assignment.models.DifferencesSummary;
+
+import java.util.List;
+
+/**
+ * Mutable accumulator of differences, building a {@link DifferencesSummary DifferencesSummary} in constant memory.
+ * <p>
+ * Differences must be added in ascending position order. Not thread safe.
+ *
+ * @author Juan Krzemien
+ */
+public final class DifferencesSummarizer {
+
+  private long differingBytes;
+  private int runs;
+  private int largestRun;
+  private int firstPosition = -1;
+  private int lastPosition = -1;
+
+  /**
+   * Summarizes a list of differences
+   *
+   * @param differences Differences to summarize, in ascending position order
+   * @return Summary of provided differences
+   */
+  public static DifferencesSummary of(List<Difference> differences) {
+    DifferencesSummarizer summarizer = new DifferencesSummarizer();
+    differences.forEach(summarizer::add);
+    return summarizer.toSummary();
+  }
+
+  /**
+   * Accounts a difference. Its length is the longest of both sides.
+   *
+   * @param difference Difference to account
+   */
+  public void add(Difference difference) {
+    add(difference.getPosition(), length(difference));
+  }
+
+  /**
+   * Accounts a difference, only part of whose bytes actually differ
+   *
+   * @param difference     Difference to account
+   * @param differingBytes Amount of bytes of the difference actually differing
+   */
+  public void add(Difference difference, int differingBytes) {
+    add(difference.getPosition(), length(difference), differingBytes);
+  }
+
+  /**
+   * Accounts a run of differing bytes
+   *
+   * @param position Starting position of the run
+   * @param length   Length of the run
+   */
+  public void add(int position, int length) {
+    add(position, length, length);
+  }
+
+  /**
+   * Accounts a run, only part of whose bytes actually differ: runs of differing bytes merged across equal ones
+   *
+   * @param position       Starting position of the run
+   * @param length         Length of the run
+   * @param differingBytes Amount of bytes of the run actually differing
+   */
+  public void add(int position, int length, int differingBytes) {
+    if (runs == 0) {
+      firstPosition = position;
+    }
+    lastPosition = position;
+    runs++;
+    this.differingBytes += differingBytes;
+    largestRun = Math.max(largestRun, length);
+  }
+
+  /**
+   * @return Length of a difference: the longest of both sides
+   */
+  private static int length(Difference difference) {
+    return difference.isAligned() ? difference.getOffset() : Math.max(difference.getOffset(), difference.getRightOffset());
+  }
+
+  /**
+   * @return Summary of the differences accounted so far
+   */
+  public DifferencesSummary toSummary() {
+    return new DifferencesSummary(differingBytes, runs, largestRun,
+        runs > 0 ? firstPosition : null, runs > 0 ? lastPosition : null);
+  }
+
+}
@@ -1,6 +1,7 @@
 package com.waes.interview.assignment.differentiator;
 
 import com.waes.interview.assignment.models.Difference;
+import com.waes.interview.assignment.models.DifferencesSummary;
 
 import java.util.List;
 
@@ -25,4 +26,29 @@ public interface Differentiable<T> {
    */
   List<Difference> diff(T left, T right);
 
+  /**
+   * Compares two instances, aggregating their differences instead of listing them.
+   * <p>
+   * By default, differences are listed and then summarized. Implementations able to aggregate differences while
+   * finding them should override it, so summaries take constant memory.
+   *
+   * @param left  First instance to compare
+   * @param right Second instance to compare
+   * @return Summary of the differences found between the two
+   */
+  default DifferencesSummary summarize(T left, T right) {
+    return DifferencesSummarizer.of(diff(left, right));
+  }
+
+  /**
+   * Indicates whether this implementation is able to find differences between instances of different lengths.
+   * <p>
+   * Implementations that do not, just report no differences for them.
+   *
+   * @return true if instances of different lengths can be diff-ed, false otherwise.
+   */
+  default boolean supportsDifferentLengths() {
+    return false;
+  }
+
 }
@@ -0,0 +1,115 @@
+package com.waes.interview.assignment.encoding;
+
+import java.util.Arrays;
+
+/**
+ * Base64 decoder (RFC 4648 basic alphabet) working on byte array regions, decoding into caller supplied buffers.
+ * <p>
+ * Unlike {@link java.util.Base64.Decoder java.util.Base64.Decoder}, which decodes whole arrays only, the source may be
+ * the leading bytes of a larger (e.g. pooled) buffer. Nothing is allocated, and input is validated while decoding, in
+ * the same pass. Accepted input matches {@link java.util.Base64#getDecoder() Base64.getDecoder()}: padding is optional,
+ * and line separators or any other character outside the alphabet are rejected.
+ *
+ * @author Juan Krzemien
+ */
+public final class Base64Decoder {
+
+  private static final byte PAD = '=';
+  private static final int[] VALUES = new int[256];
+
+  static {
+    Arrays.fill(VALUES, -1);
+    String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+    for (int i = 0; i < alphabet.length(); i++) {
+      VALUES[alphabet.charAt(i)] = i;
+    }
+  }
+
+  private Base64Decoder() {
+  }
+
+  /**
+   * Maximum amount of bytes decoding given amount of Base64 characters may yield
+   *
+   * @param length Amount of Base64 characters
+   * @return Maximum decoded size, in bytes
+   */
+  public static int maxDecodedSize(int length) {
+    return (length + 3) / 4 * 3;
+  }
+
+  /**
+   * Decodes the leading bytes of a Base64 source into a buffer
+   *
+   * @param source       Base64 bytes (US-ASCII)
+   * @param sourceLength Amount of leading source bytes to decode
+   * @param target       Buffer to decode into, of at least {@link #maxDecodedSize(int) maxDecodedSize} bytes
+   * @return Amount of leading bytes of the target holding decoded data
+   * @throws IllegalArgumentException if the source is not valid Base64
+   */
+  public static int decode(byte[] source, int sourceLength, byte[] target) {
+    // Padding may only appear at the very end
+    int end = sourceLength;
+    if (end > 0 && source[end - 1] == PAD) {
+      end--;
+      if (end > 0 && source[end - 1] == PAD) {
+        end--;
+      }
+      if (sourceLength % 4 != 0) {
+        throw new IllegalArgumentException("Padded Base64 input must be a multiple of 4 characters");
+      }
+    }
+    if (end % 4 == 1) {
+      throw new IllegalArgumentException("Base64 input has a dangling character");
+    }
+
+    int position = 0;
+    int written = 0;
+    int fullEnd = end - end % 4;
+
+    // Full quads: any invalid character turns the combined value negative
+    while (position < fullEnd) {
+      int a = VALUES[source[position] & 0xFF];
+      int b = VALUES[source[position + 1] & 0xFF];
+      int c = VALUES[source[position + 2] & 0xFF];
+      int d = VALUES[source[position + 3] & 0xFF];
+      if ((a | b | c | d) < 0) {
+        throw invalid(source, position, 4);
+      }
+      int bits = a << 18 | b << 12 | c << 6 | d;
+      target[written] = (byte) (bits >> 16);
+      target[written + 1] = (byte) (bits >> 8);
+      target[written + 2] = (byte) bits;
+      position += 4;
+      written += 3;
+    }
+
+    // Trailing 2 or 3 characters yield 1 or 2 bytes
+    int remaining = end - position;
+    if (remaining > 0) {
+      int a = VALUES[source[position] & 0xFF];
+      int b = VALUES[source[position + 1] & 0xFF];
+      int c = remaining == 3 ? VALUES[source[position + 2] & 0xFF] : 0;
+      if ((a | b | c) < 0) {
+        throw invalid(source, position, remaining);
+      }
+      int bits = a << 18 | b << 12 | c << 6;
+      target[written++] = (byte) (bits >> 16);
+      if (remaining == 3) {
+        target[written++] = (byte) (bits >> 8);
+      }
+    }
+
+    return written;
+  }
+
+  private static IllegalArgumentException invalid(byte[] source, int position, int length) {
+    for (int i = position; i < position + length; i++) {
+      if (VALUES[source[i] & 0xFF] < 0) {
+        return new IllegalArgumentException("Illegal Base64 character " + Integer.toHexString(source[i] & 0xFF) + " at " + i);
+      }
+    }
+    return new IllegalArgumentException("Illegal Base64 input at " + position);
+  }
+
+}
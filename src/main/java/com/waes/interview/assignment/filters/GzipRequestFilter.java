@@ -0,0 +1,203 @@
+package com.waes.interview.assignment.filters;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.GZIPInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+import static org.springframework.http.HttpHeaders.CONTENT_ENCODING;
+import static org.springframework.http.HttpHeaders.CONTENT_LENGTH;
+
+/**
+ * Servlet filter decoding gzip compressed request bodies (<code>Content-Encoding: gzip</code>).
+ * <p>
+ * Requests are decompressed on the fly while being read, so controllers are unaware of the encoding used on the wire.
+ * Requests without gzip encoding pass through untouched.
+ * <p>
+ * Assumption: Decompressed bodies are bounded, so a small compressed request cannot inflate into an unbounded amount
+ * of data (a.k.a. "zip bomb"). Reading past the limit fails the request.
+ *
+ * @author Juan Krzemien
+ */
+public class GzipRequestFilter extends OncePerRequestFilter {
+
+  private static final String GZIP = "gzip";
+
+  /**
+   * Class members
+   */
+  private final long maxInflatedSize;
+
+  /**
+   * Constructor
+   *
+   * @param maxInflatedSize Maximum amount of bytes a compressed request body may inflate to
+   */
+  public GzipRequestFilter(long maxInflatedSize) {
+    this.maxInflatedSize = maxInflatedSize;
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+    String encoding = request.getHeader(CONTENT_ENCODING);
+    if (encoding != null && GZIP.equalsIgnoreCase(encoding.trim())) {
+      chain.doFilter(new GzipRequestWrapper(request, maxInflatedSize), response);
+    } else {
+      chain.doFilter(request, response);
+    }
+  }
+
+  /**
+   * Request wrapper exposing the decompressed body and hiding the headers describing the compressed one.
+   */
+  private static final class GzipRequestWrapper extends HttpServletRequestWrapper {
+
+    private final long maxInflatedSize;
+    private ServletInputStream stream;
+
+    GzipRequestWrapper(HttpServletRequest request, long maxInflatedSize) {
+      super(request);
+      this.maxInflatedSize = maxInflatedSize;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+      if (stream == null) {
+        stream = new InflatingInputStream(new GZIPInputStream(super.getInputStream()), maxInflatedSize);
+      }
+      return stream;
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+      String charset = getCharacterEncoding();
+      return new BufferedReader(new InputStreamReader(getInputStream(), charset != null ? charset : UTF_8.name()));
+    }
+
+    @Override
+    public int getContentLength() {
+      return -1;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+      return -1;
+    }
+
+    @Override
+    public String getHeader(String name) {
+      return isHidden(name) ? null : super.getHeader(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaders(String name) {
+      return isHidden(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+    }
+
+    @Override
+    public Enumeration<String> getHeaderNames() {
+      return Collections.enumeration(Collections.list(super.getHeaderNames()).stream()
+          .filter(name -> !isHidden(name))
+          .collect(toList()));
+    }
+
+    private static boolean isHidden(String name) {
+      return CONTENT_ENCODING.equalsIgnoreCase(name) || CONTENT_LENGTH.equalsIgnoreCase(name);
+    }
+  }
+
+  /**
+   * Servlet stream over the decompressed body, failing once more than the allowed amount of bytes is read.
+   */
+  private static final class InflatingInputStream extends ServletInputStream {
+
+    private final InputStream inflater;
+    private final long maxInflatedSize;
+    private long inflated;
+    private boolean finished;
+
+    InflatingInputStream(InputStream inflater, long maxInflatedSize) {
+      this.inflater = inflater;
+      this.maxInflatedSize = maxInflatedSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+      int value = inflater.read();
+      count(value == -1 ? -1 : 1);
+      return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      int count = inflater.read(buffer, offset, length);
+      count(count);
+      return count;
+    }
+
+    private void count(int count) throws IOException {
+      if (count == -1) {
+        finished = true;
+        return;
+      }
+      inflated += count;
+      if (inflated > maxInflatedSize) {
+        throw new IOException("Compressed request body exceeds " + maxInflatedSize + " bytes once decompressed");
+      }
+    }
+
+    @Override
+    public boolean isFinished() {
+      return finished;
+    }
+
+    @Override
+    public boolean isReady() {
+      return true;
+    }
+
+    /**
+     * Reads of compressed bodies always block, as inflating does, so there is no way to read them without blocking.
+     * Request bodies are never read asynchronously in this application anyway (controllers read them on the request
+     * thread), so listeners are just served right away, on the calling thread: as the stream is always ready, they
+     * read it until it is finished (or they stop reading), then they are told all data was read.
+     */
+    @Override
+    public void setReadListener(ReadListener listener) {
+      if (listener == null) {
+        throw new NullPointerException("Read listener cannot be null");
+      }
+      try {
+        for (long read = -1; !finished && read != inflated; ) {
+          read = inflated;
+          listener.onDataAvailable();
+        }
+        if (finished) {
+          listener.onAllDataRead();
+        }
+      } catch (IOException e) {
+        listener.onError(e);
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      inflater.close();
+    }
+  }
+
+}
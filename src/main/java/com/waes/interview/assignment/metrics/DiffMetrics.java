@@ -0,0 +1,151 @@
+package com.waes.interview.assignment.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Micrometer instrumentation of diff operations.
+ * <p>
+ * Publishes, with percentile histograms:
+ * <p>
+ * - <code>waes.diff.phase</code>: timer per {@link DiffPhase DiffPhase} (tag <code>phase</code>)
+ * - <code>waes.diff.payload</code>: decoded operand sizes in bytes (tag <code>side</code>)
+ * - <code>waes.diff.differences</code>: amount of differences found per operation
+ * <p>
+ * And gauges with the values of the latest operation: <code>waes.diff.payload.last</code> (tag <code>side</code>) and
+ * <code>waes.diff.differences.last</code>.
+ * <p>
+ * Operations are also offered to a {@link SlowDiffRecorder SlowDiffRecorder}, counting the slow ones as
+ * <code>waes.diff.slow</code>. Operations stopped half way are counted as <code>waes.diff.cancelled</code> (tag
+ * <code>reason</code>: timeout or abandoned).
+ * <p>
+ * Meters are resolved once at construction, so recording is just a few atomic updates per operation.
+ *
+ * @author Juan Krzemien
+ */
+public class DiffMetrics {
+
+  private static final String PHASE = "waes.diff.phase";
+  private static final String PAYLOAD = "waes.diff.payload";
+  private static final String DIFFERENCES = "waes.diff.differences";
+  private static final String SLOW = "waes.diff.slow";
+  private static final String CANCELLED = "waes.diff.cancelled";
+
+  /**
+   * Class members
+   */
+  private final Timer[] phases = new Timer[DiffPhase.values().length];
+  private final DistributionSummary leftPayload;
+  private final DistributionSummary rightPayload;
+  private final DistributionSummary differences;
+  private final AtomicLong lastLeftPayload = new AtomicLong();
+  private final AtomicLong lastRightPayload = new AtomicLong();
+  private final AtomicLong lastDifferences = new AtomicLong();
+  private final SlowDiffRecorder slowDiffs;
+  private final Counter slow;
+  private final Counter timedOut;
+  private final Counter abandoned;
+
+  /**
+   * Constructor
+   *
+   * @param registry  Registry to publish meters into
+   * @param slowDiffs Recorder of slow operations
+   */
+  public DiffMetrics(MeterRegistry registry, SlowDiffRecorder slowDiffs) {
+    this.slowDiffs = slowDiffs;
+    this.slow = Counter.builder(SLOW)
+        .description("Diff operations exceeding the slow threshold")
+        .register(registry);
+    this.timedOut = cancelled(registry, "timeout");
+    this.abandoned = cancelled(registry, "abandoned");
+    for (DiffPhase phase : DiffPhase.values()) {
+      phases[phase.ordinal()] = Timer.builder(PHASE)
+          .description("Time spent per phase of diff operations")
+          .tag("phase", phase.tag())
+          .publishPercentileHistogram()
+          .register(registry);
+    }
+    this.leftPayload = payload(registry, "left");
+    this.rightPayload = payload(registry, "right");
+    this.differences = DistributionSummary.builder(DIFFERENCES)
+        .description("Amount of differences found per diff operation")
+        .publishPercentileHistogram()
+        .register(registry);
+
+    registry.gauge(PAYLOAD + ".last", Tags.of("side", "left"), lastLeftPayload);
+    registry.gauge(PAYLOAD + ".last", Tags.of("side", "right"), lastRightPayload);
+    registry.gauge(DIFFERENCES + ".last", lastDifferences);
+  }
+
+  /**
+   * Records a finished diff operation. Phases not reached, and sizes or differences not set, are skipped.
+   * <p>
+   * Serialization happens after the operation is handed over, so it is not part of slow operation snapshots.
+   *
+   * @param trace Trace of the operation
+   */
+  public void record(DiffTrace trace) {
+    for (DiffPhase phase : DiffPhase.values()) {
+      long nanos = trace.getNanos(phase);
+      if (nanos > 0) {
+        phases[phase.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+      }
+    }
+    if (trace.getLeftSize() >= 0) {
+      leftPayload.record(trace.getLeftSize());
+      rightPayload.record(trace.getRightSize());
+      lastLeftPayload.set(trace.getLeftSize());
+      lastRightPayload.set(trace.getRightSize());
+    }
+    if (trace.getDifferences() >= 0) {
+      differences.record(trace.getDifferences());
+      lastDifferences.set(trace.getDifferences());
+    }
+    if (slowDiffs.offer(trace)) {
+      slow.increment();
+    }
+  }
+
+  /**
+   * Records time spent in a single phase, for phases happening outside the controller (e.g. serialization).
+   *
+   * @param phase Phase to record
+   * @param nanos Nanoseconds spent in phase
+   */
+  public void record(DiffPhase phase, long nanos) {
+    phases[phase.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Counts an operation stopped half way
+   *
+   * @param timedOut Whether the operation went past its deadline, rather than being abandoned by its client
+   */
+  public void cancelled(boolean timedOut) {
+    (timedOut ? this.timedOut : abandoned).increment();
+  }
+
+  private static Counter cancelled(MeterRegistry registry, String reason) {
+    return Counter.builder(CANCELLED)
+        .description("Diff operations stopped before completion")
+        .tag("reason", reason)
+        .register(registry);
+  }
+
+  private static DistributionSummary payload(MeterRegistry registry, String side) {
+    return DistributionSummary.builder(PAYLOAD)
+        .description("Decoded operand sizes of diff operations")
+        .baseUnit("bytes")
+        .tag("side", side)
+        .publishPercentileHistogram()
+        .register(registry);
+  }
+
+}
@@ -0,0 +1,44 @@
+package com.waes.interview.assignment.metrics;
+
+/**
+ * Phases a diff operation goes through in {@link com.waes.interview.assignment.controllers.DifferencesController DifferencesController}.
+ *
+ * @author Juan Krzemien
+ */
+public enum DiffPhase {
+
+  /**
+   * Retrieval of operands from repository
+   */
+  FETCH,
+
+  /**
+   * Decompression and Base64 decoding of operands, including waiting for memory to do so
+   */
+  DECODE,
+
+  /**
+   * Differences computation
+   */
+  DIFF,
+
+  /**
+   * Marking of operands as processed in repository
+   */
+  PERSIST,
+
+  /**
+   * Rendering of the result into the response body
+   */
+  SERIALIZE;
+
+  /**
+   * Tag value for this phase in metrics
+   *
+   * @return Lower case name of the phase
+   */
+  public String tag() {
+    return name().toLowerCase();
+  }
+
+}
@@ -0,0 +1,113 @@
+package com.waes.interview.assignment.metrics;
+
+/**
+ * Mutable record of how a single diff operation went: time spent per {@link DiffPhase DiffPhase}, payload sizes and
+ * amount of differences found.
+ * <p>
+ * Meant to be filled by a single thread while serving a request, with nothing more than {@link System#nanoTime()} calls,
+ * and handed over to {@link DiffMetrics DiffMetrics} once done.
+ *
+ * @author Juan Krzemien
+ */
+public final class DiffTrace {
+
+  private final Long operationId;
+  private final long[] phaseNanos = new long[DiffPhase.values().length];
+  private int leftSize = -1;
+  private int rightSize = -1;
+  private int differences = -1;
+
+  /**
+   * Constructor
+   *
+   * @param operationId ID of the diff operation being traced
+   */
+  public DiffTrace(Long operationId) {
+    this.operationId = operationId;
+  }
+
+  /**
+   * Adds time elapsed since given instant to provided phase.
+   * <p>
+   * Returns current instant, so consecutive phases can be chained:
+   * <code>t = trace.mark(FETCH, t); ... t = trace.mark(DECODE, t);</code>
+   *
+   * @param phase Phase to account elapsed time to
+   * @param since Instant the phase started at, as given by {@link System#nanoTime()}
+   * @return Current instant, as given by {@link System#nanoTime()}
+   */
+  public long mark(DiffPhase phase, long since) {
+    long now = System.nanoTime();
+    phaseNanos[phase.ordinal()] += now - since;
+    return now;
+  }
+
+  /**
+   * Sets decoded payload sizes
+   *
+   * @param leftSize  Size in bytes of the left operand
+   * @param rightSize Size in bytes of the right operand
+   */
+  public void sizes(int leftSize, int rightSize) {
+    this.leftSize = leftSize;
+    this.rightSize = rightSize;
+  }
+
+  /**
+   * Sets amount of differences found
+   *
+   * @param differences Amount of differences found
+   */
+  public void differences(int differences) {
+    this.differences = differences;
+  }
+
+  public Long getOperationId() {
+    return operationId;
+  }
+
+  /**
+   * Time spent in given phase
+   *
+   * @param phase Phase to query
+   * @return Nanoseconds spent in given phase, zero if phase was not reached
+   */
+  public long getNanos(DiffPhase phase) {
+    return phaseNanos[phase.ordinal()];
+  }
+
+  /**
+   * Time spent in all phases
+   *
+   * @return Nanoseconds spent in all phases
+   */
+  public long getTotalNanos() {
+    long total = 0;
+    for (long nanos : phaseNanos) {
+      total += nanos;
+    }
+    return total;
+  }
+
+  /**
+   * @return Size in bytes of the left operand, or -1 if operands were not decoded
+   */
+  public int getLeftSize() {
+    return leftSize;
+  }
+
+  /**
+   * @return Size in bytes of the right operand, or -1 if operands were not decoded
+   */
+  public int getRightSize() {
+    return rightSize;
+  }
+
+  /**
+   * @return Amount of differences found, or -1 if differences were not computed
+   */
+  public int getDifferences() {
+    return differences;
+  }
+
+}
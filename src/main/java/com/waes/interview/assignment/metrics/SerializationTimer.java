@@ -0,0 +1,69 @@
+package com.waes.interview.assignment.metrics;
+
+import com.waes.interview.assignment.controllers.DifferencesController;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Times the {@link DiffPhase#SERIALIZE SERIALIZE} phase of diff operations.
+ * <p>
+ * Response bodies are written by message converters once the controller is done, so the phase is measured from
+ * right before the body is handed to the converter (as a response body advice) until request completion (as a
+ * handler interceptor, registered for the diff results endpoint only).
+ *
+ * @author Juan Krzemien
+ */
+@ControllerAdvice(assignableTypes = DifferencesController.class)
+public class SerializationTimer implements ResponseBodyAdvice<Object>, HandlerInterceptor {
+
+  private static final String STARTED_AT = SerializationTimer.class.getName() + ".startedAt";
+
+  /**
+   * Class members
+   */
+  private final DiffMetrics metrics;
+
+  /**
+   * Constructor
+   *
+   * @param metrics Metrics to record serialization time into
+   */
+  public SerializationTimer(@Autowired DiffMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  @Override
+  public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+    return true;
+  }
+
+  @Override
+  public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                ServerHttpRequest request, ServerHttpResponse response) {
+    if (request instanceof ServletServerHttpRequest) {
+      ((ServletServerHttpRequest) request).getServletRequest().setAttribute(STARTED_AT, System.nanoTime());
+    }
+    return body;
+  }
+
+  @Override
+  public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+    Object startedAt = request.getAttribute(STARTED_AT);
+    if (startedAt instanceof Long) {
+      metrics.record(DiffPhase.SERIALIZE, System.nanoTime() - (Long) startedAt);
+    }
+  }
+
+}
@@ -0,0 +1,90 @@
+package com.waes.interview.assignment.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable snapshot of a diff operation exceeding the slow threshold of {@link SlowDiffRecorder SlowDiffRecorder}.
+ *
+ * @author Juan Krzemien
+ */
+public final class SlowDiff {
+
+  private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+  private final Long operationId;
+  private final long timestamp;
+  private final double totalMillis;
+  private final Map<String, Double> phaseMillis;
+  private final int leftSize;
+  private final int rightSize;
+  private final int differences;
+
+  private SlowDiff(DiffTrace trace, long timestamp) {
+    this.operationId = trace.getOperationId();
+    this.timestamp = timestamp;
+    this.totalMillis = trace.getTotalNanos() / NANOS_PER_MILLI;
+    Map<String, Double> phases = new LinkedHashMap<>();
+    for (DiffPhase phase : DiffPhase.values()) {
+      phases.put(phase.tag(), trace.getNanos(phase) / NANOS_PER_MILLI);
+    }
+    this.phaseMillis = Collections.unmodifiableMap(phases);
+    this.leftSize = trace.getLeftSize();
+    this.rightSize = trace.getRightSize();
+    this.differences = trace.getDifferences();
+  }
+
+  /**
+   * Static factory method
+   *
+   * @param trace Trace of the slow operation
+   * @return Snapshot of provided trace, timestamped now
+   */
+  public static SlowDiff from(DiffTrace trace) {
+    return new SlowDiff(trace, System.currentTimeMillis());
+  }
+
+  public Long getOperationId() {
+    return operationId;
+  }
+
+  /**
+   * @return Epoch milliseconds the operation was recorded at
+   */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  public double getTotalMillis() {
+    return totalMillis;
+  }
+
+  public Map<String, Double> getPhaseMillis() {
+    return phaseMillis;
+  }
+
+  public int getLeftSize() {
+    return leftSize;
+  }
+
+  public int getRightSize() {
+    return rightSize;
+  }
+
+  public int getDifferences() {
+    return differences;
+  }
+
+  @Override
+  public String toString() {
+    return "SlowDiff{" +
+        "operationId=" + operationId +
+        ", totalMillis=" + totalMillis +
+        ", phaseMillis=" + phaseMillis +
+        ", leftSize=" + leftSize +
+        ", rightSize=" + rightSize +
+        ", differences=" + differences +
+        '}';
+  }
+}
@@ -0,0 +1,43 @@
+package com.waes.interview.assignment.metrics;
+
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+
+import java.util.List;
+
+/**
+ * Actuator endpoint (<code>/actuator/slowdiffs</code>) exposing the contents of {@link SlowDiffRecorder SlowDiffRecorder}.
+ * <p>
+ * GET lists slow diff operations, most recent first. DELETE drops them.
+ *
+ * @author Juan Krzemien
+ */
+@Endpoint(id = "slowdiffs")
+public class SlowDiffEndpoint {
+
+  /**
+   * Class members
+   */
+  private final SlowDiffRecorder recorder;
+
+  /**
+   * Constructor
+   *
+   * @param recorder Recorder to expose
+   */
+  public SlowDiffEndpoint(SlowDiffRecorder recorder) {
+    this.recorder = recorder;
+  }
+
+  @ReadOperation
+  public List<SlowDiff> slowDiffs() {
+    return recorder.snapshot();
+  }
+
+  @DeleteOperation
+  public void clear() {
+    recorder.clear();
+  }
+
+}
@@ -0,0 +1,90 @@
+package com.waes.interview.assignment.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded in-memory recorder of diff operations slower than a threshold.
+ * <p>
+ * Keeps the latest <code>capacity</code> slow operations in a lock-free ring buffer: once full, the oldest entries are
+ * overwritten. Operations under the threshold cost a single comparison, and nothing is allocated for them.
+ * <p>
+ * Assumption: Under concurrent writes, a reader may miss an entry being overwritten at that very moment. That is
+ * acceptable for a diagnostics tool, and avoids any locking on the request path.
+ *
+ * @author Juan Krzemien
+ */
+public class SlowDiffRecorder {
+
+  /**
+   * Class members
+   */
+  private final long thresholdNanos;
+  private final AtomicReferenceArray<SlowDiff> buffer;
+  private final AtomicLong sequence = new AtomicLong();
+
+  /**
+   * Constructor
+   *
+   * @param thresholdMillis Operations taking this long or longer, in milliseconds, are recorded
+   * @param capacity        Maximum amount of slow operations kept. Zero disables recording.
+   */
+  public SlowDiffRecorder(long thresholdMillis, int capacity) {
+    if (thresholdMillis < 0 || capacity < 0) {
+      throw new IllegalArgumentException("Slow diff threshold and capacity cannot be negative");
+    }
+    this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+    this.buffer = new AtomicReferenceArray<>(capacity);
+  }
+
+  /**
+   * Records provided trace if it took at least as long as the threshold
+   *
+   * @param trace Trace of a finished operation
+   * @return true if the trace was recorded, false otherwise
+   */
+  public boolean offer(DiffTrace trace) {
+    int capacity = buffer.length();
+    if (capacity == 0 || trace.getTotalNanos() < thresholdNanos) {
+      return false;
+    }
+    long slot = sequence.getAndIncrement();
+    buffer.set((int) (slot % capacity), SlowDiff.from(trace));
+    return true;
+  }
+
+  /**
+   * Slow operations currently held
+   *
+   * @return Slow operations, most recent first
+   */
+  public List<SlowDiff> snapshot() {
+    int capacity = buffer.length();
+    long last = sequence.get();
+    List<SlowDiff> result = new ArrayList<>();
+    for (long slot = last - 1; slot >= 0 && slot >= last - capacity; slot--) {
+      SlowDiff entry = buffer.get((int) (slot % capacity));
+      if (entry != null) {
+        result.add(entry);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Drops all slow operations held
+   */
+  public void clear() {
+    for (int i = 0; i < buffer.length(); i++) {
+      buffer.set(i, null);
+    }
+  }
+
+  public long getThresholdMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(thresholdNanos);
+  }
+
+}
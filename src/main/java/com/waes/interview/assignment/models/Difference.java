@@ -1,10 +1,14 @@
 package com.waes.interview.assignment.models;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.util.Objects;
 
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+
 /**
  * Immutable structure to store individual differences between two
  * {@link com.waes.interview.assignment.differentiator.Differentiable Differentiable} types.
@@ -12,6 +16,11 @@ import java.util.Objects;
  * The difference is composed by:
  * - An Integer denoting the starting position of the difference
  * - An Integer denoting the length of difference (offset)
+ * <p>
+ * When both sides are not aligned (e.g. data was inserted or deleted), position and offset refer to the left side
+ * and the difference additionally holds:
+ * - An Integer denoting the starting position of the difference in the right side
+ * - An Integer denoting the length of difference in the right side (zero for deletions)
  *
  * @author Juan Krzemien
  */
@@ -23,16 +32,39 @@ public final class Difference {
   @JsonProperty("offset")
   private final Integer offset;
 
+  @JsonProperty("rightPosition")
+  @JsonInclude(NON_NULL)
+  private final Integer rightPosition;
+
+  @JsonProperty("rightOffset")
+  @JsonInclude(NON_NULL)
+  private final Integer rightOffset;
+
   /**
-   * Constructor.
+   * Constructor. Difference applies to the same position in both sides.
    *
    * @param position Starting index position of the difference
    * @param offset   Length of the difference
    */
+  public Difference(Integer position, Integer offset) {
+    this(position, offset, null, null);
+  }
+
+  /**
+   * Constructor. Difference applies to different positions, or lengths, in each side.
+   *
+   * @param position      Starting index position of the difference in the left side
+   * @param offset        Length of the difference in the left side
+   * @param rightPosition Starting index position of the difference in the right side
+   * @param rightOffset   Length of the difference in the right side
+   */
   @JsonCreator
-  public Difference(@JsonProperty("position") Integer position, @JsonProperty("offset") Integer offset) {
+  public Difference(@JsonProperty("position") Integer position, @JsonProperty("offset") Integer offset,
+                    @JsonProperty("rightPosition") Integer rightPosition, @JsonProperty("rightOffset") Integer rightOffset) {
     this.position = position;
     this.offset = offset;
+    this.rightPosition = rightPosition;
+    this.rightOffset = rightOffset;
   }
 
   /**
@@ -47,7 +79,9 @@ public final class Difference {
     if (o == null || getClass() != o.getClass()) return false;
     Difference that = (Difference) o;
     return Objects.equals(position, that.position) &&
-        Objects.equals(offset, that.offset);
+        Objects.equals(offset, that.offset) &&
+        Objects.equals(rightPosition, that.rightPosition) &&
+        Objects.equals(rightOffset, that.rightOffset);
   }
 
   /**
@@ -59,7 +93,7 @@ public final class Difference {
    */
   @Override
   public int hashCode() {
-    return Objects.hash(position, offset);
+    return Objects.hash(position, offset, rightPosition, rightOffset);
   }
 
   /**
@@ -80,4 +114,41 @@ public final class Difference {
     return offset;
   }
 
+  /**
+   * Retrieves the stored position for this difference in the right side
+   *
+   * @return Starting position for this difference in the right side, or null if it matches {@link #getPosition() position}
+   */
+  public Integer getRightPosition() {
+    return rightPosition;
+  }
+
+  /**
+   * Retrieves the stored offset for this difference in the right side
+   *
+   * @return Offset length for this difference in the right side, or null if it matches {@link #getOffset() offset}
+   */
+  public Integer getRightOffset() {
+    return rightOffset;
+  }
+
+  /**
+   * Checks whether this difference applies to the same range in both sides
+   *
+   * @return true if difference has no right side specific position and offset, false otherwise
+   */
+  @JsonIgnore
+  public boolean isAligned() {
+    return rightPosition == null && rightOffset == null;
+  }
+
+  @Override
+  public String toString() {
+    return "Difference{" +
+        "position=" + position +
+        ", offset=" + offset +
+        (isAligned() ? "" : ", rightPosition=" + rightPosition + ", rightOffset=" + rightOffset) +
+        '}';
+  }
+
 }
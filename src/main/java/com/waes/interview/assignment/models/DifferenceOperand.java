@@ -1,22 +1,36 @@
 package com.waes.interview.assignment.models;
 
+import com.waes.interview.assignment.compression.OperandCodec;
+
 import javax.persistence.*;
+import java.util.Arrays;
 import java.util.Objects;
 
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
 /**
  * Entity class to hold ID and Base64 data of an operand for difference operation in persistence layer.
  * <p>
  * This class serves as DTO for Spring JPA repository ({@link com.waes.interview.assignment.repositories.OperandsRepository OperandsRepository})
  * <p>
  * Assumption: It allows to store up to 1 MB of Base64 data
+ * <p>
+ * Base64 data is stored encoded with an {@link OperandCodec OperandCodec} (compressed or not). The codec is stored
+ * along with the data so it can always be read back, regardless of the currently configured codec.
+ * <p>
+ * Data is a plain column, cheap to read along with rows in memory. On-disk stores map it as a LOB (see
+ * <code>META-INF/operands-lob.xml</code>), so the database keeps it apart from rows, leaving rows small for lookups by
+ * operation. IDs are allocated in blocks, saving a sequence round trip per insert.
  *
  * @author Juan Krzemien
  */
 @Entity
+@Table(indexes = @Index(name = "operation_idx", columnList = "operationId, processed"))
 public final class DifferenceOperand {
 
   @Id
-  @GeneratedValue(strategy = GenerationType.SEQUENCE)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "operand_sequence")
+  @SequenceGenerator(name = "operand_sequence", sequenceName = "operand_sequence", allocationSize = 50)
   private Long id;
 
   @Column(name = "operationId", nullable = false)
@@ -24,13 +38,23 @@ public final class DifferenceOperand {
 
   // Assumption: Store up to 1 MB of data for this assignment
   @Column(name = "operand", nullable = false, length = 1024 * 1024)
-  private String base64Data;
+  private byte[] data;
+
+  @Enumerated(EnumType.STRING)
+  @Column(name = "codec", nullable = false)
+  private OperandCodec codec;
+
+  // Length of the Base64 data before encoding it with codec
+  @Column(name = "size", nullable = false)
+  private int size;
 
   @Column(name = "processed", nullable = false)
   private boolean processed;
 
   /**
    * Factory method for instances. Avoid duplicating several lines in code.
+   * <p>
+   * Data is stored as is, without compression.
    *
    * @param id        Transaction ID
    * @param payload   Base64 data to store
@@ -38,9 +62,39 @@ public final class DifferenceOperand {
    * @return An {@link DifferenceOperand DifferenceOperand} instance populated with provided values
    */
   public static DifferenceOperand from(Long id, String payload, boolean processed) {
+    return from(id, payload, processed, OperandCodec.NONE);
+  }
+
+  /**
+   * Factory method for instances, storing Base64 data encoded with given codec.
+   *
+   * @param id        Transaction ID
+   * @param payload   Base64 data to store
+   * @param processed Flag to indicate whether operand has been processed by controller or not
+   * @param codec     Codec to encode Base64 data with
+   * @return An {@link DifferenceOperand DifferenceOperand} instance populated with provided values
+   */
+  public static DifferenceOperand from(Long id, String payload, boolean processed, OperandCodec codec) {
+    DifferenceOperand operand = new DifferenceOperand();
+    operand.setOperationId(id);
+    operand.setBase64Data(payload, codec);
+    operand.setProcessed(processed);
+    return operand;
+  }
+
+  /**
+   * Factory method for instances, storing Base64 data (as US-ASCII bytes) encoded with given codec.
+   *
+   * @param id         Transaction ID
+   * @param base64Data Base64 data to store, as US-ASCII bytes. Must not be modified afterwards, as it may be stored as is.
+   * @param processed  Flag to indicate whether operand has been processed by controller or not
+   * @param codec      Codec to encode Base64 data with
+   * @return An {@link DifferenceOperand DifferenceOperand} instance populated with provided values
+   */
+  public static DifferenceOperand fromBase64Bytes(Long id, byte[] base64Data, boolean processed, OperandCodec codec) {
     DifferenceOperand operand = new DifferenceOperand();
     operand.setOperationId(id);
-    operand.setBase64Data(payload);
+    operand.setBase64Bytes(base64Data, codec);
     operand.setProcessed(processed);
     return operand;
   }
@@ -49,9 +103,27 @@ public final class DifferenceOperand {
    * Sets the Base64 data to hold
    *
    * @param base64Data String in Base64 format of the data to hold
+   * @param codec      Codec to encode Base64 data with
    */
-  public void setBase64Data(String base64Data) {
-    this.base64Data = base64Data;
+  public void setBase64Data(String base64Data, OperandCodec codec) {
+    setBase64Bytes(base64Data != null ? base64Data.getBytes(US_ASCII) : null, codec);
+  }
+
+  /**
+   * Sets the Base64 data to hold, as US-ASCII bytes
+   *
+   * @param base64Data Base64 data to hold, as US-ASCII bytes. Must not be modified afterwards, as it may be held as is.
+   * @param codec      Codec to encode Base64 data with
+   */
+  public void setBase64Bytes(byte[] base64Data, OperandCodec codec) {
+    this.codec = codec;
+    if (base64Data == null) {
+      this.data = null;
+      this.size = 0;
+      return;
+    }
+    this.data = codec.compress(base64Data);
+    this.size = base64Data.length;
   }
 
   /**
@@ -87,7 +159,49 @@ public final class DifferenceOperand {
    * @return the operand value
    */
   public String getData() {
-    return base64Data;
+    byte[] base64Data = getBase64Bytes();
+    return base64Data != null ? new String(base64Data, US_ASCII) : null;
+  }
+
+  /**
+   * Returns the Base64 data stored in this holder as US-ASCII bytes, decoded with the codec it was stored with.
+   * <p>
+   * Prefer this method over {@link #getData() getData} to avoid materializing the Base64 data as a String.
+   *
+   * @return the operand value as US-ASCII bytes. Must not be modified, as it may be the very same instance stored.
+   */
+  public byte[] getBase64Bytes() {
+    return data != null ? codec.decompress(data, size) : null;
+  }
+
+  /**
+   * Same as {@link #getBase64Bytes() getBase64Bytes}, decoding into a caller supplied buffer if the codec requires
+   * decoding at all (see {@link OperandCodec#isCompressed() isCompressed}).
+   *
+   * @param buffer Buffer of at least {@link #getSize() getSize} bytes to decode into
+   * @return Array whose leading {@link #getSize() getSize} bytes hold the operand value as US-ASCII bytes: either the
+   * buffer provided, or the very same instance stored. Must not be modified.
+   */
+  public byte[] getBase64Bytes(byte[] buffer) {
+    return data != null ? codec.decompress(data, size, buffer) : null;
+  }
+
+  /**
+   * Returns the length of the Base64 data stored in this holder, as it was before being encoded by its codec.
+   *
+   * @return the Base64 data length
+   */
+  public int getSize() {
+    return size;
+  }
+
+  /**
+   * Returns the codec the Base64 data in this holder was stored with.
+   *
+   * @return the codec of the stored data
+   */
+  public OperandCodec getCodec() {
+    return codec;
   }
 
   /**
@@ -96,7 +210,7 @@ public final class DifferenceOperand {
    * @return true if none of the entity attributes are null or Base64 data is empty, false otherwise.
    */
   public boolean isValid() {
-    return operationId != null && base64Data != null && !base64Data.isEmpty();
+    return operationId != null && codec != null && data != null && size > 0;
   }
 
   /**
@@ -129,9 +243,11 @@ public final class DifferenceOperand {
     if (o == null || getClass() != o.getClass()) return false;
     DifferenceOperand that = (DifferenceOperand) o;
     return processed == that.processed &&
+        size == that.size &&
         Objects.equals(id, that.id) &&
         Objects.equals(operationId, that.operationId) &&
-        Objects.equals(base64Data, that.base64Data);
+        codec == that.codec &&
+        Arrays.equals(data, that.data);
   }
 
   /**
@@ -143,6 +259,6 @@ public final class DifferenceOperand {
    */
   @Override
   public int hashCode() {
-    return Objects.hash(id, operationId, base64Data, processed);
+    return 31 * Objects.hash(id, operationId, codec, size, processed) + Arrays.hashCode(data);
   }
 }
@@ -0,0 +1,84 @@
+package com.waes.interview.assignment.models;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+/**
+ * Immutable structure to store the progress of a streamed diff operation.
+ * <p>
+ * The progress is composed by:
+ * - An Integer denoting the amount of leading bytes compared so far
+ * - An Integer denoting the amount of bytes to compare
+ *
+ * @author Juan Krzemien
+ */
+public final class DifferencesProgress {
+
+  @JsonProperty("scanned")
+  private final int scanned;
+
+  @JsonProperty("total")
+  private final int total;
+
+  /**
+   * Constructor
+   *
+   * @param scanned Amount of leading bytes compared so far
+   * @param total   Amount of bytes to compare
+   */
+  @JsonCreator
+  public DifferencesProgress(@JsonProperty("scanned") int scanned, @JsonProperty("total") int total) {
+    this.scanned = scanned;
+    this.total = total;
+  }
+
+  /**
+   * @return Amount of leading bytes compared so far
+   */
+  public int getScanned() {
+    return scanned;
+  }
+
+  /**
+   * @return Amount of bytes to compare
+   */
+  public int getTotal() {
+    return total;
+  }
+
+  /**
+   * Overriding equals will allow for easier instances comparison during assertions in tests.
+   *
+   * @param o Object instance to compare this instance against
+   * @return true if instances equal, false otherwise.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    DifferencesProgress that = (DifferencesProgress) o;
+    return scanned == that.scanned &&
+        total == that.total;
+  }
+
+  /**
+   * One must override hashCode() in every class that overrides equals().
+   *
+   * @return hash code for this instance
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(scanned, total);
+  }
+
+  @Override
+  public String toString() {
+    return "DifferencesProgress{" +
+        "scanned=" + scanned +
+        ", total=" + total +
+        '}';
+  }
+
+}
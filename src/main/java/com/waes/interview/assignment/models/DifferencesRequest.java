@@ -1,32 +1,49 @@
 package com.waes.interview.assignment.models;
 
-import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.waes.interview.assignment.converters.DifferencesRequestDeserializer;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
 
 /**
  * Immutable structure to store incoming request to {@link com.waes.interview.assignment.controllers.DifferencesController DifferencesController}
+ * <p>
+ * The Base64 payload is held as US-ASCII bytes, as stored by {@link DifferenceOperand DifferenceOperand}. Incoming
+ * requests are read by {@link DifferencesRequestDeserializer DifferencesRequestDeserializer}, which streams the
+ * payload into those bytes without materializing it as a String.
  *
  * @author Juan Krzemien
  */
+@JsonDeserialize(using = DifferencesRequestDeserializer.class)
 public final class DifferencesRequest {
 
   /**
-   * Base64 encoded payload
+   * Base64 encoded payload, as US-ASCII bytes
    */
-  @JsonProperty("payload")
-  private final String payload;
+  private final byte[] payload;
 
   /**
    * Constructor
    *
    * @param payload String containing the payload for this request
    */
-  @JsonCreator
-  public DifferencesRequest(@JsonProperty("payload") String payload) {
-    if (payload == null) {
-      payload = "";
-    }
-    this.payload = payload;
+  public DifferencesRequest(String payload) {
+    this.payload = payload != null ? payload.getBytes(US_ASCII) : new byte[0];
+  }
+
+  private DifferencesRequest(byte[] payload) {
+    this.payload = payload != null ? payload : new byte[0];
+  }
+
+  /**
+   * Factory method for requests whose payload is already available as Base64 US-ASCII bytes
+   *
+   * @param payload Base64 payload, as US-ASCII bytes. Held as is, so it must not be modified afterwards.
+   * @return Request holding provided payload
+   */
+  public static DifferencesRequest fromBase64Bytes(byte[] payload) {
+    return new DifferencesRequest(payload);
   }
 
   /**
@@ -34,8 +51,25 @@ public final class DifferencesRequest {
    *
    * @return String containing the payload for this request
    */
+  @JsonProperty("payload")
   public String getPayload() {
+    return new String(payload, US_ASCII);
+  }
+
+  /**
+   * Retrieves the payload attached to this request without materializing it as a String
+   *
+   * @return Base64 payload, as US-ASCII bytes. Must not be modified.
+   */
+  public byte[] getBase64Bytes() {
     return payload;
   }
 
+  /**
+   * @return Length of the Base64 payload, in characters
+   */
+  public int getPayloadLength() {
+    return payload.length;
+  }
+
 }
@@ -15,6 +15,7 @@ import static java.util.Collections.unmodifiableList;
  * Immutable structure to store responses from {@link com.waes.interview.assignment.controllers.DifferencesController DifferencesController} endpoints.
  * <p>
  * Holds a message with the result of the operation performed and a list of {@link Difference Difference} objects found, if any.
+ * Summarized operations hold a {@link DifferencesSummary DifferencesSummary} instead of the list.
  *
  * @author Juan Krzemien
  */
@@ -28,6 +29,9 @@ public final class DifferencesResponse {
   @JsonProperty("differences")
   private final List<Difference> differences;
 
+  @JsonProperty("summary")
+  private final DifferencesSummary summary;
+
   /**
    * Constructor. This structure is expected to, at least, provide a message. List of differences is initialized to an
    * unmodifiable empty list.
@@ -44,10 +48,34 @@ public final class DifferencesResponse {
    * @param message     Message to return from {@link com.waes.interview.assignment.controllers.DifferencesController DifferencesController} endpoints
    * @param differences List of {@link Difference Difference} found
    */
+  public DifferencesResponse(String message, List<Difference> differences) {
+    this(message, differences, null);
+  }
+
+  /**
+   * Constructor. Requires message to return and {@link DifferencesSummary DifferencesSummary}. List of differences is
+   * initialized to an unmodifiable empty list.
+   *
+   * @param message Message to return from {@link com.waes.interview.assignment.controllers.DifferencesController DifferencesController} endpoints
+   * @param summary Summary of the differences found
+   */
+  public DifferencesResponse(String message, DifferencesSummary summary) {
+    this(message, emptyList(), summary);
+  }
+
+  /**
+   * Constructor. Requires message to return, list of {@link Difference Difference}s and their summary, if any.
+   *
+   * @param message     Message to return from {@link com.waes.interview.assignment.controllers.DifferencesController DifferencesController} endpoints
+   * @param differences List of {@link Difference Difference} found
+   * @param summary     Summary of the differences found, or null if not summarized
+   */
   @JsonCreator
-  public DifferencesResponse(@JsonProperty("message") String message, @JsonProperty("differences") List<Difference> differences) {
+  public DifferencesResponse(@JsonProperty("message") String message, @JsonProperty("differences") List<Difference> differences,
+                             @JsonProperty("summary") DifferencesSummary summary) {
     this.message = message;
     this.differences = unmodifiableList(differences != null ? differences : emptyList());
+    this.summary = summary;
   }
 
   /**
@@ -69,6 +97,15 @@ public final class DifferencesResponse {
     return differences;
   }
 
+  /**
+   * Retrieves the summary of differences found, if the operation was summarized
+   *
+   * @return {@link DifferencesSummary DifferencesSummary}, or null if the operation was not summarized
+   */
+  public DifferencesSummary getSummary() {
+    return summary;
+  }
+
   /**
    * Overriding equals will allow for easier instances comparison during assertions in tests.
    *
@@ -81,7 +118,8 @@ public final class DifferencesResponse {
     if (o == null || getClass() != o.getClass()) return false;
     DifferencesResponse that = (DifferencesResponse) o;
     return Objects.equals(message, that.message) &&
-        Objects.equals(differences, that.differences);
+        Objects.equals(differences, that.differences) &&
+        Objects.equals(summary, that.summary);
   }
 
   /**
@@ -93,7 +131,7 @@ public final class DifferencesResponse {
    */
   @Override
   public int hashCode() {
-    return Objects.hash(message, differences);
+    return Objects.hash(message, differences, summary);
   }
 
   @Override
@@ -101,6 +139,7 @@ public final class DifferencesResponse {
     return "DifferencesResponse{" +
         "message='" + message + '\'' +
         ", differences=" + differences +
+        (summary != null ? ", summary=" + summary : "") +
         '}';
   }
 }
@@ -0,0 +1,138 @@
+package com.waes.interview.assignment.models;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.Objects;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+
+/**
+ * Immutable structure to store aggregates of the differences between two
+ * {@link com.waes.interview.assignment.differentiator.Differentiable Differentiable} types, instead of the
+ * differences themselves.
+ * <p>
+ * The summary is composed by:
+ * - A Long denoting the total amount of differing bytes (the longest side of every difference)
+ * - An Integer denoting the amount of differences (runs of differing bytes)
+ * - An Integer denoting the length of the longest difference
+ * - Integers denoting the starting position of the first and the last differences, in the left side. Absent when
+ * there are no differences.
+ *
+ * @author Juan Krzemien
+ */
+public final class DifferencesSummary {
+
+  @JsonProperty("differingBytes")
+  private final long differingBytes;
+
+  @JsonProperty("runs")
+  private final int runs;
+
+  @JsonProperty("largestRun")
+  private final int largestRun;
+
+  @JsonProperty("firstPosition")
+  @JsonInclude(NON_NULL)
+  private final Integer firstPosition;
+
+  @JsonProperty("lastPosition")
+  @JsonInclude(NON_NULL)
+  private final Integer lastPosition;
+
+  /**
+   * Constructor
+   *
+   * @param differingBytes Total amount of differing bytes
+   * @param runs           Amount of differences
+   * @param largestRun     Length of the longest difference
+   * @param firstPosition  Starting position of the first difference, or null if there are none
+   * @param lastPosition   Starting position of the last difference, or null if there are none
+   */
+  @JsonCreator
+  public DifferencesSummary(@JsonProperty("differingBytes") long differingBytes, @JsonProperty("runs") int runs,
+                            @JsonProperty("largestRun") int largestRun, @JsonProperty("firstPosition") Integer firstPosition,
+                            @JsonProperty("lastPosition") Integer lastPosition) {
+    this.differingBytes = differingBytes;
+    this.runs = runs;
+    this.largestRun = largestRun;
+    this.firstPosition = firstPosition;
+    this.lastPosition = lastPosition;
+  }
+
+  /**
+   * @return Total amount of differing bytes
+   */
+  public long getDifferingBytes() {
+    return differingBytes;
+  }
+
+  /**
+   * @return Amount of differences (runs of differing bytes)
+   */
+  public int getRuns() {
+    return runs;
+  }
+
+  /**
+   * @return Length of the longest difference
+   */
+  public int getLargestRun() {
+    return largestRun;
+  }
+
+  /**
+   * @return Starting position of the first difference in the left side, or null if there are no differences
+   */
+  public Integer getFirstPosition() {
+    return firstPosition;
+  }
+
+  /**
+   * @return Starting position of the last difference in the left side, or null if there are no differences
+   */
+  public Integer getLastPosition() {
+    return lastPosition;
+  }
+
+  /**
+   * Overriding equals will allow for easier instances comparison during assertions in tests.
+   *
+   * @param o Object instance to compare this instance against
+   * @return true if instances equal, false otherwise.
+   */
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    DifferencesSummary that = (DifferencesSummary) o;
+    return differingBytes == that.differingBytes &&
+        runs == that.runs &&
+        largestRun == that.largestRun &&
+        Objects.equals(firstPosition, that.firstPosition) &&
+        Objects.equals(lastPosition, that.lastPosition);
+  }
+
+  /**
+   * One must override hashCode() in every class that overrides equals().
+   *
+   * @return hash code for this instance
+   */
+  @Override
+  public int hashCode() {
+    return Objects.hash(differingBytes, runs, largestRun, firstPosition, lastPosition);
+  }
+
+  @Override
+  public String toString() {
+    return "DifferencesSummary{" +
+        "differingBytes=" + differingBytes +
+        ", runs=" + runs +
+        ", largestRun=" + largestRun +
+        ", firstPosition=" + firstPosition +
+        ", lastPosition=" + lastPosition +
+        '}';
+  }
+
+}
@@ -0,0 +1,306 @@
+package com.waes.interview.assignment.precompute;
+
+import com.waes.interview.assignment.admission.MemoryBudget;
+import com.waes.interview.assignment.differentiator.Cancellation;
+import com.waes.interview.assignment.differentiator.DiffCancelledException;
+import com.waes.interview.assignment.models.DifferenceOperand;
+import com.waes.interview.assignment.models.DifferencesResponse;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Results of diff operations computed ahead of time, as soon as both operands are available, and kept until asked for.
+ * <p>
+ * Computations run on a bounded pool of background threads, with a bounded queue. Computations not fitting in the
+ * queue are not started, and neither are computations nobody waits for anymore: a result asked for before its
+ * computation starts is computed by the asking thread instead, so it never waits behind the queue. A result asked for
+ * while being computed is waited for, up to the deadline of the asking request.
+ * <p>
+ * Computations waiting for a thread are charged to the {@link MemoryBudget MemoryBudget} for the operands they hold,
+ * and are not started at all if these do not fit in it right away. Operands are let go as soon as the computation
+ * starts (or is claimed), so computed results do not hold them.
+ * <p>
+ * Results are kept in memory up to a bounded amount of operations, evicting the oldest ones. Kept results are charged to
+ * the {@link MemoryBudget MemoryBudget} until taken or evicted, and results not fitting in it are not kept at all.
+ * Results are tied to the operands they were computed from, so a result is never served for operands uploaded later
+ * under the same ID.
+ *
+ * @author Juan Krzemien
+ */
+public class PrecomputedDiffs implements AutoCloseable {
+
+  /**
+   * Memory taken by a kept result, per difference: the difference, its boxed fields and its slot in the list
+   */
+  static final int DIFFERENCE_BYTES = 96;
+
+  /**
+   * Class members
+   */
+  private final MemoryBudget budget;
+  private final int maxResults;
+  private final ThreadPoolExecutor executor;
+  private final Map<Long, Precomputation> precomputations;
+
+  /**
+   * Constructor
+   *
+   * @param budget     Memory budget kept results are charged to
+   * @param threads    Threads computing results ahead of time. Zero disables precomputing.
+   * @param queueSize  Maximum amount of computations waiting for a thread
+   * @param maxResults Maximum amount of results kept (computed or not), evicting the oldest ones
+   */
+  public PrecomputedDiffs(MemoryBudget budget, int threads, int queueSize, int maxResults) {
+    this.budget = budget;
+    this.maxResults = maxResults;
+    this.precomputations = new LinkedHashMap<Long, Precomputation>() {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Long, Precomputation> eldest) {
+        if (size() > PrecomputedDiffs.this.maxResults) {
+          eldest.getValue().drop();
+          return true;
+        }
+        return false;
+      }
+    };
+    if (threads > 0) {
+      AtomicInteger counter = new AtomicInteger();
+      this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+          new LinkedBlockingQueue<>(Math.max(1, queueSize)), runnable -> {
+        Thread thread = new Thread(runnable, "diff-precompute-" + counter.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    } else {
+      this.executor = null;
+    }
+  }
+
+  /**
+   * @return Whether results are computed ahead of time at all
+   */
+  public boolean isEnabled() {
+    return executor != null && maxResults > 0;
+  }
+
+  /**
+   * Starts computing the result of an operation in the background, replacing any previous one for the same ID.
+   *
+   * @param operationId ID of the operation
+   * @param operands    Left and right operands, in that order
+   * @param computation Computation of the result from the operands. May return null if it cannot compute it.
+   */
+  public void submit(Long operationId, List<DifferenceOperand> operands,
+                     Function<List<DifferenceOperand>, DifferencesResponse> computation) {
+    if (!isEnabled()) {
+      return;
+    }
+    MemoryBudget.Reservation queued = budget.tryReserve((long) operands.get(0).getSize() + operands.get(1).getSize());
+    if (queued == null) {
+      return;
+    }
+    Precomputation precomputation = new Precomputation(operands, queued);
+    synchronized (precomputations) {
+      Precomputation previous = precomputations.put(operationId, precomputation);
+      if (previous != null) {
+        previous.drop();
+      }
+    }
+    try {
+      executor.execute(() -> precomputation.run(computation, budget));
+    } catch (RejectedExecutionException e) {
+      remove(operationId, precomputation);
+      precomputation.drop();
+    }
+  }
+
+  /**
+   * Takes the result of an operation, waiting for its computation to finish if it already started. Waits are bounded by
+   * the deadline of the asking request: results not computed by then are dropped.
+   *
+   * @param operationId  ID of the operation
+   * @param operands     Left and right operands, in that order, the result must have been computed from
+   * @param cancellation Token of the asking request
+   * @return Result of the operation, or null if it was not computed ahead of time (and will not be)
+   * @throws DiffCancelledException if the asking request is cancelled, or past its deadline, before the result is computed
+   */
+  public DifferencesResponse take(Long operationId, List<DifferenceOperand> operands, Cancellation cancellation) {
+    if (!isEnabled()) {
+      return null;
+    }
+    Precomputation precomputation;
+    synchronized (precomputations) {
+      precomputation = precomputations.remove(operationId);
+    }
+    if (precomputation == null) {
+      return null;
+    }
+    // Claimed first, so computations not started yet never start, even if computed from other operands. Taken results
+    // are no longer charged to the budget, nor are results computed for nobody
+    try {
+      if (precomputation.claim() || !precomputation.isFor(operands)) {
+        return null;
+      }
+      long remaining = cancellation.remainingNanos();
+      return remaining == Long.MAX_VALUE
+          ? precomputation.result.get()
+          : precomputation.result.get(remaining, TimeUnit.NANOSECONDS);
+    } catch (TimeoutException e) {
+      cancellation.check();
+      return null;
+    } catch (ExecutionException e) {
+      return null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    } finally {
+      precomputation.drop();
+    }
+  }
+
+  /**
+   * @return Amount of results kept, computed or not
+   */
+  public int size() {
+    synchronized (precomputations) {
+      return precomputations.size();
+    }
+  }
+
+  /**
+   * Stops background threads, dropping kept results and computations not started yet
+   */
+  @Override
+  public void close() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+    synchronized (precomputations) {
+      precomputations.values().forEach(Precomputation::drop);
+      precomputations.clear();
+    }
+  }
+
+  private void remove(Long operationId, Precomputation precomputation) {
+    synchronized (precomputations) {
+      precomputations.remove(operationId, precomputation);
+    }
+  }
+
+  /**
+   * @return Memory, in bytes, a result takes while kept
+   */
+  private static long bytes(DifferencesResponse response) {
+    return (long) response.getDifferences().size() * DIFFERENCE_BYTES;
+  }
+
+  /**
+   * Computation of the result of an operation, run at most once: either by a background thread, or not at all if
+   * claimed by someone else first. Holds its operands, charged to the budget, until started or claimed, and the memory
+   * reservation of its result until dropped.
+   */
+  private static final class Precomputation {
+
+    private List<DifferenceOperand> operands;
+    private MemoryBudget.Reservation queued;
+    private final Long leftId;
+    private final Long rightId;
+    private final AtomicBoolean claimed = new AtomicBoolean();
+    private final CompletableFuture<DifferencesResponse> result = new CompletableFuture<>();
+    private MemoryBudget.Reservation reservation;
+    private boolean dropped;
+
+    Precomputation(List<DifferenceOperand> operands, MemoryBudget.Reservation queued) {
+      this.operands = operands;
+      this.queued = queued;
+      this.leftId = operands.get(0).getId();
+      this.rightId = operands.get(1).getId();
+    }
+
+    /**
+     * Claims the computation, so it is not run
+     *
+     * @return true if it was not started nor claimed yet, false otherwise
+     */
+    boolean claim() {
+      return start() != null;
+    }
+
+    /**
+     * Claims the computation, letting its operands go
+     *
+     * @return Operands, if it was not started nor claimed yet, null otherwise
+     */
+    private List<DifferenceOperand> start() {
+      if (!claimed.compareAndSet(false, true)) {
+        return null;
+      }
+      List<DifferenceOperand> started = operands;
+      operands = null;
+      queued.close();
+      queued = null;
+      return started;
+    }
+
+    boolean isFor(List<DifferenceOperand> operands) {
+      return leftId != null && Objects.equals(leftId, operands.get(0).getId())
+          && Objects.equals(rightId, operands.get(1).getId());
+    }
+
+    /**
+     * Claims the computation, if not started yet, and releases the memory of its result, now or once computed
+     */
+    synchronized void drop() {
+      claim();
+      dropped = true;
+      if (reservation != null) {
+        reservation.close();
+        reservation = null;
+      }
+    }
+
+    /**
+     * Keeps the memory reservation of the result, unless dropped meanwhile
+     *
+     * @return Whether the result is kept
+     */
+    private synchronized boolean keep(MemoryBudget.Reservation reservation) {
+      if (reservation == null) {
+        return false;
+      }
+      if (dropped) {
+        reservation.close();
+        return false;
+      }
+      this.reservation = reservation;
+      return true;
+    }
+
+    void run(Function<List<DifferenceOperand>, DifferencesResponse> computation, MemoryBudget budget) {
+      List<DifferenceOperand> operands = start();
+      if (operands == null) {
+        return;
+      }
+      try {
+        DifferencesResponse response = computation.apply(operands);
+        result.complete(response != null && keep(budget.reserve(bytes(response))) ? response : null);
+      } catch (RuntimeException e) {
+        result.completeExceptionally(e);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,36 @@
+package com.waes.interview.assignment.ratelimit;
+
+/**
+ * Immutable rate limit of an endpoint, per client.
+ *
+ * @author Juan Krzemien
+ */
+public final class RateLimit {
+
+  private final double ratePerSecond;
+  private final int burst;
+
+  /**
+   * Constructor
+   *
+   * @param ratePerSecond Sustained requests per second allowed. Zero or less disables the limit.
+   * @param burst         Requests allowed at once on top of the sustained rate (at least 1)
+   */
+  public RateLimit(double ratePerSecond, int burst) {
+    this.ratePerSecond = ratePerSecond;
+    this.burst = Math.max(1, burst);
+  }
+
+  public double getRatePerSecond() {
+    return ratePerSecond;
+  }
+
+  public int getBurst() {
+    return burst;
+  }
+
+  public boolean isEnabled() {
+    return ratePerSecond > 0;
+  }
+
+}
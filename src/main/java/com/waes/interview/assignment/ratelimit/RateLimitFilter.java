@@ -0,0 +1,182 @@
+package com.waes.interview.assignment.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+
+/**
+ * Servlet filter limiting request rates of every client on /v1/diff endpoints, with a {@link TokenBucket TokenBucket}
+ * per client and endpoint.
+ * <p>
+ * Clients are identified by a header (e.g. <code>X-Client-Id</code>) or, if absent, by remote address. Requests over the
+ * limit are rejected with 429 (Too Many Requests) and a Retry-After header, and counted as
+ * <code>waes.ratelimit.rejected</code> (tag <code>endpoint</code>).
+ * <p>
+ * At most a fixed amount of buckets are tracked, bounding memory usage. Beyond that, the bucket tracked the longest is
+ * dropped for every new one, in constant time. Buckets of active clients (not full) get a second chance instead, being
+ * moved to the back of the line, for a few buckets at most: dropping a bucket lets its client start a full burst anew.
+ *
+ * @author Juan Krzemien
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+  private static final int MAX_TRACKED_CLIENTS = 10_000;
+  private static final int MAX_SECOND_CHANCES = 8;
+  private static final String REJECTED = "{\"message\":\"Too many requests. Please, retry later.\"}";
+  private static final int SC_TOO_MANY_REQUESTS = 429;
+
+  /**
+   * Rate limited endpoints
+   */
+  public enum Endpoint {
+    LEFT, RIGHT, DIFF;
+
+    /**
+     * Endpoint of a /v1/diff request
+     *
+     * @return Endpoint requested, or null if the request is not rate limited
+     */
+    static Endpoint of(HttpServletRequest request) {
+      String uri = request.getRequestURI();
+      if ("POST".equalsIgnoreCase(request.getMethod())) {
+        return uri.endsWith("/left") ? LEFT : uri.endsWith("/right") ? RIGHT : null;
+      }
+      return "GET".equalsIgnoreCase(request.getMethod()) ? DIFF : null;
+    }
+
+    String tag() {
+      return name().toLowerCase();
+    }
+  }
+
+  /**
+   * Class members
+   */
+  private final String clientHeader;
+  private final Map<Endpoint, RateLimit> limits;
+  private final Map<Endpoint, Counter> rejections = new EnumMap<>(Endpoint.class);
+  private final int maxTrackedClients;
+  private final ConcurrentHashMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+  // Keys of buckets, in the order they are to be dropped
+  private final ConcurrentLinkedQueue<String> evictionOrder = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Constructor
+   *
+   * @param clientHeader Header identifying clients
+   * @param limits       Limits per endpoint. Endpoints without an enabled limit are not limited.
+   * @param registry     Registry to publish rejection counters into
+   */
+  public RateLimitFilter(String clientHeader, Map<Endpoint, RateLimit> limits, MeterRegistry registry) {
+    this(clientHeader, limits, registry, MAX_TRACKED_CLIENTS);
+  }
+
+  /**
+   * Constructor
+   *
+   * @param clientHeader      Header identifying clients
+   * @param limits            Limits per endpoint. Endpoints without an enabled limit are not limited.
+   * @param registry          Registry to publish rejection counters into
+   * @param maxTrackedClients Maximum amount of buckets tracked
+   */
+  RateLimitFilter(String clientHeader, Map<Endpoint, RateLimit> limits, MeterRegistry registry, int maxTrackedClients) {
+    this.clientHeader = clientHeader;
+    this.maxTrackedClients = maxTrackedClients;
+    this.limits = new EnumMap<>(limits);
+    for (Endpoint endpoint : Endpoint.values()) {
+      rejections.put(endpoint, Counter.builder("waes.ratelimit.rejected")
+          .description("Requests rejected for exceeding the client rate limit")
+          .tag("endpoint", endpoint.tag())
+          .register(registry));
+    }
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+    Endpoint endpoint = Endpoint.of(request);
+    RateLimit limit = endpoint != null ? limits.get(endpoint) : null;
+    if (limit == null || !limit.isEnabled()) {
+      chain.doFilter(request, response);
+      return;
+    }
+
+    long now = System.nanoTime();
+    long wait = bucket(endpoint, client(request), limit, now).tryTake(now);
+    if (wait > 0) {
+      rejections.get(endpoint).increment();
+      response.setStatus(SC_TOO_MANY_REQUESTS);
+      response.setHeader(RETRY_AFTER, String.valueOf(Math.max(1, (wait + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1))));
+      response.setContentType(APPLICATION_JSON_VALUE);
+      response.getWriter().write(REJECTED);
+      return;
+    }
+
+    chain.doFilter(request, response);
+  }
+
+  private String client(HttpServletRequest request) {
+    String client = request.getHeader(clientHeader);
+    return client != null && !client.isEmpty() ? client : request.getRemoteAddr();
+  }
+
+  private TokenBucket bucket(Endpoint endpoint, String client, RateLimit limit, long now) {
+    String key = endpoint.ordinal() + ":" + client;
+    TokenBucket bucket = buckets.get(key);
+    if (bucket != null) {
+      return bucket;
+    }
+    TokenBucket created = new TokenBucket(limit.getRatePerSecond(), limit.getBurst(), now);
+    bucket = buckets.putIfAbsent(key, created);
+    if (bucket != null) {
+      return bucket;
+    }
+    evictionOrder.add(key);
+    while (buckets.size() > maxTrackedClients && evict(now)) {
+      // Drop buckets until back within bounds
+    }
+    return created;
+  }
+
+  /**
+   * Drops the bucket tracked the longest, giving a second chance to the ones of active clients first
+   *
+   * @return false if there was nothing to drop
+   */
+  private boolean evict(long now) {
+    for (int chances = 0; ; chances++) {
+      String eldest = evictionOrder.poll();
+      if (eldest == null) {
+        return false;
+      }
+      TokenBucket bucket = buckets.get(eldest);
+      if (bucket != null && !bucket.isFull(now) && chances < MAX_SECOND_CHANCES) {
+        evictionOrder.add(eldest);
+        continue;
+      }
+      buckets.remove(eldest);
+      return true;
+    }
+  }
+
+  /**
+   * @return Amount of buckets tracked
+   */
+  int getTrackedBuckets() {
+    return buckets.size();
+  }
+
+}
@@ -0,0 +1,66 @@
+package com.waes.interview.assignment.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket.
+ * <p>
+ * Instead of counting tokens and refilling them on a timer, the bucket keeps a single instant: when it would be full
+ * again (a.k.a. Generic Cell Rate Algorithm). Taking a token pushes that instant one emission interval forward, and is
+ * allowed as long as it stays within <code>burst</code> intervals from now. Being a single long, state is updated with
+ * a compare-and-set, so concurrent requests never block each other.
+ *
+ * @author Juan Krzemien
+ */
+final class TokenBucket {
+
+  /**
+   * Class members
+   */
+  private final long intervalNanos;
+  private final long capacityNanos;
+  private final AtomicLong fullAt;
+
+  /**
+   * Constructor. Bucket starts full.
+   *
+   * @param ratePerSecond Tokens added per second
+   * @param burst         Maximum amount of tokens held
+   * @param now           Current instant, as given by {@link System#nanoTime()}
+   */
+  TokenBucket(double ratePerSecond, int burst, long now) {
+    this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+    this.capacityNanos = intervalNanos * burst;
+    this.fullAt = new AtomicLong(now);
+  }
+
+  /**
+   * Takes a token, if available
+   *
+   * @param now Current instant, as given by {@link System#nanoTime()}
+   * @return Zero if a token was taken. Otherwise, nanoseconds to wait until one becomes available.
+   */
+  long tryTake(long now) {
+    while (true) {
+      long current = fullAt.get();
+      long next = Math.max(current, now) + intervalNanos;
+      long excess = next - now - capacityNanos;
+      if (excess > 0) {
+        return excess;
+      }
+      if (fullAt.compareAndSet(current, next)) {
+        return 0;
+      }
+    }
+  }
+
+  /**
+   * @param now Current instant, as given by {@link System#nanoTime()}
+   * @return true if the bucket has all of its tokens, meaning it holds no state worth keeping
+   */
+  boolean isFull(long now) {
+    return fullAt.get() - now <= 0;
+  }
+
+}
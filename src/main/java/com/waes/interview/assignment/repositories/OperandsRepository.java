@@ -1,17 +1,21 @@
 package com.waes.interview.assignment.repositories;
 
 import com.waes.interview.assignment.models.DifferenceOperand;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Interface to interact against SQL database (in-memory H2 in this case) via Spring JPA.
  * <p>
  * Allows CRUD operations on {@link DifferenceOperand DifferenceOperand} instances and defines two more methods
- * for further filtering.
+ * for further filtering, plus a bulk update for marking operands as processed.
  *
  * @author Juan Krzemien
  */
@@ -38,4 +42,15 @@ public interface OperandsRepository extends CrudRepository<DifferenceOperand, Lo
    */
   List<DifferenceOperand> findByOperationIdAndProcessed(@Param("operationId") Long operationId, @Param("processed") boolean processed);
 
+  /**
+   * Marks operands as processed with a single bulk update, without loading nor rewriting them (nor their data).
+   *
+   * @param ids The IDs of the operands to mark as processed
+   * @return Amount of operands updated
+   */
+  @Modifying
+  @Transactional
+  @Query("update DifferenceOperand operand set operand.processed = true where operand.id in :ids")
+  int markProcessed(@Param("ids") Collection<Long> ids);
+
 }
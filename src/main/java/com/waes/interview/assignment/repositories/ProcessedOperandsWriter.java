@@ -0,0 +1,121 @@
+package com.waes.interview.assignment.repositories;
+
+import com.waes.interview.assignment.models.DifferenceOperand;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Writer of the processed mark of operands, through bulk updates ({@link OperandsRepository#markProcessed markProcessed}).
+ * <p>
+ * Synchronous by default: operands are marked before returning. Given a write-behind delay, operands are queued
+ * instead, and a background thread marks whatever is queued every delay, in batches of bounded size. Diff requests
+ * then do not wait for the database at all, at the cost of operations looking pending for up to the delay after being
+ * diff-ed (repeating the diff or uploading operands for the same ID is answered as if they were still pending).
+ * <p>
+ * Batches failing to be written are logged and stay queued, to be retried on the next round. Queued marks are written
+ * on close.
+ *
+ * @author Juan Krzemien
+ */
+public class ProcessedOperandsWriter implements AutoCloseable {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ProcessedOperandsWriter.class);
+
+  /**
+   * Class members
+   */
+  private final OperandsRepository repository;
+  private final int maxBatchSize;
+  private final LinkedBlockingQueue<Long> pending = new LinkedBlockingQueue<>();
+  private final ScheduledExecutorService executor;
+
+  /**
+   * Constructor
+   *
+   * @param repository   Repository to write marks into
+   * @param delayMillis  Write-behind delay, in milliseconds. Zero (or less) to write marks synchronously.
+   * @param maxBatchSize Maximum amount of operands marked by a single update
+   */
+  public ProcessedOperandsWriter(OperandsRepository repository, long delayMillis, int maxBatchSize) {
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be at least 1");
+    }
+    this.repository = repository;
+    this.maxBatchSize = maxBatchSize;
+    if (delayMillis > 0) {
+      this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "processed-operands-writer");
+        thread.setDaemon(true);
+        return thread;
+      });
+      executor.scheduleWithFixedDelay(this::flush, delayMillis, delayMillis, TimeUnit.MILLISECONDS);
+    } else {
+      this.executor = null;
+    }
+  }
+
+  /**
+   * Marks provided operands as processed, right away or write-behind depending on configuration
+   *
+   * @param operands Operands to mark as processed
+   */
+  public void markProcessed(List<DifferenceOperand> operands) {
+    List<Long> ids = operands.stream().map(DifferenceOperand::getId).collect(toList());
+    if (executor == null) {
+      repository.markProcessed(ids);
+    } else {
+      pending.addAll(ids);
+    }
+  }
+
+  /**
+   * Writes queued marks, in batches. Stops at the first failing batch, leaving it queued.
+   */
+  public void flush() {
+    List<Long> batch = new ArrayList<>(maxBatchSize);
+    while (pending.drainTo(batch, maxBatchSize) > 0) {
+      try {
+        repository.markProcessed(batch);
+      } catch (RuntimeException e) {
+        pending.addAll(batch);
+        LOGGER.warn("Could not mark {} operands as processed, {} marks queued for retry", batch.size(), pending.size(), e);
+        return;
+      }
+      batch = new ArrayList<>(maxBatchSize);
+    }
+  }
+
+  /**
+   * @return Amount of operands queued to be marked as processed
+   */
+  public int getPendingCount() {
+    return pending.size();
+  }
+
+  /**
+   * Stops the background thread, if any, writing queued marks. Marks are written even if interrupted while waiting for
+   * the background thread, and the interrupt status is restored.
+   */
+  @Override
+  public void close() {
+    if (executor != null) {
+      executor.shutdown();
+      try {
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      flush();
+    }
+  }
+
+}
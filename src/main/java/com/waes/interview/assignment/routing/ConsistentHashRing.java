@@ -0,0 +1,87 @@
+package com.waes.interview.assignment.routing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * Consistent hash ring assigning operation IDs to peers.
+ * <p>
+ * Every peer is placed on the ring at several points (virtual nodes), so IDs spread evenly and adding or removing a
+ * peer only moves the IDs of its neighbouring ranges. Every instance building the ring from the same peer list agrees
+ * on owners, regardless of peer order.
+ * <p>
+ * Immutable, so thread safe.
+ *
+ * @author Juan Krzemien
+ */
+public final class ConsistentHashRing {
+
+  private final TreeMap<Long, String> ring = new TreeMap<>();
+  private final List<String> peers;
+
+  /**
+   * Constructor
+   *
+   * @param peers        Peers sharing operation IDs, identified by their base URL
+   * @param virtualNodes Points per peer on the ring
+   */
+  public ConsistentHashRing(List<String> peers, int virtualNodes) {
+    if (peers.isEmpty() || virtualNodes <= 0) {
+      throw new IllegalArgumentException("At least one peer and virtual node are required");
+    }
+    this.peers = unmodifiableList(new ArrayList<>(peers));
+    for (String peer : peers) {
+      for (int i = 0; i < virtualNodes; i++) {
+        ring.put(mix(fnv(peer + '#' + i)), peer);
+      }
+    }
+  }
+
+  /**
+   * Finds the peer owning an operation ID
+   *
+   * @param id Operation ID
+   * @return Base URL of the peer owning given ID
+   */
+  public String owner(long id) {
+    Map.Entry<Long, String> entry = ring.ceilingEntry(mix(id));
+    return entry != null ? entry.getValue() : ring.firstEntry().getValue();
+  }
+
+  /**
+   * @return Peers on the ring
+   */
+  public List<String> getPeers() {
+    return peers;
+  }
+
+  /**
+   * FNV-1a hash of a String
+   */
+  private static long fnv(String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : value.getBytes(UTF_8)) {
+      hash ^= b & 0xFF;
+      hash *= 0x100000001b3L;
+    }
+    return hash;
+  }
+
+  /**
+   * MurmurHash3 finalizer, spreading sequential IDs all over the ring
+   */
+  private static long mix(long value) {
+    value ^= value >>> 33;
+    value *= 0xff51afd7ed558ccdL;
+    value ^= value >>> 33;
+    value *= 0xc4ceb9fe1a85ec53L;
+    value ^= value >>> 33;
+    return value;
+  }
+
+}
@@ -0,0 +1,223 @@
+package com.waes.interview.assignment.routing;
+
+import com.waes.interview.assignment.differentiator.Cancellation;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.springframework.http.HttpHeaders.*;
+import static org.springframework.http.MediaType.APPLICATION_JSON_VALUE;
+import static org.springframework.http.MediaType.TEXT_EVENT_STREAM_VALUE;
+
+/**
+ * Servlet filter forwarding /v1/diff requests to the instance owning their operation ID, as told by a
+ * {@link ConsistentHashRing ConsistentHashRing} over the configured peers.
+ * <p>
+ * Every step of an operation (/left, /right and the diff itself) ends up in the same instance, so operands never leave
+ * the memory of their owner, whichever instance the load balancer picks. Requests owned by this instance, or already
+ * forwarded by a peer (flagged by the <code>X-Waes-Forwarded</code> header, so peers with inconsistent configuration
+ * cannot loop), are served locally.
+ * <p>
+ * Bodies are streamed as received (still gzip compressed, if so) and responses are relayed as they are, status and
+ * headers included, event streams as their events arrive. The client identity used for rate limiting travels along,
+ * as the owner would otherwise see the forwarding instance as client. Unreachable owners are answered with 502 (Bad
+ * Gateway). Diff operations (GET) may legitimately take as long as their deadline, so owners are given that long on top
+ * of the timeout before being deemed unreachable. Forwarded requests are counted as <code>waes.routing.forwarded</code> (tag <code>outcome</code>: success or
+ * failure).
+ *
+ * @author Juan Krzemien
+ */
+public class PeerForwardingFilter extends OncePerRequestFilter {
+
+  /**
+   * Header flagging forwarded requests
+   */
+  public static final String FORWARDED = "X-Waes-Forwarded";
+
+  private static final Pattern OPERATION = Pattern.compile("^/v1/diff/(-?\\d+)(?:/left|/right|/stream)?$");
+  private static final List<String> REQUEST_HEADERS = Arrays.asList(CONTENT_TYPE, CONTENT_ENCODING, ACCEPT, ACCEPT_ENCODING);
+  private static final List<String> RESPONSE_HEADERS = Arrays.asList(CONTENT_TYPE, CONTENT_ENCODING, RETRY_AFTER, VARY);
+  private static final String UNAVAILABLE = "{\"message\":\"Instance owning the operation is unavailable. Please, retry later.\"}";
+  private static final int BUFFER_SIZE = 8 * 1024;
+  private static final String TIMEOUT_PARAMETER = "timeoutMs";
+
+  /**
+   * Class members
+   */
+  private final ConsistentHashRing ring;
+  private final String self;
+  private final String clientHeader;
+  private final int timeoutMillis;
+  private final long diffTimeoutMillis;
+  private final Counter forwarded;
+  private final Counter failed;
+
+  /**
+   * Constructor
+   *
+   * @param ring              Ring of peers, this instance included
+   * @param self              Base URL of this instance, as listed in the ring
+   * @param clientHeader      Header identifying clients, set to the remote address of forwarded requests lacking it
+   * @param timeoutMillis     Timeout for connecting to and reading from owners, in milliseconds
+   * @param diffTimeoutMillis Deadline of diff operations, in milliseconds (0 for no deadline), added to the read
+   *                          timeout of diff operations
+   * @param registry          Registry to publish forwarding counters into
+   */
+  public PeerForwardingFilter(ConsistentHashRing ring, String self, String clientHeader, int timeoutMillis,
+                              long diffTimeoutMillis, MeterRegistry registry) {
+    if (!ring.getPeers().contains(self)) {
+      throw new IllegalArgumentException("This instance (" + self + ") is not one of the peers: " + ring.getPeers());
+    }
+    this.ring = ring;
+    this.self = self;
+    this.clientHeader = clientHeader;
+    this.timeoutMillis = timeoutMillis;
+    this.diffTimeoutMillis = diffTimeoutMillis;
+    this.forwarded = counter(registry, "success");
+    this.failed = counter(registry, "failure");
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws ServletException, IOException {
+    String owner = request.getHeader(FORWARDED) == null ? owner(request.getRequestURI()) : null;
+    if (owner == null || owner.equals(self)) {
+      chain.doFilter(request, response);
+      return;
+    }
+
+    try {
+      forward(request, response, owner);
+      forwarded.increment();
+    } catch (IOException e) {
+      failed.increment();
+      if (!response.isCommitted()) {
+        response.reset();
+        response.setStatus(HttpServletResponse.SC_BAD_GATEWAY);
+        response.setContentType(APPLICATION_JSON_VALUE);
+        response.getWriter().write(UNAVAILABLE);
+      }
+    }
+  }
+
+  /**
+   * Owner of the operation requested
+   *
+   * @return Base URL of the owner, or null if the request does not target an operation
+   */
+  private String owner(String uri) {
+    Matcher matcher = OPERATION.matcher(uri);
+    if (!matcher.matches()) {
+      return null;
+    }
+    try {
+      return ring.owner(Long.parseLong(matcher.group(1)));
+    } catch (NumberFormatException e) {
+      // Out of range IDs are rejected locally, as any other invalid ID
+      return null;
+    }
+  }
+
+  private void forward(HttpServletRequest request, HttpServletResponse response, String owner) throws IOException {
+    String query = request.getQueryString();
+    URL url = new URL(owner + request.getRequestURI() + (query != null ? "?" + query : ""));
+    // Connections are not disconnected, so the JDK keeps them alive for following requests to the same owner
+    HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+    connection.setRequestMethod(request.getMethod());
+    connection.setConnectTimeout(timeoutMillis);
+    connection.setReadTimeout(readTimeout(request));
+    connection.setInstanceFollowRedirects(false);
+    for (String header : REQUEST_HEADERS) {
+      String value = request.getHeader(header);
+      if (value != null) {
+        connection.setRequestProperty(header, value);
+      }
+    }
+    String client = request.getHeader(clientHeader);
+    connection.setRequestProperty(clientHeader, client != null && !client.isEmpty() ? client : request.getRemoteAddr());
+    connection.setRequestProperty(FORWARDED, self);
+
+    if ("POST".equalsIgnoreCase(request.getMethod())) {
+      connection.setDoOutput(true);
+      long length = request.getContentLengthLong();
+      if (length >= 0) {
+        connection.setFixedLengthStreamingMode(length);
+      } else {
+        connection.setChunkedStreamingMode(BUFFER_SIZE);
+      }
+      try (OutputStream body = connection.getOutputStream()) {
+        copy(request.getInputStream(), body, false);
+      }
+    }
+
+    int status = connection.getResponseCode();
+    response.setStatus(status);
+    for (String header : RESPONSE_HEADERS) {
+      String value = connection.getHeaderField(header);
+      if (value != null) {
+        response.setHeader(header, value);
+      }
+    }
+    InputStream body = status >= HttpURLConnection.HTTP_BAD_REQUEST ? connection.getErrorStream() : connection.getInputStream();
+    if (body != null) {
+      String contentType = connection.getContentType();
+      boolean events = contentType != null && contentType.startsWith(TEXT_EVENT_STREAM_VALUE);
+      try (InputStream input = body) {
+        copy(input, response.getOutputStream(), events);
+      }
+    }
+  }
+
+  /**
+   * Timeout for reading from owners. Diff operations (and their streams) may take as long as their deadline: the one
+   * asked for by the client, within the configured one, as owners apply it.
+   *
+   * @return Timeout, in milliseconds (0 for none, when diff operations have no deadline)
+   */
+  int readTimeout(HttpServletRequest request) {
+    if (!"GET".equalsIgnoreCase(request.getMethod())) {
+      return timeoutMillis;
+    }
+    long requested;
+    try {
+      String parameter = request.getParameter(TIMEOUT_PARAMETER);
+      requested = parameter != null ? Long.parseLong(parameter) : 0;
+    } catch (NumberFormatException e) {
+      // Rejected by the owner right away
+      requested = 0;
+    }
+    long deadline = Cancellation.timeoutMillis(requested, diffTimeoutMillis);
+    return deadline > 0 ? (int) Math.min(Integer.MAX_VALUE, Math.min(deadline, Integer.MAX_VALUE) + timeoutMillis) : 0;
+  }
+
+  private static void copy(InputStream input, OutputStream output, boolean flushEachRead) throws IOException {
+    byte[] buffer = new byte[BUFFER_SIZE];
+    for (int read; (read = input.read(buffer)) != -1; ) {
+      output.write(buffer, 0, read);
+      if (flushEachRead) {
+        output.flush();
+      }
+    }
+  }
+
+  private static Counter counter(MeterRegistry registry, String outcome) {
+    return Counter.builder("waes.routing.forwarded")
+        .description("Requests forwarded to the instance owning their operation")
+        .tag("outcome", outcome)
+        .register(registry);
+  }
+
+}
@@ -0,0 +1,39 @@
+package com.waes.interview.assignment.startup;
+
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+
+/**
+ * Marks application bean definitions as lazy, so beans are created once first needed instead of on startup.
+ * <p>
+ * Startup only creates what serving requests requires up front (the embedded server and its filters), leaving the
+ * rest (controller, repository, JPA) to the first request using them. Infrastructure beans, and beans reacting to the
+ * end of singletons initialization ({@link SmartInitializingSingleton SmartInitializingSingleton}), are left eager,
+ * as they would never get their callback otherwise.
+ * <p>
+ * Bean types are told from definitions only, since asking the bean factory could create factory beans ahead of time.
+ *
+ * @author Juan Krzemien
+ */
+public class LazyInitBeanFactoryPostProcessor implements BeanFactoryPostProcessor {
+
+  @Override
+  public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+    for (String name : beanFactory.getBeanDefinitionNames()) {
+      BeanDefinition definition = beanFactory.getBeanDefinition(name);
+      if (definition.getRole() != BeanDefinition.ROLE_INFRASTRUCTURE && !isSmartInitializingSingleton(definition)) {
+        definition.setLazyInit(true);
+      }
+    }
+  }
+
+  private static boolean isSmartInitializingSingleton(BeanDefinition definition) {
+    return definition instanceof AbstractBeanDefinition
+        && ((AbstractBeanDefinition) definition).hasBeanClass()
+        && SmartInitializingSingleton.class.isAssignableFrom(((AbstractBeanDefinition) definition).getBeanClass());
+  }
+
+}
@@ -0,0 +1,98 @@
+package com.waes.interview.assignment.streaming;
+
+import com.waes.interview.assignment.differentiator.Cancellation;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runner of streamed diff operations, emitting their events through {@link SseEmitter SseEmitter}s.
+ * <p>
+ * Streams run on a bounded pool of threads of their own, with a bounded queue, so request threads are released as
+ * soon as a stream starts, and slow clients cannot hold more than the pool. Streams not fitting in the queue are not
+ * started at all. Emitters time out after a fixed time, however far their stream got.
+ * <p>
+ * Emitters are tied to the {@link Cancellation Cancellation} of their stream: once the request ends before the stream
+ * does (the client went away, the emitter timed out or failed), the stream is cancelled, so it stops comparing (or does
+ * not even start, if still queued) instead of running to completion for nobody.
+ *
+ * @author Juan Krzemien
+ */
+public class DiffStreams implements AutoCloseable {
+
+  /**
+   * Class members
+   */
+  private final long timeoutMillis;
+  private final ThreadPoolExecutor executor;
+
+  /**
+   * Constructor
+   *
+   * @param threads       Threads running streams
+   * @param queueSize     Maximum amount of streams waiting for a thread
+   * @param timeoutMillis Time, in milliseconds, after which emitters time out (0 for no timeout)
+   */
+  public DiffStreams(int threads, int queueSize, long timeoutMillis) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("Streams require at least 1 thread");
+    }
+    this.timeoutMillis = timeoutMillis;
+    AtomicInteger counter = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+        new LinkedBlockingQueue<>(Math.max(1, queueSize)), runnable -> {
+      Thread thread = new Thread(runnable, "diff-stream-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Creates an emitter, timing out as configured
+   *
+   * @param cancellation Token of the stream, cancelled once the request ends
+   * @return New emitter
+   */
+  public SseEmitter emitter(Cancellation cancellation) {
+    SseEmitter emitter = new SseEmitter(timeoutMillis);
+    emitter.onTimeout(cancellation::cancel);
+    emitter.onError(error -> cancellation.cancel());
+    emitter.onCompletion(cancellation::cancel);
+    return emitter;
+  }
+
+  /**
+   * Starts a stream in the background
+   *
+   * @param stream Stream to run, emitting its events
+   * @return true if started (or queued), false if there is no room for it
+   */
+  public boolean start(Runnable stream) {
+    try {
+      executor.execute(stream);
+      return true;
+    } catch (RejectedExecutionException e) {
+      return false;
+    }
+  }
+
+  /**
+   * @return Amount of streams running
+   */
+  public int getActiveCount() {
+    return executor.getActiveCount();
+  }
+
+  /**
+   * Stops running streams, dropping the ones not started yet
+   */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+}
@@ -0,0 +1,93 @@
+package com.waes.interview.assignment.admission;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+
+/**
+ * Unit test suite for {@link AdmissionControlFilter AdmissionControlFilter}.
+ *
+ * @author Juan Krzemien
+ */
+public class AdmissionControlFilterTest {
+
+  private static final long BUDGET = 1024 * 1024;
+
+  private MemoryBudget budget;
+  private AdmissionControlFilter filter;
+  private AtomicLong reservedWhileServing;
+  private MockFilterChain chain;
+
+  @Before
+  public void setUp() {
+    this.budget = new MemoryBudget(BUDGET, 0, 2);
+    this.filter = new AdmissionControlFilter(budget, BUDGET / 4);
+    this.reservedWhileServing = new AtomicLong(-1);
+    this.chain = new MockFilterChain(new HttpServlet() {
+      @Override
+      protected void service(HttpServletRequest request, HttpServletResponse response) {
+        reservedWhileServing.set(budget.getReservedBytes());
+      }
+    });
+  }
+
+  @Test
+  public void uploadIsChargedWhileServed() throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    filter.doFilter(upload(new byte[10 * 1024]), response, chain);
+
+    assertThat("Upload was served", response.getStatus(), is(200));
+    assertThat("Upload was charged while served", reservedWhileServing.get(), is(10L * 1024 * AdmissionControlFilter.UPLOAD_OVERHEAD));
+    assertThat("Memory was released", budget.getReservedBytes(), is(0L));
+  }
+
+  @Test
+  public void compressedUploadIsChargedMaximumSize() throws Exception {
+    MockHttpServletRequest request = upload(new byte[1024]);
+    request.addHeader("Content-Encoding", "gzip");
+
+    filter.doFilter(request, new MockHttpServletResponse(), chain);
+
+    assertThat("Upload was charged maximum size", reservedWhileServing.get(), is(BUDGET / 4 * AdmissionControlFilter.UPLOAD_OVERHEAD));
+  }
+
+  @Test
+  public void uploadOverBudgetIsRejected() throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    budget.reserve(BUDGET);
+
+    filter.doFilter(upload(new byte[1024]), response, chain);
+
+    assertThat("Upload was rejected", response.getStatus(), is(503));
+    assertThat("Clients are told when to retry", response.getHeader(RETRY_AFTER), is("2"));
+    assertThat("Upload was not served", reservedWhileServing.get(), is(-1L));
+  }
+
+  @Test
+  public void readsAreNotCharged() throws Exception {
+    budget.reserve(BUDGET);
+
+    filter.doFilter(new MockHttpServletRequest("GET", "/v1/diff/1"), new MockHttpServletResponse(), chain);
+
+    assertThat("Read was served", reservedWhileServing.get(), is(BUDGET));
+  }
+
+  private static MockHttpServletRequest upload(byte[] body) {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/diff/1/left");
+    request.setContent(body);
+    return request;
+  }
+
+}
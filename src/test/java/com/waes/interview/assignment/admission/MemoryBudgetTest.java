@@ -0,0 +1,101 @@
+package com.waes.interview.assignment.admission;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test suite for {@link MemoryBudget MemoryBudget}.
+ *
+ * @author Juan Krzemien
+ */
+public class MemoryBudgetTest {
+
+  private static final long BUDGET = 1024 * 1024;
+
+  @Test
+  public void reservationsWithinBudgetAreAdmitted() {
+    MemoryBudget budget = new MemoryBudget(BUDGET, 0, 1);
+
+    MemoryBudget.Reservation first = budget.reserve(BUDGET / 2);
+    MemoryBudget.Reservation second = budget.reserve(BUDGET / 2);
+
+    assertThat("First reservation is admitted", first, is(notNullValue()));
+    assertThat("Second reservation is admitted", second, is(notNullValue()));
+    assertThat("Whole budget is reserved", budget.getReservedBytes(), is(BUDGET));
+  }
+
+  @Test
+  public void reservationsOverBudgetAreRejected() {
+    MemoryBudget budget = new MemoryBudget(BUDGET, 10, 1);
+    budget.reserve(BUDGET / 2 + 1);
+
+    assertThat("Reservation over budget is rejected", budget.reserve(BUDGET / 2), is(nullValue()));
+  }
+
+  @Test
+  public void tryReserveDoesNotWait() {
+    MemoryBudget budget = new MemoryBudget(BUDGET, 60_000, 1);
+    budget.reserve(BUDGET / 2 + 1);
+
+    assertThat("Reservation within budget is admitted", budget.tryReserve(BUDGET / 4), is(notNullValue()));
+    assertThat("Reservation over budget is rejected right away", budget.tryReserve(BUDGET / 2), is(nullValue()));
+  }
+
+  @Test
+  public void releasedMemoryIsReusable() {
+    MemoryBudget budget = new MemoryBudget(BUDGET, 0, 1);
+    try (MemoryBudget.Reservation reservation = budget.reserve(BUDGET)) {
+      assertThat("Reservation is admitted", reservation, is(notNullValue()));
+    }
+
+    assertThat("Memory was released", budget.getReservedBytes(), is(0L));
+    assertThat("Reservation is admitted again", budget.reserve(BUDGET), is(notNullValue()));
+  }
+
+  @Test
+  public void releaseHappensOnce() {
+    MemoryBudget budget = new MemoryBudget(BUDGET, 0, 1);
+    MemoryBudget.Reservation reservation = budget.reserve(BUDGET / 2);
+
+    reservation.close();
+    reservation.close();
+
+    assertThat("Memory was released once", budget.getReservedBytes(), is(0L));
+    budget.reserve(BUDGET);
+    assertThat("Budget was not inflated by double release", budget.reserve(1), is(nullValue()));
+  }
+
+  @Test
+  public void reservationsLargerThanBudgetRunAlone() {
+    MemoryBudget budget = new MemoryBudget(BUDGET, 0, 1);
+
+    MemoryBudget.Reservation reservation = budget.reserve(BUDGET * 10);
+
+    assertThat("Oversized reservation is admitted when nothing else is in flight", reservation, is(notNullValue()));
+    assertThat("Nothing else is admitted meanwhile", budget.reserve(1), is(nullValue()));
+  }
+
+  @Test
+  public void waitingReservationsAreAdmittedOnRelease() throws Exception {
+    MemoryBudget budget = new MemoryBudget(BUDGET, 5000, 1);
+    MemoryBudget.Reservation reservation = budget.reserve(BUDGET);
+
+    Thread releaser = new Thread(() -> {
+      try {
+        Thread.sleep(50);
+      } catch (InterruptedException ignored) {
+        // Release anyway
+      }
+      reservation.close();
+    });
+    releaser.start();
+
+    assertThat("Waiting reservation is admitted once memory is released", budget.reserve(BUDGET), is(notNullValue()));
+    releaser.join();
+  }
+
+}
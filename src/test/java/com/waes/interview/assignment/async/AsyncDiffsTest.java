@@ -0,0 +1,161 @@
+package com.waes.interview.assignment.async;
+
+import com.waes.interview.assignment.differentiator.Cancellation;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test suite for {@link AsyncDiffs AsyncDiffs}.
+ *
+ * @author Juan Krzemien
+ */
+public class AsyncDiffsTest {
+
+  private static final long PROBE_INTERVAL_MS = 10;
+
+  private final AsyncDiffs diffs = new AsyncDiffs(1, 1, PROBE_INTERVAL_MS);
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    diffs.close();
+  }
+
+  @Test
+  public void diffsAreAnswered() throws Exception {
+    DeferredResult<String> result = diffs.submit(new MockHttpServletRequest(), Cancellation.withTimeout(0),
+        () -> "Done", () -> "Busy");
+
+    assertThat("Diff is answered", awaitResult(result), is("Done"));
+  }
+
+  @Test
+  public void diffsAreCancelledOnClientErrors() throws Exception {
+    Cancellation cancellation = Cancellation.withTimeout(0);
+    MockAsyncContext context = startAsync(diffs.submit(new MockHttpServletRequest(), cancellation, this::block,
+        () -> "Busy"));
+
+    // As the servlet container does upon failing to read from, or write to, the client
+    for (AsyncListener listener : context.getListeners()) {
+      listener.onError(new AsyncEvent(context, new IOException("Connection reset by peer")));
+    }
+
+    assertThat("Diff is cancelled", cancellation.isCancelled(), is(true));
+  }
+
+  @Test
+  public void diffsAreCancelledOnRequestTimeout() throws Exception {
+    Cancellation cancellation = Cancellation.withTimeout(0);
+    MockAsyncContext context = startAsync(diffs.submit(new MockHttpServletRequest(), cancellation, this::block,
+        () -> "Busy"));
+
+    for (AsyncListener listener : context.getListeners()) {
+      listener.onTimeout(new AsyncEvent(context));
+    }
+
+    assertThat("Diff is cancelled", cancellation.isCancelled(), is(true));
+  }
+
+  @Test
+  public void diffsAreCancelledOnceClientGoesAway() throws Exception {
+    AtomicBoolean closed = new AtomicBoolean();
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.setAttribute(ConnectionProbe.ATTRIBUTE, (ConnectionProbe) closed::get);
+    Cancellation cancellation = Cancellation.withTimeout(0);
+    diffs.submit(request, cancellation, this::block, () -> "Busy");
+
+    Thread.sleep(PROBE_INTERVAL_MS * 5);
+    assertThat("Diff is not cancelled while client waits", cancellation.isCancelled(), is(false));
+
+    closed.set(true);
+    for (int i = 0; i < 500 && !cancellation.isCancelled(); i++) {
+      Thread.sleep(PROBE_INTERVAL_MS);
+    }
+    assertThat("Diff is cancelled once client goes away", cancellation.isCancelled(), is(true));
+  }
+
+  @Test
+  public void answeredDiffsAreNoLongerProbed() throws Exception {
+    AtomicInteger probes = new AtomicInteger();
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.setAttribute(ConnectionProbe.ATTRIBUTE, (ConnectionProbe) () -> probes.incrementAndGet() < 0);
+    DeferredResult<String> result = diffs.submit(request, Cancellation.withTimeout(0), () -> "Done", () -> "Busy");
+    awaitResult(result);
+
+    Thread.sleep(PROBE_INTERVAL_MS * 5);
+    int answeredProbes = probes.get();
+    Thread.sleep(PROBE_INTERVAL_MS * 5);
+
+    assertThat("Connection is no longer probed", probes.get(), is(answeredProbes));
+  }
+
+  @Test
+  public void diffsOverQueueAreAnsweredAsBusy() throws Exception {
+    // Keep the only thread busy, and fill the queue
+    diffs.submit(new MockHttpServletRequest(), Cancellation.withTimeout(0), this::block, () -> "Busy");
+    diffs.submit(new MockHttpServletRequest(), Cancellation.withTimeout(0), this::block, () -> "Busy");
+
+    DeferredResult<String> result = diffs.submit(new MockHttpServletRequest(), Cancellation.withTimeout(0),
+        () -> "Done", () -> "Busy");
+
+    assertThat("Diff is not started", result.getResult(), is("Busy"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void diffsRequireThreads() {
+    new AsyncDiffs(0, 1, PROBE_INTERVAL_MS);
+  }
+
+  /**
+   * Starts asynchronous processing of a request with provided result, as Spring MVC does for returned deferred results
+   *
+   * @return Asynchronous context of the request
+   */
+  private static MockAsyncContext startAsync(DeferredResult<?> result) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest();
+    request.setAsyncSupported(true);
+    WebAsyncManager manager = WebAsyncUtils.getAsyncManager(request);
+    manager.setAsyncWebRequest(new StandardServletAsyncWebRequest(request, new MockHttpServletResponse()));
+    manager.startDeferredResultProcessing(result);
+    return (MockAsyncContext) request.getAsyncContext();
+  }
+
+  private static Object awaitResult(DeferredResult<?> result) throws InterruptedException {
+    for (int i = 0; i < 500 && !result.hasResult(); i++) {
+      Thread.sleep(PROBE_INTERVAL_MS);
+    }
+    return result.getResult();
+  }
+
+  /**
+   * Diff running until the test ends
+   */
+  private String block() {
+    try {
+      release.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return "Done";
+  }
+
+}
@@ -0,0 +1,87 @@
+package com.waes.interview.assignment.buffers;
+
+import org.junit.Test;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test suite for {@link BufferPool BufferPool}.
+ *
+ * @author Juan Krzemien
+ */
+public class BufferPoolTest {
+
+  private static final int MAX_SIZE = 1024 * 1024;
+
+  @Test
+  public void buffersAreRoundedToSizeClasses() {
+    BufferPool pool = new BufferPool(MAX_SIZE, 2);
+
+    assertThat("Small requests get the smallest class", pool.acquire(10).length, is(4096));
+    assertThat("Requests are rounded up to a power of 2", pool.acquire(5000).length, is(8192));
+    assertThat("Exact powers of 2 are not rounded", pool.acquire(65536).length, is(65536));
+  }
+
+  @Test
+  public void releasedBuffersAreReused() {
+    BufferPool pool = new BufferPool(MAX_SIZE, 2);
+    byte[] buffer = pool.acquire(100_000);
+
+    pool.release(buffer);
+
+    assertThat("Idle buffer is held", pool.getIdleBytes(), is((long) buffer.length));
+    assertThat("Released buffer is borrowed again", pool.acquire(70_000), is(sameInstance(buffer)));
+    assertThat("Nothing is held while borrowed", pool.getIdleBytes(), is(0L));
+  }
+
+  @Test
+  public void idleBuffersAreBoundedPerClass() {
+    BufferPool pool = new BufferPool(MAX_SIZE, 2);
+    byte[] first = pool.acquire(4096);
+    byte[] second = pool.acquire(4096);
+    byte[] third = pool.acquire(4096);
+
+    pool.release(first);
+    pool.release(second);
+    pool.release(third);
+
+    assertThat("Only two buffers are held", pool.getIdleBytes(), is(2L * 4096));
+  }
+
+  @Test
+  public void largeBuffersAreNotPooled() {
+    BufferPool pool = new BufferPool(MAX_SIZE, 2);
+    byte[] buffer = pool.acquire(MAX_SIZE + 1);
+
+    pool.release(buffer);
+
+    assertThat("Large buffers have the exact size requested", buffer.length, is(MAX_SIZE + 1));
+    assertThat("Large buffers are not held", pool.getIdleBytes(), is(0L));
+  }
+
+  @Test
+  public void foreignBuffersAreIgnored() {
+    BufferPool pool = new BufferPool(MAX_SIZE, 2);
+
+    pool.release(new byte[5000]);
+    pool.release(new byte[16]);
+    pool.release(null);
+
+    assertThat("Nothing is held", pool.getIdleBytes(), is(0L));
+  }
+
+  @Test
+  public void disabledPoolAllocates() {
+    BufferPool pool = new BufferPool(MAX_SIZE, 0);
+    byte[] buffer = pool.acquire(4096);
+
+    pool.release(buffer);
+
+    assertThat("Nothing is held", pool.getIdleBytes(), is(0L));
+    assertThat("New buffer is allocated", pool.acquire(4096), is(not(sameInstance(buffer))));
+  }
+
+}
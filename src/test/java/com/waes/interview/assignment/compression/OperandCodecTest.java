@@ -0,0 +1,103 @@
+package com.waes.interview.assignment.compression;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.util.Random;
+
+import static java.util.Arrays.copyOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeThat;
+
+/**
+ * Data driven JUnit 4 test suite for {@link OperandCodec OperandCodec} constants.
+ *
+ * @author Juan Krzemien
+ */
+@RunWith(Parameterized.class)
+public class OperandCodecTest {
+
+  /**
+   * Constant data requirements for the different cases
+   */
+  private static final byte[] EMPTY = new byte[0];
+  private static final byte[] PADDED = new byte[64 * 1024];
+  private static final byte[] RANDOM = new byte[64 * 1024];
+
+  static {
+    new Random().nextBytes(RANDOM);
+  }
+
+  /**
+   * Attributes to store constructor arguments
+   */
+  private final OperandCodec codec;
+  private final byte[] data;
+
+  /**
+   * Constructor for test suite. As this test suite is a parameterized data driven one, JUnit 4 runner requires
+   * parameters to be passed as constructor arguments.
+   *
+   * @param explanation Just a string explaining the case being executed.
+   *                    It is not stored anywhere as its purpose it to provide fancier test names.
+   * @param codec       Codec under test
+   * @param data        Data to encode and decode back
+   */
+  public OperandCodecTest(String explanation, OperandCodec codec, byte[] data) {
+    this.codec = codec;
+    this.data = data;
+  }
+
+  @Parameters(name = "{0}")
+  public static Object[][] data() {
+    return new Object[][]{
+        {"No compression of empty data", OperandCodec.NONE, EMPTY},
+        {"No compression of random data", OperandCodec.NONE, RANDOM},
+        {"Fast DEFLATE of empty data", OperandCodec.DEFLATE_FAST, EMPTY},
+        {"Fast DEFLATE of padded data", OperandCodec.DEFLATE_FAST, PADDED},
+        {"Fast DEFLATE of random data", OperandCodec.DEFLATE_FAST, RANDOM},
+        {"DEFLATE of empty data", OperandCodec.DEFLATE, EMPTY},
+        {"DEFLATE of padded data", OperandCodec.DEFLATE, PADDED},
+        {"DEFLATE of random data", OperandCodec.DEFLATE, RANDOM}
+    };
+  }
+
+  @Test
+  public void roundTrip() {
+    byte[] compressed = codec.compress(data);
+
+    assertThat("Decompressed data matches original data", codec.decompress(compressed, data.length), is(data));
+  }
+
+  @Test
+  public void roundTripIntoBuffer() {
+    byte[] compressed = codec.compress(data);
+    byte[] buffer = new byte[data.length + 16];
+
+    byte[] decompressed = codec.decompress(compressed, data.length, buffer);
+
+    assertThat("Buffer is only used when compressed", decompressed == buffer, is(codec.isCompressed()));
+    assertThat("Decompressed data matches original data", copyOf(decompressed, data.length), is(data));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void sizeMismatch() {
+    assumeThat("Data is only decoded when compressed", codec, is(not(OperandCodec.NONE)));
+
+    codec.decompress(codec.compress(data), data.length + 1);
+  }
+
+  @Test
+  public void paddedDataShrinks() {
+    assumeThat("Data is only shrunk when compressed", codec, is(not(OperandCodec.NONE)));
+    assumeThat("Only padded data is known to shrink", data, is(PADDED));
+
+    assertThat("Compressed data is smaller than original data", codec.compress(data).length, is(lessThan(data.length / 100)));
+  }
+
+}
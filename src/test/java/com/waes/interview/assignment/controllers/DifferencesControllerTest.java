@@ -1,11 +1,24 @@
 package com.waes.interview.assignment.controllers;
 
+import com.waes.interview.assignment.admission.MemoryBudget;
+import com.waes.interview.assignment.async.AsyncDiffs;
+import com.waes.interview.assignment.buffers.BufferPool;
+import com.waes.interview.assignment.compression.OperandCodec;
+import com.waes.interview.assignment.differentiator.ByteArrayDiffer;
+import com.waes.interview.assignment.differentiator.ByteArrayDifferentiable;
 import com.waes.interview.assignment.differentiator.Differentiable;
+import com.waes.interview.assignment.metrics.DiffMetrics;
+import com.waes.interview.assignment.metrics.SlowDiffRecorder;
 import com.waes.interview.assignment.models.Difference;
 import com.waes.interview.assignment.models.DifferenceOperand;
 import com.waes.interview.assignment.models.DifferencesRequest;
 import com.waes.interview.assignment.models.DifferencesResponse;
+import com.waes.interview.assignment.models.DifferencesSummary;
+import com.waes.interview.assignment.precompute.PrecomputedDiffs;
 import com.waes.interview.assignment.repositories.OperandsRepository;
+import com.waes.interview.assignment.repositories.ProcessedOperandsWriter;
+import com.waes.interview.assignment.streaming.DiffStreams;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -13,6 +26,9 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.Base64;
 import java.util.List;
@@ -26,8 +42,11 @@ import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 import static org.springframework.http.HttpStatus.OK;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 
 /**
  * Unit test suite for {@link DifferencesController DifferencesController} methods.
@@ -49,11 +68,16 @@ public class DifferencesControllerTest {
   @Mock
   private Differentiable<byte[]> differentiable;
 
+  @Mock
+  private ProcessedOperandsWriter processedWriter;
+
   /**
    * Class members
    */
   private Long id;
   private DifferencesRequest request;
+  private MemoryBudget budget;
+  private AsyncDiffs asyncDiffs;
 
   /**
    * Class under test
@@ -69,9 +93,13 @@ public class DifferencesControllerTest {
   @Before
   public void setUp() {
     // Reset mocks state
-    reset(repository, differentiable);
+    reset(repository, differentiable, processedWriter);
 
-    this.differencesController = new DifferencesController(repository, differentiable);
+    this.budget = new MemoryBudget(64 * 1024 * 1024, 0, 1);
+    this.asyncDiffs = new AsyncDiffs(1, 1, 1000);
+    this.differencesController = new DifferencesController(repository, differentiable, OperandCodec.NONE,
+        new DiffMetrics(new SimpleMeterRegistry(), new SlowDiffRecorder(0, 0)), budget, new BufferPool(1024 * 1024, 2), processedWriter,
+        new PrecomputedDiffs(budget, 0, 0, 0), new DiffStreams(1, 1, 0), asyncDiffs, 0);
     this.id = 1L;
     this.request = new DifferencesRequest(createBase64Data());
 
@@ -83,7 +111,8 @@ public class DifferencesControllerTest {
   @After
   public void tearDown() {
     // Verify that no other dependencies were called.
-    verifyNoMoreInteractions(repository, differentiable);
+    verifyNoMoreInteractions(repository, differentiable, processedWriter);
+    asyncDiffs.close();
   }
 
   @Test
@@ -325,11 +354,64 @@ public class DifferencesControllerTest {
 
     // Verify mocks invocations
     verify(repository, times(1)).findByOperationIdAndProcessed(eq(id), eq(false));
-    verify(repository, times(1)).saveAll(eq(operands));
+    verify(processedWriter, times(1)).markProcessed(eq(operands));
     verify(differentiable, times(1)).diff(any(byte[].class), any(byte[].class));
 
   }
 
+  @Test
+  public void diffRequestAnsweredOffRequestThread() throws InterruptedException {
+    DifferenceOperand leftOperand = DifferenceOperand.from(id, request.getPayload(), false);
+    DifferenceOperand rightOperand = DifferenceOperand.from(id, request.getPayload(), false);
+    List<DifferenceOperand> operands = asList(leftOperand, rightOperand);
+
+    // Set expectations
+    when(repository.findByOperationIdAndProcessed(id, false)).thenReturn(operands);
+
+    // Invoke method to test
+    DeferredResult<ResponseEntity<DifferencesResponse>> result = differencesController.diffRequest(id, false, false, 0,
+        new MockHttpServletRequest());
+    for (int i = 0; i < 500 && !result.hasResult(); i++) {
+      Thread.sleep(10);
+    }
+
+    assertThat("There is a result", result.hasResult(), is(true));
+    @SuppressWarnings("unchecked")
+    ResponseEntity<DifferencesResponse> response = (ResponseEntity<DifferencesResponse>) result.getResult();
+
+    assertThat("HTTP return code is OK (200)", response.getStatusCode(), is(OK));
+    assertThat("Message matches expected value", response.getBody().getMessage(), is("Byte arrays are equal!"));
+
+    // Verify mocks invocations
+    verify(repository, times(1)).findByOperationIdAndProcessed(eq(id), eq(false));
+    verify(processedWriter, times(1)).markProcessed(eq(operands));
+    verify(differentiable, times(1)).diff(any(byte[].class), any(byte[].class));
+
+  }
+
+  @Test
+  public void diffOperationSuccessfulEqualsCompressed() {
+    DifferenceOperand leftOperand = DifferenceOperand.from(id, request.getPayload(), false, OperandCodec.DEFLATE);
+    DifferenceOperand rightOperand = DifferenceOperand.from(id, request.getPayload(), false, OperandCodec.DEFLATE_FAST);
+    List<DifferenceOperand> operands = asList(leftOperand, rightOperand);
+    byte[] expected = Base64.getDecoder().decode(request.getPayload());
+
+    // Set expectations
+    when(repository.findByOperationIdAndProcessed(id, false)).thenReturn(operands);
+
+    // Invoke method to test
+    ResponseEntity<DifferencesResponse> response = differencesController.diffOperation(id);
+
+    assertThat("There is a result", response, is(notNullValue()));
+    assertThat("HTTP return code is OK (200)", response.getStatusCode(), is(OK));
+
+    // Verify mocks invocations
+    verify(repository, times(1)).findByOperationIdAndProcessed(eq(id), eq(false));
+    verify(processedWriter, times(1)).markProcessed(eq(operands));
+    verify(differentiable, times(1)).diff(eq(expected), eq(expected));
+
+  }
+
   @Test
   public void diffOperationSuccessfulNotEqualSize() {
     DifferenceOperand leftOperand = DifferenceOperand.from(id, request.getPayload(), false);
@@ -352,7 +434,41 @@ public class DifferencesControllerTest {
 
     // Verify mocks invocations
     verify(repository, times(1)).findByOperationIdAndProcessed(eq(id), eq(false));
-    verify(repository, times(1)).saveAll(eq(operands));
+    verify(processedWriter, times(1)).markProcessed(eq(operands));
+    verify(differentiable, times(1)).supportsDifferentLengths();
+
+  }
+
+  @Test
+  public void diffOperationSuccessfulNotEqualSizeSupported() {
+    DifferenceOperand leftOperand = DifferenceOperand.from(id, request.getPayload(), false);
+    DifferenceOperand rightOperand = DifferenceOperand.from(id, createBase64Data("SOMETHING".getBytes()), false);
+    List<DifferenceOperand> operands = asList(leftOperand, rightOperand);
+
+    Difference difference = new Difference(0, 1024, 0, 9);
+    List<Difference> differenceList = singletonList(difference);
+
+    // Set expectations
+    when(repository.findByOperationIdAndProcessed(id, false)).thenReturn(operands);
+    when(differentiable.supportsDifferentLengths()).thenReturn(true);
+    when(differentiable.diff(any(byte[].class), any(byte[].class))).thenReturn(differenceList);
+
+    // Invoke method to test
+    ResponseEntity<DifferencesResponse> response = differencesController.diffOperation(id);
+
+    assertThat("There is a result", response, is(notNullValue()));
+    assertThat("HTTP return code is OK (200)", response.getStatusCode(), is(OK));
+
+    DifferencesResponse differences = response.getBody();
+
+    assertThat("Message matches expected value", differences.getMessage(), is("Byte arrays are NOT equal!"));
+    assertThat("Differences match expected value", differences.getDifferences(), is(differenceList));
+
+    // Verify mocks invocations
+    verify(repository, times(1)).findByOperationIdAndProcessed(eq(id), eq(false));
+    verify(processedWriter, times(1)).markProcessed(eq(operands));
+    verify(differentiable, times(1)).supportsDifferentLengths();
+    verify(differentiable, times(1)).diff(any(byte[].class), any(byte[].class));
 
   }
 
@@ -382,11 +498,104 @@ public class DifferencesControllerTest {
 
     // Verify mocks invocations
     verify(repository, times(1)).findByOperationIdAndProcessed(eq(id), eq(false));
-    verify(repository, times(1)).saveAll(eq(operands));
+    verify(processedWriter, times(1)).markProcessed(eq(operands));
     verify(differentiable, times(1)).diff(any(byte[].class), any(byte[].class));
 
   }
 
+  @Test
+  public void diffOperationEqualsOnly() {
+    DifferenceOperand leftOperand = DifferenceOperand.from(id, request.getPayload(), false, OperandCodec.DEFLATE);
+    DifferenceOperand rightOperand = DifferenceOperand.from(id, request.getPayload(), false);
+    List<DifferenceOperand> operands = asList(leftOperand, rightOperand);
+
+    // Set expectations
+    when(repository.findByOperationIdAndProcessed(id, false)).thenReturn(operands);
+
+    // Invoke method to test
+    ResponseEntity<DifferencesResponse> response = differencesController.diffOperation(id, true, false);
+
+    assertThat("HTTP return code is OK (200)", response.getStatusCode(), is(OK));
+    assertThat("Message matches expected value", response.getBody().getMessage(), is("Byte arrays are equal!"));
+    assertThat("Memory was released", budget.getReservedBytes(), is(0L));
+
+    // Verify mocks invocations. Differentiable is not involved at all
+    verify(repository, times(1)).findByOperationIdAndProcessed(eq(id), eq(false));
+    verify(processedWriter, times(1)).markProcessed(eq(operands));
+
+  }
+
+  @Test
+  public void diffOperationEqualsOnlyNotEquals() {
+    byte[] data = Base64.getDecoder().decode(request.getPayload());
+    data[data.length - 1]++;
+    DifferenceOperand leftOperand = DifferenceOperand.from(id, request.getPayload(), false);
+    DifferenceOperand rightOperand = DifferenceOperand.from(id, Base64.getEncoder().encodeToString(data), false);
+    List<DifferenceOperand> operands = asList(leftOperand, rightOperand);
+
+    // Set expectations
+    when(repository.findByOperationIdAndProcessed(id, false)).thenReturn(operands);
+
+    // Invoke method to test
+    ResponseEntity<DifferencesResponse> response = differencesController.diffOperation(id, true, false);
+
+    assertThat("HTTP return code is OK (200)", response.getStatusCode(), is(OK));
+    assertThat("Message matches expected value", response.getBody().getMessage(), is("Byte arrays are NOT equal!"));
+    assertThat("There are no differences", response.getBody().getDifferences().isEmpty(), is(true));
+
+    // Verify mocks invocations. Differentiable is not involved at all
+    verify(repository, times(1)).findByOperationIdAndProcessed(eq(id), eq(false));
+    verify(processedWriter, times(1)).markProcessed(eq(operands));
+
+  }
+
+  @Test
+  public void diffOperationEqualsOnlyNotEqualSize() {
+    DifferenceOperand leftOperand = DifferenceOperand.from(id, request.getPayload(), false);
+    DifferenceOperand rightOperand = DifferenceOperand.from(id, createBase64Data("SOMETHING".getBytes()), false);
+    List<DifferenceOperand> operands = asList(leftOperand, rightOperand);
+
+    // Set expectations
+    when(repository.findByOperationIdAndProcessed(id, false)).thenReturn(operands);
+
+    // Invoke method to test
+    ResponseEntity<DifferencesResponse> response = differencesController.diffOperation(id, true, false);
+
+    assertThat("HTTP return code is OK (200)", response.getStatusCode(), is(OK));
+    assertThat("Message matches expected value", response.getBody().getMessage(), is("Byte arrays are NOT equal!"));
+
+    // Verify mocks invocations. Differentiable is not involved at all
+    verify(repository, times(1)).findByOperationIdAndProcessed(eq(id), eq(false));
+    verify(processedWriter, times(1)).markProcessed(eq(operands));
+
+  }
+
+  @Test
+  public void diffOperationSummary() {
+    DifferenceOperand leftOperand = DifferenceOperand.from(id, request.getPayload(), false);
+    DifferenceOperand rightOperand = DifferenceOperand.from(id, request.getPayload(), false);
+    List<DifferenceOperand> operands = asList(leftOperand, rightOperand);
+    byte[] expected = Base64.getDecoder().decode(request.getPayload());
+
+    DifferencesSummary summary = new DifferencesSummary(5, 2, 3, 1, 10);
+
+    // Set expectations
+    when(repository.findByOperationIdAndProcessed(id, false)).thenReturn(operands);
+    when(differentiable.summarize(any(byte[].class), any(byte[].class))).thenReturn(summary);
+
+    // Invoke method to test
+    ResponseEntity<DifferencesResponse> response = differencesController.diffOperation(id, false, true);
+
+    assertThat("HTTP return code is OK (200)", response.getStatusCode(), is(OK));
+    assertThat("Response holds the summary only", response.getBody(), is(new DifferencesResponse("Byte arrays are NOT equal!", summary)));
+
+    // Verify mocks invocations. Differences are never listed
+    verify(repository, times(1)).findByOperationIdAndProcessed(eq(id), eq(false));
+    verify(processedWriter, times(1)).markProcessed(eq(operands));
+    verify(differentiable, times(1)).summarize(eq(expected), eq(expected));
+
+  }
+
   @Test
   public void diffOperationWithoutOneOperand() {
 
@@ -451,6 +660,184 @@ public class DifferencesControllerTest {
 
   }
 
+  @Test
+  public void diffOperationRegionAwareWithPooledBuffers() {
+    BufferPool buffers = new BufferPool(1024 * 1024, 2);
+    DifferencesController controller = new DifferencesController(repository, new ByteArrayDiffer(), OperandCodec.NONE,
+        new DiffMetrics(new SimpleMeterRegistry(), new SlowDiffRecorder(0, 0)), budget, buffers, processedWriter,
+        new PrecomputedDiffs(budget, 0, 0, 0), new DiffStreams(1, 1, 0), asyncDiffs, 0);
+
+    byte[] data = new byte[1000];
+    byte[] modified = data.clone();
+    modified[10] = 1;
+    DifferenceOperand leftOperand = DifferenceOperand.from(id, Base64.getEncoder().encodeToString(data), false);
+    DifferenceOperand rightOperand = DifferenceOperand.from(id, Base64.getEncoder().encodeToString(modified), false);
+    List<DifferenceOperand> operands = asList(leftOperand, rightOperand);
+
+    // Set expectations
+    when(repository.findByOperationIdAndProcessed(id, false)).thenReturn(operands);
+
+    // Invoke method to test. Pooled buffers are larger than operands, so only their leading bytes must be diff-ed
+    ResponseEntity<DifferencesResponse> response = controller.diffOperation(id);
+
+    assertThat("HTTP return code is OK (200)", response.getStatusCode(), is(OK));
+    assertThat("Differences match expected value", response.getBody().getDifferences(), is(singletonList(new Difference(10, 1))));
+    assertThat("Buffers were given back to the pool", buffers.getIdleBytes(), is(2L * 4096));
+
+    // Verify mocks invocations
+    verify(repository, times(1)).findByOperationIdAndProcessed(eq(id), eq(false));
+    verify(processedWriter, times(1)).markProcessed(eq(operands));
+
+  }
+
+  @Test
+  public void diffOperationPastDeadline() {
+    // Comparison never done on its own, only stopped by its token
+    ByteArrayDifferentiable endless = (left, leftLength, right, rightLength, cancellation) -> {
+      while (true) {
+        cancellation.check();
+      }
+    };
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    DifferencesController controller = new DifferencesController(repository, endless, OperandCodec.NONE,
+        new DiffMetrics(registry, new SlowDiffRecorder(0, 0)), budget, new BufferPool(1024 * 1024, 2), processedWriter,
+        new PrecomputedDiffs(budget, 0, 0, 0), new DiffStreams(1, 1, 0), asyncDiffs, 0);
+
+    byte[] data = new byte[1000];
+    byte[] modified = data.clone();
+    modified[10] = 1;
+    DifferenceOperand leftOperand = DifferenceOperand.from(id, Base64.getEncoder().encodeToString(data), false);
+    DifferenceOperand rightOperand = DifferenceOperand.from(id, Base64.getEncoder().encodeToString(modified), false);
+
+    // Set expectations
+    when(repository.findByOperationIdAndProcessed(id, false)).thenReturn(asList(leftOperand, rightOperand));
+
+    // Invoke method to test. Deadline requested by the client, none configured
+    ResponseEntity<DifferencesResponse> response = controller.diffOperation(id, false, false, 50);
+
+    assertThat("HTTP return code is SERVICE UNAVAILABLE (503)", response.getStatusCode(), is(SERVICE_UNAVAILABLE));
+    assertThat("Retry-After header is set", response.getHeaders().getFirst(RETRY_AFTER), is(notNullValue()));
+    assertThat("Message matches expected value", response.getBody().getMessage(), is("Diff operation timed out. Please, retry later."));
+    assertThat("Time out was counted", registry.get("waes.diff.cancelled").tag("reason", "timeout").counter().count(), is(1.0));
+    assertThat("Memory was released", budget.getReservedBytes(), is(0L));
+
+    // Verify mocks invocations. Operands are left pending, for a later retry
+    verify(repository, times(1)).findByOperationIdAndProcessed(eq(id), eq(false));
+
+  }
+
+  @Test
+  public void diffOperationPrecomputedOnRightOperand() throws Exception {
+    try (PrecomputedDiffs precomputedDiffs = new PrecomputedDiffs(budget, 1, 1, 1)) {
+      DifferencesController controller = new DifferencesController(repository, differentiable, OperandCodec.NONE,
+          new DiffMetrics(new SimpleMeterRegistry(), new SlowDiffRecorder(0, 0)), budget, new BufferPool(1024 * 1024, 2),
+          processedWriter, precomputedDiffs, new DiffStreams(1, 1, 0), asyncDiffs, 0);
+
+      DifferenceOperand leftOperand = DifferenceOperand.from(id, request.getPayload(), false);
+      setField(leftOperand, "id", 1L);
+
+      // Set expectations. Saved operands get an ID, as they would from the database
+      when(repository.findByOperationIdAndProcessed(id, false)).thenReturn(singletonList(leftOperand));
+      when(repository.save(any(DifferenceOperand.class))).then(invocation -> {
+        DifferenceOperand saved = invocation.getArgument(0);
+        setField(saved, "id", 2L);
+        return saved;
+      });
+      when(differentiable.diff(any(byte[].class), any(byte[].class))).thenReturn(singletonList(new Difference(0, 1)));
+
+      // Invoke methods to test
+      assertThat("HTTP return code is OK (200)", controller.rightOperand(id, request).getStatusCode(), is(OK));
+
+      DifferenceOperand rightOperand = DifferenceOperand.from(id, request.getPayload(), false);
+      setField(rightOperand, "id", 2L);
+      List<DifferenceOperand> operands = asList(leftOperand, rightOperand);
+      when(repository.findByOperationIdAndProcessed(id, false)).thenReturn(operands);
+
+      ResponseEntity<DifferencesResponse> response = controller.diffOperation(id);
+
+      assertThat("HTTP return code is OK (200)", response.getStatusCode(), is(OK));
+      assertThat("Differences match expected value", response.getBody().getDifferences(), is(singletonList(new Difference(0, 1))));
+      assertThat("Precomputed result is taken", precomputedDiffs.size(), is(0));
+      assertThat("Memory was released", budget.getReservedBytes(), is(0L));
+
+      // Verify mocks invocations. Operands were diff-ed once, either ahead of time or when asked for
+      verify(repository, times(2)).findByOperationIdAndProcessed(eq(id), eq(false));
+      verify(repository, times(1)).save(any(DifferenceOperand.class));
+      verify(differentiable, times(1)).diff(any(byte[].class), any(byte[].class));
+      verify(processedWriter, times(1)).markProcessed(eq(operands));
+    }
+  }
+
+  @Test
+  public void diffOperationOverMemoryBudget() {
+    DifferenceOperand leftOperand = DifferenceOperand.from(id, request.getPayload(), false);
+    DifferenceOperand rightOperand = DifferenceOperand.from(id, request.getPayload(), false);
+    List<DifferenceOperand> operands = asList(leftOperand, rightOperand);
+
+    // Set expectations
+    when(repository.findByOperationIdAndProcessed(id, false)).thenReturn(operands);
+
+    // Take the whole budget, as concurrent operations would
+    MemoryBudget.Reservation reservation = budget.reserve(budget.getBudgetBytes());
+
+    ResponseEntity<DifferencesResponse> response = differencesController.diffOperation(id);
+    reservation.close();
+
+    assertThat("There is a result", response, is(notNullValue()));
+    assertThat("HTTP return code is SERVICE UNAVAILABLE (503)", response.getStatusCode(), is(SERVICE_UNAVAILABLE));
+    assertThat("Clients are told when to retry", response.getHeaders().getFirst(RETRY_AFTER), is("1"));
+    assertThat("Message matches expected value", response.getBody().getMessage(), is("Server is busy. Please, retry later."));
+    assertThat("Memory was released", budget.getReservedBytes(), is(0L));
+
+    // Verify mocks invocations. Operands are left pending, so clients can retry
+    verify(repository, times(1)).findByOperationIdAndProcessed(eq(id), eq(false));
+
+  }
+
+  @Test
+  public void streamOperationWithoutOneOperand() {
+    // Set expectations
+    when(repository.findByOperationIdAndProcessed(id, false)).thenReturn(emptyList());
+
+    // Invoke methods to test
+    ResponseEntity<SseEmitter> response = differencesController.streamOperation(id, 0);
+
+    // Verify results
+    assertThat("There is an emitter", response.getBody(), is(notNullValue()));
+    assertThat("HTTP return code is BAD REQUEST (400)", response.getStatusCode(), is(BAD_REQUEST));
+
+    // Verify mocks invocations. Nothing was diff-ed
+    verify(repository, times(1)).findByOperationIdAndProcessed(eq(id), eq(false));
+    verifyZeroInteractions(differentiable, processedWriter);
+
+  }
+
+  @Test
+  public void streamOperationOverMemoryBudget() {
+    DifferenceOperand leftOperand = DifferenceOperand.from(id, request.getPayload(), false);
+    DifferenceOperand rightOperand = DifferenceOperand.from(id, request.getPayload(), false);
+    List<DifferenceOperand> operands = asList(leftOperand, rightOperand);
+
+    // Set expectations
+    when(repository.findByOperationIdAndProcessed(id, false)).thenReturn(operands);
+
+    // Take the whole budget, as concurrent operations would
+    MemoryBudget.Reservation reservation = budget.reserve(budget.getBudgetBytes());
+
+    ResponseEntity<SseEmitter> response = differencesController.streamOperation(id, 0);
+    reservation.close();
+
+    assertThat("There is an emitter", response.getBody(), is(notNullValue()));
+    assertThat("HTTP return code is SERVICE UNAVAILABLE (503)", response.getStatusCode(), is(SERVICE_UNAVAILABLE));
+    assertThat("Clients are told when to retry", response.getHeaders().getFirst(RETRY_AFTER), is("1"));
+    assertThat("Memory was released", budget.getReservedBytes(), is(0L));
+
+    // Verify mocks invocations. Operands are left pending, so clients can retry
+    verify(repository, times(1)).findByOperationIdAndProcessed(eq(id), eq(false));
+    verifyZeroInteractions(differentiable, processedWriter);
+
+  }
+
   private String createBase64Data() {
     byte[] buffer = new byte[1024];
     return createBase64Data(buffer);
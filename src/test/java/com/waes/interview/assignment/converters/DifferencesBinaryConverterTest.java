@@ -0,0 +1,125 @@
+package com.waes.interview.assignment.converters;
+
+import com.waes.interview.assignment.models.Difference;
+import com.waes.interview.assignment.models.DifferencesResponse;
+import com.waes.interview.assignment.models.DifferencesSummary;
+import org.junit.Test;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.waes.interview.assignment.converters.DifferencesBinaryConverter.APPLICATION_DIFF;
+import static java.util.Arrays.asList;
+import static java.util.Arrays.copyOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test suite for {@link DifferencesBinaryConverter DifferencesBinaryConverter} class.
+ *
+ * @author Juan Krzemien
+ */
+public class DifferencesBinaryConverterTest {
+
+  /**
+   * Class under test
+   */
+  private final DifferencesBinaryConverter converter = new DifferencesBinaryConverter();
+
+  @Test
+  public void roundTripMessageOnly() throws IOException {
+    DifferencesResponse response = new DifferencesResponse("Byte arrays are equal!");
+
+    assertThat("Response survives round trip", roundTrip(response), is(response));
+  }
+
+  @Test
+  public void roundTripDifferences() throws IOException {
+    DifferencesResponse response = new DifferencesResponse("Byte arrays are NOT equal!", asList(
+        new Difference(0, 2),
+        new Difference(2328, 3),
+        new Difference(Integer.MAX_VALUE - 1, 1)
+    ));
+
+    assertThat("Response survives round trip", roundTrip(response), is(response));
+  }
+
+  @Test
+  public void roundTripSummary() throws IOException {
+    DifferencesResponse response = new DifferencesResponse("Byte arrays are NOT equal!",
+        new DifferencesSummary(3_000_000_000L, 2, 2_000_000, 0, Integer.MAX_VALUE - 1));
+
+    assertThat("Response survives round trip", roundTrip(response), is(response));
+  }
+
+  @Test
+  public void roundTripEmptySummary() throws IOException {
+    DifferencesResponse response = new DifferencesResponse("Byte arrays are equal!", new DifferencesSummary(0, 0, 0, null, null));
+
+    assertThat("Response survives round trip", roundTrip(response), is(response));
+  }
+
+  @Test
+  public void denseDifferencesAreCompact() throws IOException {
+    List<Difference> differences = new ArrayList<>();
+    for (int i = 0; i < 10_000; i++) {
+      differences.add(new Difference(i * 2, 1));
+    }
+    DifferencesResponse response = new DifferencesResponse("Byte arrays are NOT equal!", differences);
+
+    MockHttpOutputMessage output = new MockHttpOutputMessage();
+    converter.write(response, APPLICATION_DIFF, output);
+
+    assertThat("Every difference takes 2 bytes", output.getBodyAsBytes().length, is(lessThan(differences.size() * 2 + 64)));
+  }
+
+  @Test(expected = HttpMessageNotReadableException.class)
+  public void truncatedContent() throws IOException {
+    DifferencesResponse response = new DifferencesResponse("Byte arrays are NOT equal!", asList(new Difference(0, 2), new Difference(4, 3)));
+
+    MockHttpOutputMessage output = new MockHttpOutputMessage();
+    converter.write(response, APPLICATION_DIFF, output);
+    byte[] body = output.getBodyAsBytes();
+
+    converter.read(DifferencesResponse.class, new MockHttpInputMessage(copyOf(body, body.length - 1)));
+  }
+
+  @Test(expected = HttpMessageNotReadableException.class)
+  public void negativeMessageLength() throws IOException {
+    // Varint of -1 (ten bytes, all bits set)
+    byte[] body = {-1, -1, -1, -1, -1, -1, -1, -1, -1, 1};
+
+    converter.read(DifferencesResponse.class, new MockHttpInputMessage(body));
+  }
+
+  @Test(expected = HttpMessageNotReadableException.class)
+  public void oversizedMessageLength() throws IOException {
+    // Varint of 2^31 - 1, followed by nothing
+    byte[] body = {-1, -1, -1, -1, 7};
+
+    converter.read(DifferencesResponse.class, new MockHttpInputMessage(body));
+  }
+
+  @Test(expected = HttpMessageNotReadableException.class)
+  public void negativeDifferencesCount() throws IOException {
+    // Empty message, then a count of -1 as a 32 bit integer
+    byte[] body = {0, -1, -1, -1, -1, 15};
+
+    converter.read(DifferencesResponse.class, new MockHttpInputMessage(body));
+  }
+
+  private DifferencesResponse roundTrip(DifferencesResponse response) throws IOException {
+    MockHttpOutputMessage output = new MockHttpOutputMessage();
+    converter.write(response, APPLICATION_DIFF, output);
+
+    assertThat("Content type is set", output.getHeaders().getContentType(), is(APPLICATION_DIFF));
+
+    return converter.read(DifferencesResponse.class, new MockHttpInputMessage(output.getBodyAsBytes()));
+  }
+
+}
@@ -0,0 +1,120 @@
+package com.waes.interview.assignment.converters;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.waes.interview.assignment.models.DifferencesRequest;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Base64;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test suite for {@link DifferencesRequestDeserializer DifferencesRequestDeserializer} class.
+ *
+ * @author Juan Krzemien
+ */
+public class DifferencesRequestDeserializerTest {
+
+  /**
+   * Mapper under test, picking the deserializer from {@link DifferencesRequest DifferencesRequest} annotations
+   */
+  private final ObjectMapper mapper = new ObjectMapper();
+
+  @Test
+  public void roundTripPayload() throws IOException {
+    byte[] data = new byte[100_000];
+    new Random(0).nextBytes(data);
+    String payload = Base64.getEncoder().encodeToString(data);
+
+    DifferencesRequest request = read(mapper.writeValueAsString(new DifferencesRequest(payload)));
+
+    assertThat("Payload survives round trip", request.getPayload(), is(payload));
+    assertThat("Payload bytes are US-ASCII Base64", request.getBase64Bytes(), is(payload.getBytes(US_ASCII)));
+    assertThat("Payload length is reported in characters", request.getPayloadLength(), is(payload.length()));
+  }
+
+  @Test
+  public void paddedPayloads() throws IOException {
+    assertThat("One byte payload survives", read("{\"payload\":\"AQ==\"}").getPayload(), is("AQ=="));
+    assertThat("Two bytes payload survives", read("{\"payload\":\"AQI=\"}").getPayload(), is("AQI="));
+  }
+
+  @Test
+  public void unpaddedPayloadsArePadded() throws IOException {
+    assertThat("One byte payload is padded", read("{\"payload\":\"AQ\"}").getPayload(), is("AQ=="));
+    assertThat("Two bytes payload is padded", read("{\"payload\":\"AQI\"}").getPayload(), is("AQI="));
+  }
+
+  @Test
+  public void unusedBitsAreCleared() throws IOException {
+    assertThat("One byte payload is canonical", read("{\"payload\":\"AB==\"}").getPayload(), is("AA=="));
+    assertThat("Unpadded one byte payload is canonical", read("{\"payload\":\"AB\"}").getPayload(), is("AA=="));
+    assertThat("Two bytes payload is canonical", read("{\"payload\":\"AQJ=\"}").getPayload(), is("AQI="));
+    assertThat("Complete units are kept", read("{\"payload\":\"AQID\"}").getPayload(), is("AQID"));
+  }
+
+  @Test(expected = JsonMappingException.class)
+  public void paddingInTheMiddleIsRejected() throws IOException {
+    read("{\"payload\":\"AQ==AQ==\"}");
+  }
+
+  @Test
+  public void acceptedPayloadsMatchReferenceDecoder() throws IOException {
+    String[] payloads = {"", "AQID", "AQ", "AQI", "AQ==", "AQI=", "AQ=", "AQ=A", "A", "AQIDB", "A===", "====",
+        "AQID====", "AQ==AQID", "AQI=A", "AQ-_", "AQ ID", "AB", "AB==", "AQJ", "AQJ=", "AQIDAQ/", "//", "///"};
+    for (String payload : payloads) {
+      boolean expected;
+      try {
+        Base64.getDecoder().decode(payload);
+        expected = true;
+      } catch (IllegalArgumentException e) {
+        expected = false;
+      }
+      String stored;
+      try {
+        stored = read("{\"payload\":\"" + payload + "\"}").getPayload();
+      } catch (JsonMappingException e) {
+        stored = null;
+      }
+      assertThat("Payload acceptance matches reference decoder: " + payload, stored != null, is(expected));
+      if (stored != null) {
+        assertThat("Payload is stored canonical: " + payload, stored,
+            is(Base64.getEncoder().encodeToString(Base64.getDecoder().decode(payload))));
+      }
+    }
+  }
+
+  @Test
+  public void nullOrMissingPayload() throws IOException {
+    assertThat("Null payload is empty", read("{\"payload\":null}").getPayloadLength(), is(0));
+    assertThat("Missing payload is empty", read("{}").getPayloadLength(), is(0));
+    assertThat("Empty payload is empty", read("{\"payload\":\"\"}").getPayloadLength(), is(0));
+  }
+
+  @Test
+  public void unknownFieldsAreSkipped() throws IOException {
+    DifferencesRequest request = read("{\"before\":{\"a\":[1,2]},\"payload\":\"AQID\",\"after\":true}");
+
+    assertThat("Payload is read around unknown fields", request.getPayload(), is("AQID"));
+  }
+
+  @Test(expected = JsonMappingException.class)
+  public void invalidBase64IsRejected() throws IOException {
+    read("{\"payload\":\"AQ*D\"}");
+  }
+
+  @Test(expected = JsonMappingException.class)
+  public void nonStringPayloadIsRejected() throws IOException {
+    read("{\"payload\":123}");
+  }
+
+  private DifferencesRequest read(String json) throws IOException {
+    return mapper.readValue(json, DifferencesRequest.class);
+  }
+
+}
@@ -0,0 +1,159 @@
+package com.waes.interview.assignment.differentiator;
+
+import com.waes.interview.assignment.models.Difference;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.util.List;
+import java.util.Random;
+
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.copyOfRange;
+import static java.util.Arrays.fill;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeThat;
+
+/**
+ * Data driven JUnit 4 test suite for {@link ByteArrayChunkDiffer ByteArrayChunkDiffer} class.
+ * <p>
+ * Exact chunk boundaries depend on content, so cases state how many differences are expected and the maximum amount
+ * of bytes they may span, while every matched range is validated to be equal in both sides.
+ *
+ * @author Juan Krzemien
+ */
+@RunWith(Parameterized.class)
+public class ByteArrayChunkDifferTest {
+
+  private static final int CHUNK_SIZE = 1024;
+
+  /**
+   * Constant data requirements for the different cases
+   */
+  private static final byte[] BASE_BYTE_ARRAY = new byte[512 * 1024];
+  private static final byte[] CASE_1_INSERTION = new byte[BASE_BYTE_ARRAY.length + 10];
+  private static final byte[] CASE_2_DELETION = new byte[BASE_BYTE_ARRAY.length - 10];
+  private static final byte[] CASE_3_SPARSE_CHANGES = new byte[BASE_BYTE_ARRAY.length];
+  private static final byte[] CASE_4_UNRELATED = new byte[BASE_BYTE_ARRAY.length];
+  private static final byte[] CASE_5_PADDED = new byte[BASE_BYTE_ARRAY.length];
+  private static final byte[] CASE_6_PADDED_INSERTION = new byte[BASE_BYTE_ARRAY.length + 10];
+
+  static {
+    Random random = new Random(42);
+    random.nextBytes(BASE_BYTE_ARRAY);
+    random.nextBytes(CASE_4_UNRELATED);
+
+    System.arraycopy(BASE_BYTE_ARRAY, 0, CASE_1_INSERTION, 0, 200_000);
+    System.arraycopy(BASE_BYTE_ARRAY, 200_000, CASE_1_INSERTION, 200_010, BASE_BYTE_ARRAY.length - 200_000);
+
+    System.arraycopy(BASE_BYTE_ARRAY, 0, CASE_2_DELETION, 0, 200_000);
+    System.arraycopy(BASE_BYTE_ARRAY, 200_010, CASE_2_DELETION, 200_000, BASE_BYTE_ARRAY.length - 200_010);
+
+    System.arraycopy(BASE_BYTE_ARRAY, 0, CASE_3_SPARSE_CHANGES, 0, BASE_BYTE_ARRAY.length);
+    CASE_3_SPARSE_CHANGES[100_000] ^= 1;
+    CASE_3_SPARSE_CHANGES[300_000] ^= 1;
+    CASE_3_SPARSE_CHANGES[500_000] ^= 1;
+
+    System.arraycopy(BASE_BYTE_ARRAY, 0, CASE_5_PADDED, 0, 100_000);
+    System.arraycopy(CASE_5_PADDED, 0, CASE_6_PADDED_INSERTION, 0, 50_000);
+    System.arraycopy(CASE_5_PADDED, 50_000, CASE_6_PADDED_INSERTION, 50_010, CASE_5_PADDED.length - 50_000);
+  }
+
+  /**
+   * Attributes to store constructor arguments
+   */
+  private final byte[] left;
+  private final byte[] right;
+  private final int expectedDifferences;
+  private final int maxDifferentBytes;
+
+  /**
+   * Class under test
+   */
+  private final ByteArrayChunkDiffer differ = new ByteArrayChunkDiffer(CHUNK_SIZE);
+
+  /**
+   * Constructor for test suite. As this test suite is a parameterized data driven one, JUnit 4 runner requires
+   * parameters to be passed as constructor arguments.
+   *
+   * @param explanation         Just a string explaining the case being executed.
+   *                            It is not stored anywhere as its purpose it to provide fancier test names.
+   * @param left                Left side operand for {@link ByteArrayChunkDiffer ByteArrayChunkDiffer}'s diff() method
+   * @param right               Right side operand for {@link ByteArrayChunkDiffer ByteArrayChunkDiffer}'s diff() method
+   * @param expectedDifferences Expected amount of differences
+   * @param maxDifferentBytes   Maximum amount of bytes differences may span, in each side
+   */
+  public ByteArrayChunkDifferTest(String explanation, byte[] left, byte[] right, int expectedDifferences, int maxDifferentBytes) {
+    this.left = left;
+    this.right = right;
+    this.expectedDifferences = expectedDifferences;
+    this.maxDifferentBytes = maxDifferentBytes;
+  }
+
+  @Parameters(name = "{0}")
+  public static Object[][] data() {
+    return new Object[][]{
+        {"Both arguments are null", null, null, 0, 0},
+        {"No differences between operands", BASE_BYTE_ARRAY, BASE_BYTE_ARRAY.clone(), 0, 0},
+        {"Bytes inserted", BASE_BYTE_ARRAY, CASE_1_INSERTION, 1, 3 * 4 * CHUNK_SIZE},
+        {"Bytes deleted", BASE_BYTE_ARRAY, CASE_2_DELETION, 1, 3 * 4 * CHUNK_SIZE},
+        {"Sparse changes", BASE_BYTE_ARRAY, CASE_3_SPARSE_CHANGES, 3, 3 * 2 * 4 * CHUNK_SIZE},
+        {"Unrelated operands", BASE_BYTE_ARRAY, CASE_4_UNRELATED, 1, BASE_BYTE_ARRAY.length},
+        {"Bytes inserted in zero padding", CASE_5_PADDED, CASE_6_PADDED_INSERTION, 1, 3 * 4 * CHUNK_SIZE}
+    };
+  }
+
+  @Test
+  public void validateDifferentiable() {
+    List<Difference> differences = differ.diff(left, right);
+
+    assertThat("Amount of differences matches expectations", differences.size(), is(expectedDifferences));
+
+    int leftDifferent = 0;
+    int rightDifferent = 0;
+    int leftPosition = 0;
+    int rightPosition = 0;
+    for (Difference difference : differences) {
+      assertThat("Matched ranges are equal",
+          copyOfRange(left, leftPosition, difference.getPosition()),
+          is(copyOfRange(right, rightPosition, difference.getRightPosition())));
+      leftDifferent += difference.getOffset();
+      rightDifferent += difference.getRightOffset();
+      leftPosition = difference.getPosition() + difference.getOffset();
+      rightPosition = difference.getRightPosition() + difference.getRightOffset();
+    }
+
+    if (left != null) {
+      assertThat("Trailing matched ranges are equal",
+          copyOfRange(left, leftPosition, left.length),
+          is(copyOfRange(right, rightPosition, right.length)));
+    }
+    assertThat("Differences in left side are bounded", leftDifferent, is(lessThanOrEqualTo(maxDifferentBytes)));
+    assertThat("Differences in right side are bounded", rightDifferent, is(lessThanOrEqualTo(maxDifferentBytes)));
+  }
+
+  @Test
+  public void validateRegionDifferentiable() {
+    assumeThat("Operands are present", left != null && right != null, is(true));
+
+    // Trailing bytes past given lengths must be ignored
+    byte[] paddedLeft = copyOf(left, left.length + 16);
+    byte[] paddedRight = copyOf(right, right.length + 32);
+    fill(paddedLeft, left.length, paddedLeft.length, (byte) 1);
+    fill(paddedRight, right.length, paddedRight.length, (byte) 2);
+
+    List<Difference> differences = differ.diff(paddedLeft, left.length, paddedRight, right.length);
+
+    assertThat("Differences match whole array differences", differences, is(differ.diff(left, right)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void validateAverageChunkSizeBound() {
+    // Maximum chunk size would overflow
+    new ByteArrayChunkDiffer(ByteArrayChunkDiffer.MAX_AVERAGE_CHUNK_SIZE * 2);
+  }
+
+}
@@ -0,0 +1,171 @@
+package com.waes.interview.assignment.differentiator;
+
+import com.waes.interview.assignment.models.Difference;
+import com.waes.interview.assignment.models.DifferencesSummary;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Data driven JUnit 4 test suite for gap tolerance and runs cap of {@link ByteArrayDiffer ByteArrayDiffer} class.
+ *
+ * @author Juan Krzemien
+ */
+@RunWith(Parameterized.class)
+public class ByteArrayDifferMergeTest {
+
+  /**
+   * Constant data requirements for the different cases
+   */
+  private static final byte[] BASE_BYTE_ARRAY = new byte[16];
+  private static final byte[] RUNS_APART_1_2_3 = new byte[]{1, 0, 1, 0, 0, 1, 0, 0, 0, 1, 0, 0, 0, 0, 0, 0};
+  private static final byte[] ALTERNATING = new byte[]{1, 0, 1, 0, 1, 0, 1, 0, 1, 0, 1, 0, 1, 0, 1, 0};
+
+  /**
+   * Attributes to store constructor arguments
+   */
+  private final ByteArrayDiffer byteArrayDiffer;
+  private final int maxRuns;
+  private final byte[] right;
+  private final List<Difference> expected;
+
+  /**
+   * Constructor for test suite. As this test suite is a parameterized data driven one, JUnit 4 runner requires
+   * parameters to be passed as constructor arguments.
+   *
+   * @param explanation Just a string explaining the case being executed.
+   *                    It is not stored anywhere as its purpose it to provide fancier test names.
+   * @param mergeGap    Gap tolerance of the class under test
+   * @param maxRuns     Runs cap of the class under test
+   * @param right       Right side operand, compared against {@link #BASE_BYTE_ARRAY BASE_BYTE_ARRAY}
+   * @param differences Expected difference responses to compare
+   */
+  public ByteArrayDifferMergeTest(String explanation, int mergeGap, int maxRuns, byte[] right, List<Difference> differences) {
+    this.byteArrayDiffer = new ByteArrayDiffer(mergeGap, maxRuns);
+    this.maxRuns = maxRuns;
+    this.right = right;
+    this.expected = differences;
+  }
+
+  @Parameters(name = "{0}")
+  public static Object[][] data() {
+    return new Object[][]{
+        {"No differences", 4, 1, BASE_BYTE_ARRAY, emptyList()},
+        {
+            "No merging",
+            0, 0, RUNS_APART_1_2_3,
+            asList(new Difference(0, 1), new Difference(2, 1), new Difference(5, 1), new Difference(9, 1))
+        },
+        {
+            "Gap of 1 merges nothing",
+            1, 0, RUNS_APART_1_2_3,
+            asList(new Difference(0, 1), new Difference(2, 1), new Difference(5, 1), new Difference(9, 1))
+        },
+        {
+            "Gap of 2 merges runs 1 byte apart",
+            2, 0, RUNS_APART_1_2_3,
+            asList(new Difference(0, 3), new Difference(5, 1), new Difference(9, 1))
+        },
+        {
+            "Gap of 4 merges runs up to 3 bytes apart",
+            4, 0, RUNS_APART_1_2_3,
+            singletonList(new Difference(0, 10))
+        },
+        {
+            "Alternating bytes merged",
+            2, 0, ALTERNATING,
+            singletonList(new Difference(0, 15))
+        },
+        {
+            "Cap coarsens alternating bytes",
+            0, 4, ALTERNATING,
+            singletonList(new Difference(0, 15))
+        },
+        {
+            "Cap coarsens closest runs first",
+            0, 3, RUNS_APART_1_2_3,
+            asList(new Difference(0, 3), new Difference(5, 1), new Difference(9, 1))
+        },
+        {
+            "Cap of 1 reports a single coarse region",
+            0, 1, RUNS_APART_1_2_3,
+            singletonList(new Difference(0, 10))
+        }
+    };
+  }
+
+  @Test
+  public void validateDifferentiable() {
+    List<Difference> differences = byteArrayDiffer.diff(BASE_BYTE_ARRAY, right);
+
+    assertThat("Differences match expectations", differences, is(expected));
+  }
+
+  @Test
+  public void validateRunsCap() {
+    if (maxRuns > 0) {
+      assertThat("Differences do not exceed the cap", byteArrayDiffer.diff(BASE_BYTE_ARRAY, right).size(), is(lessThanOrEqualTo(maxRuns)));
+    }
+  }
+
+  @Test
+  public void validateSummary() {
+    // Summaries are not capped, so they only match expectations when uncapped
+    if (maxRuns == 0) {
+      DifferencesSummary merged = DifferencesSummarizer.of(expected);
+      assertThat("Summary matches summarized differences, counting differing bytes only",
+          byteArrayDiffer.summarize(BASE_BYTE_ARRAY, right),
+          is(new DifferencesSummary(differingBytes(), merged.getRuns(), merged.getLargestRun(),
+              merged.getFirstPosition(), merged.getLastPosition())));
+    }
+  }
+
+  @Test
+  public void validateStream() {
+    List<Difference> differences = new ArrayList<>();
+    AtomicLong differing = new AtomicLong();
+    byteArrayDiffer.stream(BASE_BYTE_ARRAY, BASE_BYTE_ARRAY.length, right, right.length, new DifferencesListener() {
+      @Override
+      public void difference(Difference difference) {
+        difference(difference, difference.getOffset());
+      }
+
+      @Override
+      public void difference(Difference difference, int differingBytes) {
+        differences.add(difference);
+        differing.addAndGet(differingBytes);
+      }
+
+      @Override
+      public void progress(int scanned, int total) {
+      }
+    });
+
+    assertThat("Streamed differences match expectations", differences, is(expected));
+    assertThat("Streamed differences count differing bytes only", differing.get(), is(differingBytes()));
+  }
+
+  /**
+   * @return Amount of bytes actually differing from {@link #BASE_BYTE_ARRAY BASE_BYTE_ARRAY}
+   */
+  private long differingBytes() {
+    long count = 0;
+    for (int i = 0; i < right.length; i++) {
+      count += right[i] != BASE_BYTE_ARRAY[i] ? 1 : 0;
+    }
+    return count;
+  }
+
+}
@@ -0,0 +1,112 @@
+package com.waes.interview.assignment.differentiator;
+
+import com.waes.interview.assignment.models.Difference;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.waes.interview.assignment.differentiator.ByteArrayDiffer.PROGRESS_INTERVAL;
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test suite for streamed comparisons of {@link ByteArrayDiffer ByteArrayDiffer} class.
+ *
+ * @author Juan Krzemien
+ */
+public class ByteArrayDifferStreamTest {
+
+  private static final int SIZE = 2 * PROGRESS_INTERVAL + 10;
+
+  @Test
+  public void differencesAreStreamedAsFoundWithProgress() {
+    byte[] left = new byte[SIZE];
+    byte[] right = new byte[SIZE];
+    right[1] = 1;
+    // Run crossing the first progress report
+    right[PROGRESS_INTERVAL - 1] = 1;
+    right[PROGRESS_INTERVAL] = 1;
+    right[SIZE - 1] = 1;
+
+    Recorder recorder = new Recorder();
+    new ByteArrayDiffer().stream(left, SIZE, right, SIZE, recorder);
+
+    assertThat("Events are as expected", recorder.events, is(asList(
+        new Difference(1, 1),
+        PROGRESS_INTERVAL,
+        new Difference(PROGRESS_INTERVAL - 1, 2),
+        2 * PROGRESS_INTERVAL,
+        new Difference(SIZE - 1, 1),
+        SIZE
+    )));
+  }
+
+  @Test
+  public void equalArraysReportProgressOnly() {
+    Recorder recorder = new Recorder();
+    new ByteArrayDiffer().stream(new byte[SIZE], SIZE, new byte[SIZE], SIZE, recorder);
+
+    assertThat("Events are as expected", recorder.events, is(asList(PROGRESS_INTERVAL, 2 * PROGRESS_INTERVAL, SIZE)));
+  }
+
+  @Test
+  public void differentLengthsReportProgressOnly() {
+    Recorder recorder = new Recorder();
+    new ByteArrayDiffer().stream(new byte[SIZE], SIZE, new byte[SIZE], 10, recorder);
+
+    assertThat("Events are as expected", recorder.events, is(singletonList(SIZE)));
+  }
+
+  @Test
+  public void cappedDifferencesAreStreamedOnceDone() {
+    byte[] right = new byte[SIZE];
+    right[1] = 1;
+    right[SIZE - 1] = 1;
+
+    Recorder recorder = new Recorder();
+    new ByteArrayDiffer(0, 1).stream(new byte[SIZE], SIZE, right, SIZE, recorder);
+
+    assertThat("Events are as expected", recorder.events, is(asList(new Difference(1, SIZE - 1), SIZE)));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void listenersAbortComparisons() {
+    byte[] right = new byte[SIZE];
+    right[SIZE - 1] = 1;
+
+    new ByteArrayDiffer().stream(new byte[SIZE], SIZE, right, SIZE, new Recorder() {
+      @Override
+      public void progress(int scanned, int total) {
+        throw new IllegalStateException("Client went away");
+      }
+
+      @Override
+      public void difference(Difference difference) {
+        throw new AssertionError("Comparison was not aborted");
+      }
+    });
+  }
+
+  /**
+   * Records differences, and progress as scanned amounts, in order
+   */
+  private static class Recorder implements DifferencesListener {
+
+    final List<Object> events = new ArrayList<>();
+
+    @Override
+    public void difference(Difference difference) {
+      events.add(difference);
+    }
+
+    @Override
+    public void progress(int scanned, int total) {
+      assertThat("Total is the operands size", total, is(SIZE));
+      events.add(scanned);
+    }
+  }
+
+}
@@ -9,10 +9,13 @@ import org.junit.runners.Parameterized.Parameters;
 import java.util.List;
 
 import static java.util.Arrays.asList;
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.fill;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
 import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeThat;
 
 /**
  * Data driven JUnit 4 test suite for {@link ByteArrayDiffer ByteArrayDiffer} class.
@@ -135,4 +138,26 @@ public class ByteArrayDifferTest {
     }
     */
   }
+
+  @Test
+  public void validateRegionDifferentiable() {
+    assumeThat("Operands are present", left != null && right != null, is(true));
+
+    // Trailing bytes past given lengths must be ignored
+    byte[] paddedLeft = copyOf(left, left.length + 16);
+    byte[] paddedRight = copyOf(right, right.length + 32);
+    fill(paddedLeft, left.length, paddedLeft.length, (byte) 1);
+    fill(paddedRight, right.length, paddedRight.length, (byte) 2);
+
+    List<Difference> differences = byteArrayDiffer.diff(paddedLeft, left.length, paddedRight, right.length);
+
+    assertThat("Differences match whole array differences", differences, is(expected));
+  }
+
+  @Test
+  public void validateSummary() {
+    assertThat("Summary matches summarized differences", byteArrayDiffer.summarize(left, right),
+        is(DifferencesSummarizer.of(expected)));
+  }
+
 }
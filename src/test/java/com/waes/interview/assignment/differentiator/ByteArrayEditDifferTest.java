@@ -0,0 +1,193 @@
+package com.waes.interview.assignment.differentiator;
+
+import com.waes.interview.assignment.models.Difference;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.util.List;
+import java.util.Random;
+
+import static java.util.Arrays.asList;
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.copyOfRange;
+import static java.util.Arrays.fill;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeThat;
+
+/**
+ * Data driven JUnit 4 test suite for {@link ByteArrayEditDiffer ByteArrayEditDiffer} class.
+ *
+ * @author Juan Krzemien
+ */
+@RunWith(Parameterized.class)
+public class ByteArrayEditDifferTest {
+
+  /**
+   * Constant data requirements for the different cases
+   */
+  private static final byte[] BASE_BYTE_ARRAY = "ABCDEFGHIJKLMNOPQRSTUVWXYZ".getBytes();
+  private static final byte[] CASE_1_INSERTION = "ABCDE_FGHIJKLMNOPQRSTUVWXYZ".getBytes();
+  private static final byte[] CASE_2_DELETION = "ABCDEFGHIJKLMNOPQRSTUVWXZ".getBytes();
+  private static final byte[] CASE_3_SUBSTITUTION = "ABCDZFGHIJKLMNOPQRSTUVWXYZ".getBytes();
+  private static final byte[] CASE_4_MIXED = "0ABCDFGHIJ1234KLMNOPQRSTUVWXY".getBytes();
+  private static final byte[] LARGE_BYTE_ARRAY = new byte[256 * 1024];
+  private static final byte[] CASE_5_LARGE_INSERTION = new byte[LARGE_BYTE_ARRAY.length + 3];
+
+  static {
+    new Random(42).nextBytes(LARGE_BYTE_ARRAY);
+    System.arraycopy(LARGE_BYTE_ARRAY, 0, CASE_5_LARGE_INSERTION, 0, 100_000);
+    CASE_5_LARGE_INSERTION[100_000] = 1;
+    CASE_5_LARGE_INSERTION[100_001] = 2;
+    CASE_5_LARGE_INSERTION[100_002] = 3;
+    System.arraycopy(LARGE_BYTE_ARRAY, 100_000, CASE_5_LARGE_INSERTION, 100_003, LARGE_BYTE_ARRAY.length - 100_000);
+  }
+
+  /**
+   * Constant expectations for some cases
+   */
+  private static final List<Difference> NO_DIFFERENCES = emptyList();
+
+  /**
+   * Attributes to store constructor arguments
+   */
+  private final byte[] left;
+  private final byte[] right;
+  private final List<Difference> expected;
+
+  /**
+   * Class under test
+   */
+  private final ByteArrayEditDiffer differ = new ByteArrayEditDiffer();
+
+  /**
+   * Constructor for test suite. As this test suite is a parameterized data driven one, JUnit 4 runner requires
+   * parameters to be passed as constructor arguments.
+   *
+   * @param explanation Just a string explaining the case being executed.
+   *                    It is not stored anywhere as its purpose it to provide fancier test names.
+   * @param left        Left side operand for {@link ByteArrayEditDiffer ByteArrayEditDiffer}'s diff() method
+   * @param right       Right side operand for {@link ByteArrayEditDiffer ByteArrayEditDiffer}'s diff() method
+   * @param differences Expected difference responses to compare
+   */
+  public ByteArrayEditDifferTest(String explanation, byte[] left, byte[] right, List<Difference> differences) {
+    this.left = left;
+    this.right = right;
+    this.expected = differences;
+  }
+
+  @Parameters(name = "{0}")
+  public static Object[][] data() {
+    return new Object[][]{
+        {"Both arguments are null", null, null, NO_DIFFERENCES},
+        {"Left argument is null", null, BASE_BYTE_ARRAY, NO_DIFFERENCES},
+        {"No differences between operands", BASE_BYTE_ARRAY, BASE_BYTE_ARRAY.clone(), NO_DIFFERENCES},
+        {"Left operand is empty", new byte[0], BASE_BYTE_ARRAY, singletonList(new Difference(0, 0, 0, 26))},
+        {"Single byte inserted", BASE_BYTE_ARRAY, CASE_1_INSERTION, singletonList(new Difference(5, 0, 5, 1))},
+        {"Single byte deleted", BASE_BYTE_ARRAY, CASE_2_DELETION, singletonList(new Difference(24, 1, 24, 0))},
+        {"Single byte replaced", BASE_BYTE_ARRAY, CASE_3_SUBSTITUTION, singletonList(new Difference(4, 1, 4, 1))},
+        {
+            "Insertions and deletions",
+            BASE_BYTE_ARRAY,
+            CASE_4_MIXED,
+            asList(
+                new Difference(0, 0, 0, 1),
+                new Difference(4, 1, 5, 0),
+                new Difference(10, 0, 10, 4),
+                new Difference(25, 1, 29, 0)
+            )
+        },
+        {
+            "Bytes inserted in large operands",
+            LARGE_BYTE_ARRAY,
+            CASE_5_LARGE_INSERTION,
+            singletonList(new Difference(100_000, 0, 100_000, 3))
+        }
+    };
+  }
+
+  @Test
+  public void validateDifferentiable() {
+    List<Difference> differences = differ.diff(left, right);
+
+    assertThat("Differences match expectations", differences, is(expected));
+  }
+
+  @Test
+  public void validateRegionDifferentiable() {
+    assumeThat("Operands are present", left != null && right != null, is(true));
+
+    // Trailing bytes past given lengths must be ignored
+    byte[] paddedLeft = copyOf(left, left.length + 16);
+    byte[] paddedRight = copyOf(right, right.length + 32);
+    fill(paddedLeft, left.length, paddedLeft.length, (byte) 1);
+    fill(paddedRight, right.length, paddedRight.length, (byte) 2);
+
+    List<Difference> differences = differ.diff(paddedLeft, left.length, paddedRight, right.length);
+
+    assertThat("Differences match whole array differences", differences, is(expected));
+  }
+
+  @Test
+  public void validateUnchangedRanges() {
+    assumeThat("Operands are present", left != null && right != null, is(true));
+
+    // Whatever falls between differences must be equal in both sides
+    int leftPosition = 0;
+    int rightPosition = 0;
+    for (Difference difference : differ.diff(left, right)) {
+      assertThat("Unchanged ranges have equal length", difference.getPosition() - leftPosition, is(difference.getRightPosition() - rightPosition));
+      assertThat("Unchanged ranges are equal",
+          copyOfRange(left, leftPosition, difference.getPosition()),
+          is(copyOfRange(right, rightPosition, difference.getRightPosition())));
+      leftPosition = difference.getPosition() + difference.getOffset();
+      rightPosition = difference.getRightPosition() + difference.getRightOffset();
+    }
+    assertThat("Trailing ranges are equal", copyOfRange(left, leftPosition, left.length), is(copyOfRange(right, rightPosition, right.length)));
+  }
+
+  @Test
+  public void validateRandomEdits() {
+    Random random = new Random(left == null ? 0 : left.length);
+    for (int round = 0; round < 20; round++) {
+      byte[] original = new byte[1 + random.nextInt(2048)];
+      random.nextBytes(original);
+      byte[] edited = edit(original, random);
+
+      int leftPosition = 0;
+      int rightPosition = 0;
+      for (Difference difference : differ.diff(original, edited)) {
+        assertThat("Unchanged ranges are equal",
+            copyOfRange(original, leftPosition, difference.getPosition()),
+            is(copyOfRange(edited, rightPosition, difference.getRightPosition())));
+        leftPosition = difference.getPosition() + difference.getOffset();
+        rightPosition = difference.getRightPosition() + difference.getRightOffset();
+      }
+      assertThat("Trailing ranges are equal",
+          copyOfRange(original, leftPosition, original.length),
+          is(copyOfRange(edited, rightPosition, edited.length)));
+    }
+  }
+
+  private static byte[] edit(byte[] data, Random random) {
+    byte[] result = data;
+    for (int edits = random.nextInt(8); edits >= 0; edits--) {
+      int position = random.nextInt(result.length + 1);
+      int length = random.nextInt(16);
+      byte[] chunk = new byte[length];
+      random.nextBytes(chunk);
+      int removed = random.nextBoolean() ? Math.min(random.nextInt(16), result.length - position) : 0;
+      byte[] next = new byte[result.length - removed + length];
+      System.arraycopy(result, 0, next, 0, position);
+      System.arraycopy(chunk, 0, next, position, length);
+      System.arraycopy(result, position + removed, next, position + length, result.length - position - removed);
+      result = next;
+    }
+    return result;
+  }
+
+}
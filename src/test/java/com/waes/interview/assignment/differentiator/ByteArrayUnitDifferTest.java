@@ -0,0 +1,172 @@
+package com.waes.interview.assignment.differentiator;
+
+import com.waes.interview.assignment.models.Difference;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.Arrays.asList;
+import static java.util.Arrays.copyOf;
+import static java.util.Arrays.fill;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assume.assumeThat;
+
+/**
+ * Data driven JUnit 4 test suite for {@link ByteArrayUnitDiffer ByteArrayUnitDiffer} class.
+ *
+ * @author Juan Krzemien
+ */
+@RunWith(Parameterized.class)
+public class ByteArrayUnitDifferTest {
+
+  /**
+   * Constant expectations for some cases
+   */
+  private static final List<Difference> NO_DIFFERENCES = emptyList();
+
+  /**
+   * Attributes to store constructor arguments
+   */
+  private final ByteArrayUnitDiffer differ;
+  private final byte[] left;
+  private final byte[] right;
+  private final List<Difference> expected;
+
+  /**
+   * Constructor for test suite. As this test suite is a parameterized data driven one, JUnit 4 runner requires
+   * parameters to be passed as constructor arguments.
+   *
+   * @param explanation Just a string explaining the case being executed.
+   *                    It is not stored anywhere as its purpose it to provide fancier test names.
+   * @param differ      Class under test, set up for the units of the case
+   * @param left        Left side operand for {@link ByteArrayUnitDiffer ByteArrayUnitDiffer}'s diff() method
+   * @param right       Right side operand for {@link ByteArrayUnitDiffer ByteArrayUnitDiffer}'s diff() method
+   * @param differences Expected difference responses to compare
+   */
+  public ByteArrayUnitDifferTest(String explanation, ByteArrayUnitDiffer differ, byte[] left, byte[] right,
+                                 List<Difference> differences) {
+    this.differ = differ;
+    this.left = left;
+    this.right = right;
+    this.expected = differences;
+  }
+
+  @Parameters(name = "{0}")
+  public static Object[][] data() {
+    byte[] records = new byte[512 * 10];
+    byte[] lines = text("alpha\nbeta\ngamma\ndelta\n");
+
+    return new Object[][]{
+        {"Both arguments are null", ByteArrayUnitDiffer.records(8), null, null, NO_DIFFERENCES},
+        {"Right argument is null", ByteArrayUnitDiffer.records(8), records, null, NO_DIFFERENCES},
+        {"Equal records", ByteArrayUnitDiffer.records(512), records, records.clone(), NO_DIFFERENCES},
+        {"Both empty", ByteArrayUnitDiffer.lines(), new byte[0], new byte[0], NO_DIFFERENCES},
+        {
+            "Single byte changes report whole records",
+            ByteArrayUnitDiffer.records(512),
+            records,
+            change(records, 0, 511, 512, 2048 + 100, 5119),
+            asList(new Difference(0, 2), new Difference(4, 1), new Difference(9, 1))
+        },
+        {
+            "Word changes",
+            ByteArrayUnitDiffer.records(4),
+            new byte[16],
+            change(new byte[16], 5, 6, 15),
+            asList(new Difference(1, 1), new Difference(3, 1))
+        },
+        {
+            "Trailing partial record",
+            ByteArrayUnitDiffer.records(8),
+            new byte[20],
+            change(new byte[20], 19),
+            singletonList(new Difference(2, 1))
+        },
+        {
+            "Records appended to the right operand",
+            ByteArrayUnitDiffer.records(512),
+            records,
+            copyOf(records, 512 * 12),
+            singletonList(new Difference(10, 0, 10, 2))
+        },
+        {
+            "Records removed from the right operand, merged with preceding differences",
+            ByteArrayUnitDiffer.records(512),
+            records,
+            change(copyOf(records, 512 * 7 + 1), 512 * 6),
+            singletonList(new Difference(6, 4, 6, 2))
+        },
+        {"Equal lines", ByteArrayUnitDiffer.lines(), lines, lines.clone(), NO_DIFFERENCES},
+        {
+            "Changed lines",
+            ByteArrayUnitDiffer.lines(),
+            lines,
+            text("alpha\nBETA\ngamma\ndelta!\n"),
+            asList(new Difference(1, 1), new Difference(3, 1))
+        },
+        {
+            "Lines of different length",
+            ByteArrayUnitDiffer.lines(),
+            lines,
+            text("alpha\nbetas\ngamma\ndelta\n"),
+            singletonList(new Difference(1, 1))
+        },
+        {
+            "Last line without newline",
+            ByteArrayUnitDiffer.lines(),
+            lines,
+            text("alpha\nbeta\ngamma\ndelta"),
+            singletonList(new Difference(3, 1))
+        },
+        {
+            "Lines appended to the right operand",
+            ByteArrayUnitDiffer.lines(),
+            lines,
+            text("alpha\nbeta\ngamma\ndelta\nepsilon\nzeta"),
+            singletonList(new Difference(4, 0, 4, 2))
+        }
+    };
+  }
+
+  @Test
+  public void validateDifferentiable() {
+    List<Difference> differences = differ.diff(left, right);
+
+    assertThat("Differences match expectations", differences, is(expected));
+  }
+
+  @Test
+  public void validateRegionDifferentiable() {
+    assumeThat("Operands are present", left != null && right != null, is(true));
+
+    // Trailing bytes past given lengths must be ignored
+    byte[] paddedLeft = copyOf(left, left.length + 16);
+    byte[] paddedRight = copyOf(right, right.length + 32);
+    fill(paddedLeft, left.length, paddedLeft.length, (byte) 1);
+    fill(paddedRight, right.length, paddedRight.length, (byte) 2);
+
+    List<Difference> differences = differ.diff(paddedLeft, left.length, paddedRight, right.length);
+
+    assertThat("Differences match whole array differences", differences, is(expected));
+  }
+
+  private static byte[] change(byte[] data, int... positions) {
+    byte[] changed = data.clone();
+    for (int position : positions) {
+      changed[position]++;
+    }
+    return changed;
+  }
+
+  private static byte[] text(String text) {
+    return text.getBytes(US_ASCII);
+  }
+
+}
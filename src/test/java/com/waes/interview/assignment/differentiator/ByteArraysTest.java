@@ -0,0 +1,55 @@
+package com.waes.interview.assignment.differentiator;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static java.util.Arrays.copyOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test suite for {@link ByteArrays ByteArrays} class.
+ *
+ * @author Juan Krzemien
+ */
+public class ByteArraysTest {
+
+  @Test
+  public void mismatchEqualArrays() {
+    byte[] data = randomBytes(100);
+
+    assertThat("Equal arrays have no mismatch", ByteArrays.mismatch(data, data.clone(), data.length), is(-1));
+    assertThat("Empty regions have no mismatch", ByteArrays.mismatch(data, new byte[0], 0), is(-1));
+  }
+
+  @Test
+  public void mismatchAtEveryPosition() {
+    // Cover positions within words, across word boundaries and in the trailing bytes
+    for (int length = 1; length <= 40; length++) {
+      byte[] left = randomBytes(length);
+      for (int position = 0; position < length; position++) {
+        byte[] right = left.clone();
+        right[position] ^= 0x80;
+        assertThat("Mismatch is found at " + position + " of " + length, ByteArrays.mismatch(left, right, length), is(position));
+      }
+    }
+  }
+
+  @Test
+  public void mismatchIgnoresTrailingBytes() {
+    byte[] left = randomBytes(64);
+    byte[] right = copyOf(left, 128);
+    left[40]++;
+
+    assertThat("Bytes past length are not compared", ByteArrays.mismatch(left, right, 40), is(-1));
+    assertThat("First difference is found", ByteArrays.mismatch(left, right, 41), is(40));
+  }
+
+  private static byte[] randomBytes(int length) {
+    byte[] data = new byte[length];
+    new Random(length).nextBytes(data);
+    return data;
+  }
+
+}
@@ -0,0 +1,122 @@
+package com.waes.interview.assignment.differentiator;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Unit test suite for {@link Cancellation Cancellation} class, and its use by every engine.
+ *
+ * @author Juan Krzemien
+ */
+public class CancellationTest {
+
+  private static final int SIZE = 256 * 1024;
+
+  @Test
+  public void noneIsNeverCancelled() {
+    Cancellation.NONE.cancel();
+
+    assertThat("Token is not cancelled", Cancellation.NONE.isCancelled(), is(false));
+    Cancellation.NONE.check();
+  }
+
+  @Test
+  public void noDeadlineIsNotCancelled() {
+    Cancellation cancellation = Cancellation.withTimeout(0);
+
+    assertThat("Token is not cancelled", cancellation.isCancelled(), is(false));
+    cancellation.check();
+  }
+
+  @Test
+  public void hugeTimeoutIsNotCancelled() {
+    Cancellation cancellation = Cancellation.withTimeout(Long.MAX_VALUE);
+
+    assertThat("Token is not cancelled", cancellation.isCancelled(), is(false));
+    assertThat("Time is left", cancellation.remainingNanos() > 0, is(true));
+    cancellation.check();
+  }
+
+  @Test
+  public void cancelledTokenStops() {
+    Cancellation cancellation = Cancellation.withTimeout(0);
+    cancellation.cancel();
+
+    assertThat("Token is cancelled", cancellation.isCancelled(), is(true));
+    assertThat("Check was not timed out", check(cancellation).isTimedOut(), is(false));
+  }
+
+  @Test
+  public void tokenPastDeadlineStops() throws InterruptedException {
+    Cancellation cancellation = Cancellation.withTimeout(1);
+    Thread.sleep(5);
+
+    assertThat("Token is cancelled", cancellation.isCancelled(), is(true));
+    assertThat("Check timed out", check(cancellation).isTimedOut(), is(true));
+  }
+
+  @Test
+  public void remainingTimeFollowsDeadline() {
+    Cancellation cancellation = Cancellation.withTimeout(60_000);
+    Cancellation cancelled = Cancellation.withTimeout(60_000);
+    cancelled.cancel();
+
+    assertThat("Time is left before deadline", cancellation.remainingNanos() > 0, is(true));
+    assertThat("Time is within deadline", cancellation.remainingNanos() <= 60_000_000_000L, is(true));
+    assertThat("No time is left once cancelled", cancelled.remainingNanos(), is(0L));
+    assertThat("Time is unbounded without deadline", Cancellation.withTimeout(0).remainingNanos(), is(Long.MAX_VALUE));
+  }
+
+  @Test
+  public void alignedEngineStops() {
+    assertStops(new ByteArrayDiffer());
+  }
+
+  @Test
+  public void editEngineStops() {
+    assertStops(new ByteArrayEditDiffer());
+  }
+
+  @Test
+  public void chunkEngineStops() {
+    assertStops(new ByteArrayChunkDiffer(64));
+  }
+
+  @Test
+  public void unitEngineStops() {
+    assertStops(ByteArrayUnitDiffer.records(4));
+  }
+
+  private static DiffCancelledException check(Cancellation cancellation) {
+    try {
+      cancellation.check();
+    } catch (DiffCancelledException e) {
+      return e;
+    }
+    fail("Check did not stop");
+    return null;
+  }
+
+  private static void assertStops(ByteArrayDifferentiable differ) {
+    Random random = new Random(1);
+    byte[] left = new byte[SIZE];
+    byte[] right = new byte[SIZE];
+    random.nextBytes(left);
+    random.nextBytes(right);
+    Cancellation cancellation = Cancellation.withTimeout(0);
+    cancellation.cancel();
+
+    try {
+      differ.diff(left, SIZE, right, SIZE, cancellation);
+      fail("Diff did not stop");
+    } catch (DiffCancelledException e) {
+      assertThat("Diff was not timed out", e.isTimedOut(), is(false));
+    }
+  }
+
+}
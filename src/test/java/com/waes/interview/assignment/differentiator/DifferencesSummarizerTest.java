@@ -0,0 +1,57 @@
+package com.waes.interview.assignment.differentiator;
+
+import com.waes.interview.assignment.models.Difference;
+import com.waes.interview.assignment.models.DifferencesSummary;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test suite for {@link DifferencesSummarizer DifferencesSummarizer} class.
+ *
+ * @author Juan Krzemien
+ */
+public class DifferencesSummarizerTest {
+
+  @Test
+  public void summarizeNoDifferences() {
+    DifferencesSummary summary = DifferencesSummarizer.of(emptyList());
+
+    assertThat("Summary is empty", summary, is(new DifferencesSummary(0, 0, 0, null, null)));
+  }
+
+  @Test
+  public void summarizeAlignedDifferences() {
+    DifferencesSummary summary = DifferencesSummarizer.of(asList(
+        new Difference(2, 3),
+        new Difference(10, 7),
+        new Difference(30, 1)
+    ));
+
+    assertThat("Summary aggregates differences", summary, is(new DifferencesSummary(11, 3, 7, 2, 30)));
+  }
+
+  @Test
+  public void summarizeUnalignedDifferences() {
+    DifferencesSummary summary = DifferencesSummarizer.of(asList(
+        new Difference(4, 0, 4, 5),
+        new Difference(20, 2, 25, 1)
+    ));
+
+    assertThat("Longest side of every difference is accounted", summary, is(new DifferencesSummary(7, 2, 5, 4, 20)));
+  }
+
+  @Test
+  public void summarizeMergedDifferences() {
+    DifferencesSummarizer summarizer = new DifferencesSummarizer();
+    summarizer.add(new Difference(0, 9), 5);
+    summarizer.add(20, 4, 2);
+
+    assertThat("Only differing bytes of merged differences are accounted", summarizer.toSummary(),
+        is(new DifferencesSummary(7, 2, 9, 0, 20)));
+  }
+
+}
@@ -0,0 +1,110 @@
+package com.waes.interview.assignment.encoding;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameters;
+
+import java.util.Base64;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.util.Arrays.copyOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+
+/**
+ * Data driven JUnit 4 test suite for {@link Base64Decoder Base64Decoder}, using {@link Base64 java.util.Base64} as
+ * reference.
+ *
+ * @author Juan Krzemien
+ */
+@RunWith(Parameterized.class)
+public class Base64DecoderTest {
+
+  /**
+   * Attributes to store constructor arguments
+   */
+  private final String input;
+
+  /**
+   * Constructor for test suite. As this test suite is a parameterized data driven one, JUnit 4 runner requires
+   * parameters to be passed as constructor arguments.
+   *
+   * @param explanation Just a string explaining the case being executed.
+   *                    It is not stored anywhere as its purpose it to provide fancier test names.
+   * @param input       Base64 input to decode
+   */
+  public Base64DecoderTest(String explanation, String input) {
+    this.input = input;
+  }
+
+  @Parameters(name = "{0}")
+  public static Object[][] data() {
+    return new Object[][]{
+        {"Empty input", ""},
+        {"Full quad", "AQID"},
+        {"Two bytes padded", "AQI="},
+        {"Two bytes unpadded", "AQI"},
+        {"One byte padded", "AQ=="},
+        {"One byte unpadded", "AQ"},
+        {"Whole alphabet", "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/"},
+        {"High bytes", Base64.getEncoder().encodeToString(new byte[]{-1, -2, -3, -128, 127})},
+        {"Dangling character", "AQIDB"},
+        {"Invalid character", "AQ*D"},
+        {"Invalid trailing character", "AQI*"},
+        {"URL safe alphabet", "AQ-_"},
+        {"Line separator", "AQID\r\nAQID"},
+        {"Padding in the middle", "AQ==AQID"},
+        {"Incomplete padding", "AQI=="},
+        {"Padding only", "===="},
+        {"Non ASCII character", "AQI\u00e9"}
+    };
+  }
+
+  @Test
+  public void matchesReferenceDecoder() {
+    byte[] source = input.getBytes(US_ASCII);
+    byte[] expected;
+    try {
+      expected = Base64.getDecoder().decode(source);
+    } catch (IllegalArgumentException e) {
+      expected = null;
+    }
+
+    byte[] target = new byte[Base64Decoder.maxDecodedSize(source.length)];
+    try {
+      int length = Base64Decoder.decode(source, source.length, target);
+      if (expected == null) {
+        fail("Invalid input was accepted");
+      }
+      assertThat("Decoded bytes match reference decoder", copyOf(target, length), is(expected));
+    } catch (IllegalArgumentException e) {
+      if (expected != null) {
+        fail("Valid input was rejected: " + e.getMessage());
+      }
+    }
+  }
+
+  @Test
+  public void decodesLeadingBytesOnly() {
+    byte[] source = copyOf(input.getBytes(US_ASCII), input.length() + 8);
+    // Trailing garbage past given length must be ignored
+    for (int i = input.length(); i < source.length; i++) {
+      source[i] = '*';
+    }
+
+    byte[] expected;
+    try {
+      expected = Base64.getDecoder().decode(input.getBytes(US_ASCII));
+    } catch (IllegalArgumentException e) {
+      return;
+    }
+
+    byte[] target = new byte[Base64Decoder.maxDecodedSize(source.length)];
+    int length = Base64Decoder.decode(source, input.length(), target);
+
+    assertThat("Decoded bytes match reference decoder", copyOf(target, length), is(expected));
+  }
+
+}
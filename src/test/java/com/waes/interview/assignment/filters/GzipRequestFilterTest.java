@@ -0,0 +1,141 @@
+package com.waes.interview.assignment.filters;
+
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test suite for {@link GzipRequestFilter GzipRequestFilter}.
+ *
+ * @author Juan Krzemien
+ */
+public class GzipRequestFilterTest {
+
+  private static final String BODY = "{\"payload\":\"AQID\"}";
+
+  @Test
+  public void readListenerIsServedWholeBody() throws Exception {
+    List<String> events = new ArrayList<>();
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+
+    filter(1024, stream -> new ReadListener() {
+      @Override
+      public void onDataAvailable() throws IOException {
+        events.add("data");
+        byte[] buffer = new byte[4];
+        for (int count; stream.isReady() && (count = stream.read(buffer)) != -1; ) {
+          body.write(buffer, 0, count);
+        }
+      }
+
+      @Override
+      public void onAllDataRead() {
+        events.add("done");
+      }
+
+      @Override
+      public void onError(Throwable t) {
+        events.add("error");
+      }
+    });
+
+    assertThat("Listener was told about data, then its end", events, is(asList("data", "done")));
+    assertThat("Body was inflated", new String(body.toByteArray(), UTF_8), is(BODY));
+  }
+
+  @Test
+  public void readListenerIsToldAboutOversizedBodies() throws Exception {
+    List<String> events = new ArrayList<>();
+
+    filter(4, stream -> new ReadListener() {
+      @Override
+      public void onDataAvailable() throws IOException {
+        events.add("data");
+        while (stream.isReady() && stream.read() != -1) {
+          // Consume
+        }
+      }
+
+      @Override
+      public void onAllDataRead() {
+        events.add("done");
+      }
+
+      @Override
+      public void onError(Throwable t) {
+        events.add("error");
+      }
+    });
+
+    assertThat("Listener was told about the failure", events, is(asList("data", "error")));
+  }
+
+  @Test
+  public void readListenerNotReadingIsNotToldAboutTheEnd() throws Exception {
+    List<String> events = new ArrayList<>();
+
+    filter(1024, stream -> new ReadListener() {
+      @Override
+      public void onDataAvailable() {
+        events.add("data");
+      }
+
+      @Override
+      public void onAllDataRead() {
+        events.add("done");
+      }
+
+      @Override
+      public void onError(Throwable t) {
+        events.add("error");
+      }
+    });
+
+    assertThat("Listener was told about data only", events, is(asList("data")));
+  }
+
+  /**
+   * Filters a compressed request, setting a read listener on its body
+   */
+  private static void filter(long maxInflatedSize, ListenerFactory listener) throws Exception {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+    try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(BODY.getBytes(UTF_8));
+    }
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/diff/1/left");
+    request.addHeader("Content-Encoding", "gzip");
+    request.setContent(compressed.toByteArray());
+
+    new GzipRequestFilter(maxInflatedSize).doFilter(request, new MockHttpServletResponse(),
+        new MockFilterChain(new HttpServlet() {
+          @Override
+          protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException {
+            ServletInputStream stream = request.getInputStream();
+            stream.setReadListener(listener.create(stream));
+          }
+        }));
+  }
+
+  @FunctionalInterface
+  private interface ListenerFactory {
+    ReadListener create(ServletInputStream stream);
+  }
+
+}
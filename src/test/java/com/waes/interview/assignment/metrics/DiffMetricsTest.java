@@ -0,0 +1,83 @@
+package com.waes.interview.assignment.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test suite for {@link DiffMetrics DiffMetrics} and {@link DiffTrace DiffTrace}.
+ *
+ * @author Juan Krzemien
+ */
+public class DiffMetricsTest {
+
+  private MeterRegistry registry;
+  private DiffMetrics metrics;
+
+  @Before
+  public void setUp() {
+    this.registry = new SimpleMeterRegistry();
+    this.metrics = new DiffMetrics(registry, new SlowDiffRecorder(0, 4));
+  }
+
+  @Test
+  public void recordsReachedPhasesOnly() {
+    DiffTrace trace = new DiffTrace(1L);
+    long time = trace.mark(DiffPhase.FETCH, System.nanoTime() - 1000);
+    trace.mark(DiffPhase.DECODE, time - 1000);
+
+    metrics.record(trace);
+
+    assertThat("Fetch was timed", timerCount(DiffPhase.FETCH), is(1L));
+    assertThat("Decode was timed", timerCount(DiffPhase.DECODE), is(1L));
+    assertThat("Diff was not timed", timerCount(DiffPhase.DIFF), is(0L));
+    assertThat("Fetch time was recorded", registry.get("waes.diff.phase").tag("phase", "fetch").timer().totalTime(TimeUnit.NANOSECONDS), is(greaterThan(0.0)));
+    assertThat("Payload sizes were not recorded", registry.get("waes.diff.payload").tag("side", "left").summary().count(), is(0L));
+    assertThat("Differences were not recorded", registry.get("waes.diff.differences").summary().count(), is(0L));
+  }
+
+  @Test
+  public void recordsSizesAndDifferences() {
+    DiffTrace trace = new DiffTrace(1L);
+    trace.sizes(100, 200);
+    trace.differences(3);
+
+    metrics.record(trace);
+
+    assertThat("Left payload size was recorded", registry.get("waes.diff.payload").tag("side", "left").summary().totalAmount(), is(100.0));
+    assertThat("Right payload size was recorded", registry.get("waes.diff.payload").tag("side", "right").summary().totalAmount(), is(200.0));
+    assertThat("Differences were recorded", registry.get("waes.diff.differences").summary().totalAmount(), is(3.0));
+    assertThat("Latest right payload size is exposed", registry.get("waes.diff.payload.last").tag("side", "right").gauge().value(), is(200.0));
+    assertThat("Latest differences are exposed", registry.get("waes.diff.differences.last").gauge().value(), is(3.0));
+  }
+
+  @Test
+  public void traceAccumulatesPhaseTime() {
+    DiffTrace trace = new DiffTrace(1L);
+    long start = System.nanoTime();
+    trace.mark(DiffPhase.DIFF, start - 1000);
+    trace.mark(DiffPhase.DIFF, start - 1000);
+
+    assertThat("Phase time accumulates", trace.getNanos(DiffPhase.DIFF) >= 2000, is(true));
+    assertThat("Total matches single phase", trace.getTotalNanos(), is(trace.getNanos(DiffPhase.DIFF)));
+  }
+
+  @Test
+  public void countsSlowOperations() {
+    metrics.record(new DiffTrace(1L));
+
+    assertThat("Operation over threshold was counted", registry.get("waes.diff.slow").counter().count(), is(1.0));
+  }
+
+  private long timerCount(DiffPhase phase) {
+    return registry.get("waes.diff.phase").tag("phase", phase.tag()).timer().count();
+  }
+
+}
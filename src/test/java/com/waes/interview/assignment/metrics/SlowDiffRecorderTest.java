@@ -0,0 +1,84 @@
+package com.waes.interview.assignment.metrics;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static java.util.stream.Collectors.toList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test suite for {@link SlowDiffRecorder SlowDiffRecorder}.
+ *
+ * @author Juan Krzemien
+ */
+public class SlowDiffRecorderTest {
+
+  @Test
+  public void fastOperationsAreIgnored() {
+    SlowDiffRecorder recorder = new SlowDiffRecorder(1000, 4);
+
+    assertThat("Fast operation is not recorded", recorder.offer(trace(1L, 1_000_000)), is(false));
+    assertThat("Nothing is held", recorder.snapshot(), is(empty()));
+  }
+
+  @Test
+  public void slowOperationsAreCaptured() {
+    SlowDiffRecorder recorder = new SlowDiffRecorder(1, 4);
+    DiffTrace trace = trace(7L, 2_000_000);
+    trace.sizes(10, 20);
+    trace.differences(3);
+
+    assertThat("Slow operation is recorded", recorder.offer(trace), is(true));
+
+    SlowDiff slowDiff = recorder.snapshot().get(0);
+    assertThat("Operation ID is captured", slowDiff.getOperationId(), is(7L));
+    assertThat("Left size is captured", slowDiff.getLeftSize(), is(10));
+    assertThat("Right size is captured", slowDiff.getRightSize(), is(20));
+    assertThat("Differences are captured", slowDiff.getDifferences(), is(3));
+    assertThat("Phase time is captured", slowDiff.getPhaseMillis().get("diff") >= 2.0, is(true));
+    assertThat("Unreached phases are zero", slowDiff.getPhaseMillis().get("persist"), is(0.0));
+  }
+
+  @Test
+  public void oldestOperationsAreOverwritten() {
+    SlowDiffRecorder recorder = new SlowDiffRecorder(0, 3);
+    for (long id = 1; id <= 5; id++) {
+      recorder.offer(trace(id, 0));
+    }
+
+    assertThat("Latest operations are held, most recent first", ids(recorder.snapshot()), contains(5L, 4L, 3L));
+  }
+
+  @Test
+  public void clearDropsOperations() {
+    SlowDiffRecorder recorder = new SlowDiffRecorder(0, 3);
+    recorder.offer(trace(1L, 0));
+
+    recorder.clear();
+
+    assertThat("Nothing is held", recorder.snapshot(), is(empty()));
+  }
+
+  @Test
+  public void zeroCapacityDisablesRecording() {
+    SlowDiffRecorder recorder = new SlowDiffRecorder(0, 0);
+
+    assertThat("Operation is not recorded", recorder.offer(trace(1L, 0)), is(false));
+    assertThat("Nothing is held", recorder.snapshot(), is(empty()));
+  }
+
+  private static DiffTrace trace(Long id, long diffNanos) {
+    DiffTrace trace = new DiffTrace(id);
+    trace.mark(DiffPhase.DIFF, System.nanoTime() - diffNanos);
+    return trace;
+  }
+
+  private static List<Long> ids(List<SlowDiff> slowDiffs) {
+    return slowDiffs.stream().map(SlowDiff::getOperationId).collect(toList());
+  }
+
+}
@@ -0,0 +1,273 @@
+package com.waes.interview.assignment.precompute;
+
+import com.waes.interview.assignment.admission.MemoryBudget;
+import com.waes.interview.assignment.differentiator.Cancellation;
+import com.waes.interview.assignment.differentiator.DiffCancelledException;
+import com.waes.interview.assignment.models.Difference;
+import com.waes.interview.assignment.models.DifferenceOperand;
+import com.waes.interview.assignment.models.DifferencesResponse;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.nCopies;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * Unit test suite for {@link PrecomputedDiffs PrecomputedDiffs}.
+ *
+ * @author Juan Krzemien
+ */
+public class PrecomputedDiffsTest {
+
+  private static final DifferencesResponse RESULT = new DifferencesResponse("Byte arrays are equal!");
+  private static final int DIFFERENCES = 1024;
+  private static final long RESULT_BYTES = (long) DIFFERENCES * PrecomputedDiffs.DIFFERENCE_BYTES;
+  private static final DifferencesResponse DENSE_RESULT = new DifferencesResponse("Byte arrays are different!",
+      nCopies(DIFFERENCES, new Difference(0, 1)));
+
+  private final MemoryBudget budget = new MemoryBudget(1024 * 1024, 0, 1);
+
+  @Test
+  public void nothingIsComputedWhenDisabled() {
+    try (PrecomputedDiffs precomputedDiffs = new PrecomputedDiffs(budget, 0, 1, 1)) {
+      AtomicInteger computations = new AtomicInteger();
+
+      precomputedDiffs.submit(1L, operands(1L, 2L), operands -> {
+        computations.incrementAndGet();
+        return RESULT;
+      });
+
+      assertThat("Precomputing is disabled", precomputedDiffs.isEnabled(), is(false));
+      assertThat("There is no result", precomputedDiffs.take(1L, operands(1L, 2L), Cancellation.NONE), is(nullValue()));
+      assertThat("Nothing was computed", computations.get(), is(0));
+    }
+  }
+
+  @Test
+  public void resultsAreTakenOnce() throws Exception {
+    try (PrecomputedDiffs precomputedDiffs = new PrecomputedDiffs(budget, 1, 1, 1)) {
+      CountDownLatch computed = new CountDownLatch(1);
+
+      precomputedDiffs.submit(1L, operands(1L, 2L), operands -> {
+        computed.countDown();
+        return RESULT;
+      });
+
+      assertThat("Result is computed in the background", computed.await(5, TimeUnit.SECONDS), is(true));
+      assertThat("Result is taken", precomputedDiffs.take(1L, operands(1L, 2L), Cancellation.NONE), is(sameInstance(RESULT)));
+      assertThat("Result is not taken twice", precomputedDiffs.take(1L, operands(1L, 2L), Cancellation.NONE), is(nullValue()));
+    }
+  }
+
+  @Test
+  public void resultsAreNotServedForOtherOperands() throws Exception {
+    try (PrecomputedDiffs precomputedDiffs = new PrecomputedDiffs(budget, 1, 1, 1)) {
+      CountDownLatch computed = new CountDownLatch(1);
+
+      precomputedDiffs.submit(1L, operands(1L, 2L), operands -> {
+        computed.countDown();
+        return RESULT;
+      });
+
+      assertThat("Result is computed in the background", computed.await(5, TimeUnit.SECONDS), is(true));
+      assertThat("Result of other operands is not served", precomputedDiffs.take(1L, operands(3L, 4L), Cancellation.NONE), is(nullValue()));
+    }
+  }
+
+  @Test
+  public void resultsNotStartedAreLeftToTheCaller() throws Exception {
+    try (PrecomputedDiffs precomputedDiffs = new PrecomputedDiffs(budget, 1, 1, 2)) {
+      CountDownLatch started = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      AtomicInteger computations = new AtomicInteger();
+
+      // Keep the only thread busy
+      precomputedDiffs.submit(1L, operands(1L, 2L), operands -> {
+        started.countDown();
+        await(release);
+        return RESULT;
+      });
+      assertThat("First computation started", started.await(5, TimeUnit.SECONDS), is(true));
+
+      precomputedDiffs.submit(2L, operands(3L, 4L), operands -> {
+        computations.incrementAndGet();
+        return RESULT;
+      });
+
+      assertThat("Queued result is not waited for", precomputedDiffs.take(2L, operands(3L, 4L), Cancellation.NONE), is(nullValue()));
+
+      release.countDown();
+
+      assertThat("Started result is waited for", precomputedDiffs.take(1L, operands(1L, 2L), Cancellation.NONE), is(sameInstance(RESULT)));
+      assertThat("Queued computation never ran", computations.get(), is(0));
+    }
+  }
+
+  @Test
+  public void oldestResultsAreEvicted() throws Exception {
+    try (PrecomputedDiffs precomputedDiffs = new PrecomputedDiffs(budget, 1, 4, 2)) {
+      CountDownLatch computed = new CountDownLatch(3);
+
+      for (long id = 1; id <= 3; id++) {
+        precomputedDiffs.submit(id, operands(id * 2, id * 2 + 1), operands -> {
+          computed.countDown();
+          return RESULT;
+        });
+      }
+      computed.await(5, TimeUnit.SECONDS);
+
+      assertThat("Only two results are kept", precomputedDiffs.size(), is(2));
+      assertThat("Oldest result is evicted", precomputedDiffs.take(1L, operands(2L, 3L), Cancellation.NONE), is(nullValue()));
+      assertThat("Newest result is kept", precomputedDiffs.take(3L, operands(6L, 7L), Cancellation.NONE), is(sameInstance(RESULT)));
+    }
+  }
+
+  @Test
+  public void keptResultsAreChargedUntilTaken() throws Exception {
+    try (PrecomputedDiffs precomputedDiffs = new PrecomputedDiffs(budget, 1, 1, 1)) {
+      precomputedDiffs.submit(1L, operands(1L, 2L), operands -> DENSE_RESULT);
+
+      assertThat("Kept result is charged", awaitReserved(RESULT_BYTES), is(RESULT_BYTES));
+      assertThat("Result is taken", precomputedDiffs.take(1L, operands(1L, 2L), Cancellation.NONE), is(sameInstance(DENSE_RESULT)));
+      assertThat("Taken result is no longer charged", budget.getReservedBytes(), is(0L));
+    }
+  }
+
+  @Test
+  public void evictedResultsAreNoLongerCharged() throws Exception {
+    try (PrecomputedDiffs precomputedDiffs = new PrecomputedDiffs(budget, 1, 1, 1)) {
+      precomputedDiffs.submit(1L, operands(1L, 2L), operands -> DENSE_RESULT);
+      awaitReserved(RESULT_BYTES);
+
+      precomputedDiffs.submit(2L, operands(3L, 4L), operands -> DENSE_RESULT);
+
+      assertThat("Only the newest result is charged", awaitReserved(RESULT_BYTES), is(RESULT_BYTES));
+      assertThat("Evicted result is not served", precomputedDiffs.take(1L, operands(1L, 2L), Cancellation.NONE), is(nullValue()));
+      assertThat("Newest result is served", precomputedDiffs.take(2L, operands(3L, 4L), Cancellation.NONE), is(sameInstance(DENSE_RESULT)));
+      assertThat("Nothing is charged", budget.getReservedBytes(), is(0L));
+    }
+  }
+
+  @Test
+  public void resultsNotFittingInTheBudgetAreNotKept() throws Exception {
+    try (PrecomputedDiffs precomputedDiffs = new PrecomputedDiffs(budget, 1, 1, 1)) {
+      // Take all the budget but room for queued operands, as concurrent operations would
+      MemoryBudget.Reservation reservation = budget.reserve(budget.getBudgetBytes() - 1024);
+      CountDownLatch computed = new CountDownLatch(1);
+
+      precomputedDiffs.submit(1L, operands(1L, 2L), operands -> {
+        computed.countDown();
+        return DENSE_RESULT;
+      });
+      assertThat("Result is computed in the background", computed.await(5, TimeUnit.SECONDS), is(true));
+
+      assertThat("Result is left to the caller", precomputedDiffs.take(1L, operands(1L, 2L), Cancellation.NONE), is(nullValue()));
+      reservation.close();
+      assertThat("Nothing else is charged", budget.getReservedBytes(), is(0L));
+    }
+  }
+
+  @Test
+  public void queuedComputationsAreChargedForTheirOperands() throws Exception {
+    try (PrecomputedDiffs precomputedDiffs = new PrecomputedDiffs(budget, 1, 1, 2)) {
+      CountDownLatch started = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+
+      // Keep the only thread busy
+      precomputedDiffs.submit(1L, operands(1L, 2L), operands -> {
+        started.countDown();
+        await(release);
+        return RESULT;
+      });
+      assertThat("First computation started", started.await(5, TimeUnit.SECONDS), is(true));
+      assertThat("Started computation lets its operands go", budget.getReservedBytes(), is(0L));
+
+      precomputedDiffs.submit(2L, operands(3L, 4L), operands -> RESULT);
+
+      assertThat("Queued operands are charged", budget.getReservedBytes(), is(1024L));
+      assertThat("Queued result is not waited for", precomputedDiffs.take(2L, operands(3L, 4L), Cancellation.NONE), is(nullValue()));
+      assertThat("Claimed operands are no longer charged", budget.getReservedBytes(), is(0L));
+      release.countDown();
+    }
+  }
+
+  @Test
+  public void computationsNotFittingInTheBudgetAreNotQueued() throws Exception {
+    try (PrecomputedDiffs precomputedDiffs = new PrecomputedDiffs(budget, 1, 1, 1)) {
+      MemoryBudget.Reservation reservation = budget.reserve(budget.getBudgetBytes());
+      AtomicInteger computations = new AtomicInteger();
+
+      precomputedDiffs.submit(1L, operands(1L, 2L), operands -> {
+        computations.incrementAndGet();
+        return RESULT;
+      });
+
+      assertThat("Nothing is kept", precomputedDiffs.size(), is(0));
+      assertThat("Nothing was computed", computations.get(), is(0));
+      reservation.close();
+    }
+  }
+
+  @Test
+  public void waitsAreBoundedByDeadline() throws Exception {
+    try (PrecomputedDiffs precomputedDiffs = new PrecomputedDiffs(budget, 1, 1, 1)) {
+      CountDownLatch started = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+
+      precomputedDiffs.submit(1L, operands(1L, 2L), operands -> {
+        started.countDown();
+        await(release);
+        return DENSE_RESULT;
+      });
+      assertThat("Computation started", started.await(5, TimeUnit.SECONDS), is(true));
+
+      try {
+        precomputedDiffs.take(1L, operands(1L, 2L), Cancellation.withTimeout(50));
+        fail("Wait was not bounded");
+      } catch (DiffCancelledException e) {
+        assertThat("Wait timed out", e.isTimedOut(), is(true));
+      }
+
+      release.countDown();
+      assertThat("Result computed for nobody is not charged", awaitReserved(0), is(0L));
+    }
+  }
+
+  /**
+   * @return Memory reserved, once it is as expected (or after a while)
+   */
+  private long awaitReserved(long expected) throws InterruptedException {
+    for (int i = 0; i < 500 && budget.getReservedBytes() != expected; i++) {
+      Thread.sleep(10);
+    }
+    return budget.getReservedBytes();
+  }
+
+  private static List<DifferenceOperand> operands(Long leftId, Long rightId) {
+    DifferenceOperand left = DifferenceOperand.from(1L, "AA==", false);
+    DifferenceOperand right = DifferenceOperand.from(1L, "AA==", false);
+    // IDs are generated by the database
+    setField(left, "id", leftId);
+    setField(right, "id", rightId);
+    return asList(left, right);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+}
@@ -0,0 +1,131 @@
+package com.waes.interview.assignment.ratelimit;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.junit.Assert.assertThat;
+import static org.springframework.http.HttpHeaders.RETRY_AFTER;
+
+/**
+ * Unit test suite for {@link RateLimitFilter RateLimitFilter}.
+ *
+ * @author Juan Krzemien
+ */
+public class RateLimitFilterTest {
+
+  private MeterRegistry registry;
+  private RateLimitFilter filter;
+
+  @Before
+  public void setUp() {
+    Map<RateLimitFilter.Endpoint, RateLimit> limits = new EnumMap<>(RateLimitFilter.Endpoint.class);
+    limits.put(RateLimitFilter.Endpoint.LEFT, new RateLimit(1, 2));
+    limits.put(RateLimitFilter.Endpoint.DIFF, new RateLimit(0, 1));
+    this.registry = new SimpleMeterRegistry();
+    this.filter = new RateLimitFilter("X-Client-Id", limits, registry);
+  }
+
+  @Test
+  public void requestsOverLimitAreRejected() throws Exception {
+    assertThat("First request is served", status(left("a")), is(200));
+    assertThat("Second request is served", status(left("a")), is(200));
+
+    MockHttpServletResponse response = perform(left("a"));
+
+    assertThat("Third request is rejected", response.getStatus(), is(429));
+    assertThat("Clients are told when to retry", response.getHeader(RETRY_AFTER), is(notNullValue()));
+    assertThat("Rejection was counted", registry.get("waes.ratelimit.rejected").tag("endpoint", "left").counter().count(), is(1.0));
+  }
+
+  @Test
+  public void clientsAreLimitedIndependently() throws Exception {
+    status(left("a"));
+    status(left("a"));
+
+    assertThat("Another client is served", status(left("b")), is(200));
+  }
+
+  @Test
+  public void clientsWithoutHeaderAreIdentifiedByAddress() throws Exception {
+    MockHttpServletRequest first = new MockHttpServletRequest("POST", "/v1/diff/1/left");
+    first.setRemoteAddr("10.0.0.1");
+    status(first);
+    status(first);
+
+    MockHttpServletRequest other = new MockHttpServletRequest("POST", "/v1/diff/1/left");
+    other.setRemoteAddr("10.0.0.2");
+
+    assertThat("Same address is rejected", status(first), is(429));
+    assertThat("Another address is served", status(other), is(200));
+  }
+
+  @Test
+  public void endpointsAreLimitedIndependently() throws Exception {
+    status(left("a"));
+    status(left("a"));
+
+    assertThat("Endpoint without limit is served", status(new MockHttpServletRequest("POST", "/v1/diff/1/right")), is(200));
+    for (int i = 0; i < 10; i++) {
+      assertThat("Endpoint with disabled limit is served", status(new MockHttpServletRequest("GET", "/v1/diff/1")), is(200));
+    }
+  }
+
+  @Test
+  public void trackedClientsAreBounded() throws Exception {
+    Map<RateLimitFilter.Endpoint, RateLimit> limits = new EnumMap<>(RateLimitFilter.Endpoint.class);
+    limits.put(RateLimitFilter.Endpoint.LEFT, new RateLimit(1, 2));
+    this.filter = new RateLimitFilter("X-Client-Id", limits, registry, 10);
+
+    for (int i = 0; i < 1000; i++) {
+      assertThat("New client is served", status(left("client-" + i)), is(200));
+      assertThat("Tracked buckets are bounded", filter.getTrackedBuckets() <= 10, is(true));
+    }
+  }
+
+  @Test
+  public void activeClientsGetSecondChance() throws Exception {
+    Map<RateLimitFilter.Endpoint, RateLimit> limits = new EnumMap<>(RateLimitFilter.Endpoint.class);
+    limits.put(RateLimitFilter.Endpoint.LEFT, new RateLimit(1, 2));
+    limits.put(RateLimitFilter.Endpoint.DIFF, new RateLimit(1000, 1));
+    this.filter = new RateLimitFilter("X-Client-Id", limits, registry, 2);
+    status(left("a"));
+    status(left("a"));
+
+    // Buckets of idle clients are full again in about a millisecond
+    for (int i = 0; i < 4; i++) {
+      MockHttpServletRequest diff = new MockHttpServletRequest("GET", "/v1/diff/1");
+      diff.addHeader("X-Client-Id", "client-" + i);
+      assertThat("New client is served", status(diff), is(200));
+      Thread.sleep(5);
+    }
+
+    assertThat("Active client is still limited", status(left("a")), is(429));
+  }
+
+  private static MockHttpServletRequest left(String client) {
+    MockHttpServletRequest request = new MockHttpServletRequest("POST", "/v1/diff/1/left");
+    request.addHeader("X-Client-Id", client);
+    return request;
+  }
+
+  private int status(MockHttpServletRequest request) throws Exception {
+    return perform(request).getStatus();
+  }
+
+  private MockHttpServletResponse perform(MockHttpServletRequest request) throws Exception {
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    filter.doFilter(request, response, new MockFilterChain());
+    return response;
+  }
+
+}
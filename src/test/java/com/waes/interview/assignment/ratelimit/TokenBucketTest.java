@@ -0,0 +1,81 @@
+package com.waes.interview.assignment.ratelimit;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test suite for {@link TokenBucket TokenBucket}.
+ *
+ * @author Juan Krzemien
+ */
+public class TokenBucketTest {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  @Test
+  public void burstIsAllowedAtOnce() {
+    TokenBucket bucket = new TokenBucket(10, 5, 0);
+
+    for (int i = 0; i < 5; i++) {
+      assertThat("Token " + i + " is taken", bucket.tryTake(0), is(0L));
+    }
+    assertThat("Tokens over burst are not taken", bucket.tryTake(0), is(greaterThan(0L)));
+  }
+
+  @Test
+  public void tokensAreRefilledAtRate() {
+    TokenBucket bucket = new TokenBucket(10, 1, 0);
+    bucket.tryTake(0);
+
+    assertThat("Wait until next token is one interval", bucket.tryTake(0), is(SECOND / 10));
+    assertThat("Token is refilled after one interval", bucket.tryTake(SECOND / 10), is(0L));
+  }
+
+  @Test
+  public void idleBucketIsFull() {
+    TokenBucket bucket = new TokenBucket(10, 2, 0);
+    bucket.tryTake(0);
+
+    assertThat("Bucket is not full right after taking", bucket.isFull(0), is(false));
+    assertThat("Bucket is full once refilled", bucket.isFull(SECOND), is(true));
+    assertThat("Refill does not exceed burst", bucket.tryTake(SECOND) + bucket.tryTake(SECOND), is(0L));
+    assertThat("Refill does not exceed burst", bucket.tryTake(SECOND), is(greaterThan(0L)));
+  }
+
+  @Test
+  public void concurrentTakesNeverExceedBurst() throws Exception {
+    TokenBucket bucket = new TokenBucket(1, 1000, 0);
+    AtomicInteger taken = new AtomicInteger();
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    CountDownLatch start = new CountDownLatch(1);
+    for (int thread = 0; thread < 8; thread++) {
+      pool.execute(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        for (int i = 0; i < 1000; i++) {
+          if (bucket.tryTake(0) == 0) {
+            taken.incrementAndGet();
+          }
+        }
+      });
+    }
+    start.countDown();
+    pool.shutdown();
+    pool.awaitTermination(10, TimeUnit.SECONDS);
+
+    assertThat("Exactly burst tokens were taken", taken.get(), is(1000));
+  }
+
+}
@@ -0,0 +1,109 @@
+package com.waes.interview.assignment.repositories;
+
+import com.waes.interview.assignment.models.DifferenceOperand;
+import org.junit.Test;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.singletonList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.util.ReflectionTestUtils.setField;
+
+/**
+ * Unit test suite for {@link ProcessedOperandsWriter ProcessedOperandsWriter}.
+ *
+ * @author Juan Krzemien
+ */
+public class ProcessedOperandsWriterTest {
+
+  // Long enough for the background thread to never run during a test
+  private static final long DELAY_MILLIS = 60 * 60 * 1000;
+
+  private final OperandsRepository repository = mock(OperandsRepository.class);
+
+  @Test
+  public void marksAreWrittenRightAwayWithoutDelay() {
+    try (ProcessedOperandsWriter writer = new ProcessedOperandsWriter(repository, 0, 2)) {
+      writer.markProcessed(operands(1L, 2L));
+
+      verify(repository, times(1)).markProcessed(eq(asList(1L, 2L)));
+      assertThat("Nothing is queued", writer.getPendingCount(), is(0));
+    }
+  }
+
+  @Test
+  public void marksAreQueuedWithDelay() {
+    try (ProcessedOperandsWriter writer = new ProcessedOperandsWriter(repository, DELAY_MILLIS, 2)) {
+      writer.markProcessed(operands(1L, 2L));
+      writer.markProcessed(operands(3L));
+
+      verifyZeroInteractions(repository);
+      assertThat("Marks are queued", writer.getPendingCount(), is(3));
+
+      writer.flush();
+
+      verify(repository, times(1)).markProcessed(eq(asList(1L, 2L)));
+      verify(repository, times(1)).markProcessed(eq(singletonList(3L)));
+      assertThat("Nothing is queued after flushing", writer.getPendingCount(), is(0));
+    }
+  }
+
+  @Test
+  public void failedBatchesStayQueued() {
+    try (ProcessedOperandsWriter writer = new ProcessedOperandsWriter(repository, DELAY_MILLIS, 2)) {
+      writer.markProcessed(operands(1L, 2L, 3L));
+      when(repository.markProcessed(anyCollection())).thenThrow(new IllegalStateException("Database down"));
+
+      writer.flush();
+
+      assertThat("Failed batch is queued again", writer.getPendingCount(), is(3));
+      verify(repository, times(1)).markProcessed(anyCollection());
+    }
+  }
+
+  @Test
+  public void queuedMarksAreWrittenOnClose() {
+    ProcessedOperandsWriter writer = new ProcessedOperandsWriter(repository, DELAY_MILLIS, 2);
+    writer.markProcessed(operands(1L));
+
+    writer.close();
+
+    verify(repository, times(1)).markProcessed(eq(singletonList(1L)));
+  }
+
+  @Test
+  public void queuedMarksAreWrittenOnInterruptedClose() {
+    ProcessedOperandsWriter writer = new ProcessedOperandsWriter(repository, DELAY_MILLIS, 2);
+    writer.markProcessed(operands(1L));
+
+    Thread.currentThread().interrupt();
+    try {
+      writer.close();
+
+      verify(repository, times(1)).markProcessed(eq(singletonList(1L)));
+      assertThat("Interrupt status is restored", Thread.currentThread().isInterrupted(), is(true));
+    } finally {
+      Thread.interrupted();
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void batchesMustHoldOperands() {
+    new ProcessedOperandsWriter(repository, 0, 0);
+  }
+
+  private static List<DifferenceOperand> operands(Long... ids) {
+    DifferenceOperand[] operands = new DifferenceOperand[ids.length];
+    for (int i = 0; i < ids.length; i++) {
+      operands[i] = DifferenceOperand.from(1L, "AA==", false);
+      // IDs are generated by the database
+      setField(operands[i], "id", ids[i]);
+    }
+    return asList(operands);
+  }
+
+}
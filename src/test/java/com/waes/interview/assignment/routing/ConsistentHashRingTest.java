@@ -0,0 +1,71 @@
+package com.waes.interview.assignment.routing;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test suite for {@link ConsistentHashRing ConsistentHashRing} class.
+ *
+ * @author Juan Krzemien
+ */
+public class ConsistentHashRingTest {
+
+  private static final String A = "http://localhost:8080";
+  private static final String B = "http://localhost:8081";
+  private static final String C = "http://localhost:8082";
+  private static final int IDS = 30_000;
+
+  @Test
+  public void ownersDoNotDependOnPeersOrder() {
+    ConsistentHashRing ring = new ConsistentHashRing(asList(A, B, C), 128);
+    ConsistentHashRing reversed = new ConsistentHashRing(asList(C, B, A), 128);
+
+    for (long id = 0; id < IDS; id++) {
+      assertThat("Owner of " + id + " matches", reversed.owner(id), is(ring.owner(id)));
+    }
+  }
+
+  @Test
+  public void sequentialIdsSpreadEvenly() {
+    ConsistentHashRing ring = new ConsistentHashRing(asList(A, B, C), 128);
+
+    Map<String, Integer> owned = new HashMap<>();
+    for (long id = 0; id < IDS; id++) {
+      owned.merge(ring.owner(id), 1, Integer::sum);
+    }
+
+    for (String peer : asList(A, B, C)) {
+      assertThat("Peer owns its share of IDs", owned.get(peer), is(greaterThan(IDS / 5)));
+      assertThat("Peer does not own too many IDs", owned.get(peer), is(lessThan(IDS / 2)));
+    }
+  }
+
+  @Test
+  public void removingAPeerOnlyMovesItsIds() {
+    ConsistentHashRing ring = new ConsistentHashRing(asList(A, B, C), 128);
+    ConsistentHashRing shrunk = new ConsistentHashRing(asList(A, B), 128);
+
+    for (long id = 0; id < IDS; id++) {
+      String owner = ring.owner(id);
+      if (!owner.equals(C)) {
+        assertThat("Owner of " + id + " is kept", shrunk.owner(id), is(owner));
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void peersAreRequired() {
+    List<String> none = asList();
+    new ConsistentHashRing(none, 128);
+  }
+
+}
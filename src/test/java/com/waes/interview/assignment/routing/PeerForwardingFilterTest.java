@@ -0,0 +1,131 @@
+package com.waes.interview.assignment.routing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.net.ServerSocket;
+
+import static java.util.Arrays.asList;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test suite for {@link PeerForwardingFilter PeerForwardingFilter} class. Actual forwarding is covered by
+ * integration tests.
+ *
+ * @author Juan Krzemien
+ */
+public class PeerForwardingFilterTest {
+
+  private static final String SELF = "http://localhost:8080";
+
+  private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+  @Test
+  public void singlePeerServesEverything() throws Exception {
+    PeerForwardingFilter filter = new PeerForwardingFilter(new ConsistentHashRing(asList(SELF), 16), SELF, "X-Client-Id", 100, 0, registry);
+
+    assertThat("Operation is served locally", served(filter, new MockHttpServletRequest("POST", "/v1/diff/1/left")), is(true));
+  }
+
+  @Test
+  public void forwardedRequestsAreServedLocally() throws Exception {
+    ConsistentHashRing ring = new ConsistentHashRing(asList(SELF, unreachablePeer()), 16);
+    PeerForwardingFilter filter = new PeerForwardingFilter(ring, SELF, "X-Client-Id", 100, 0, registry);
+
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/diff/" + notOwned(ring));
+    request.addHeader(PeerForwardingFilter.FORWARDED, "http://localhost:8081");
+
+    assertThat("Forwarded operation is served locally", served(filter, request), is(true));
+  }
+
+  @Test
+  public void unreachableOwner() throws Exception {
+    ConsistentHashRing ring = new ConsistentHashRing(asList(SELF, unreachablePeer()), 16);
+    PeerForwardingFilter filter = new PeerForwardingFilter(ring, SELF, "X-Client-Id", 100, 0, registry);
+    long id = notOwned(ring);
+
+    MockHttpServletResponse response = new MockHttpServletResponse();
+    MockFilterChain chain = new MockFilterChain();
+    filter.doFilter(new MockHttpServletRequest("GET", "/v1/diff/" + id), response, chain);
+
+    assertThat("Operation is not served locally", chain.getRequest(), is(nullValue()));
+    assertThat("Unreachable owner is a bad gateway", response.getStatus(), is(502));
+    assertThat("Failure is counted", registry.get("waes.routing.forwarded").tag("outcome", "failure").counter().count(), is(1.0));
+  }
+
+  @Test
+  public void otherPathsAreServedLocally() throws Exception {
+    String other = unreachablePeer();
+    PeerForwardingFilter filter = new PeerForwardingFilter(new ConsistentHashRing(asList(SELF, other), 16), SELF, "X-Client-Id", 100, 0, registry);
+
+    assertThat("Invalid IDs are served locally", served(filter, new MockHttpServletRequest("GET", "/v1/diff/abc")), is(true));
+    assertThat("Out of range IDs are served locally", served(filter, new MockHttpServletRequest("GET", "/v1/diff/99999999999999999999")), is(true));
+  }
+
+  @Test
+  public void diffOperationsAreGivenTheirDeadline() {
+    PeerForwardingFilter filter = new PeerForwardingFilter(new ConsistentHashRing(asList(SELF), 16), SELF, "X-Client-Id", 100, 10_000, registry);
+    MockHttpServletRequest shorter = new MockHttpServletRequest("GET", "/v1/diff/1/stream");
+    shorter.setParameter("timeoutMs", "500");
+    MockHttpServletRequest longer = new MockHttpServletRequest("GET", "/v1/diff/1");
+    longer.setParameter("timeoutMs", "60000");
+
+    assertThat("Uploads are given the timeout", filter.readTimeout(new MockHttpServletRequest("POST", "/v1/diff/1/left")), is(100));
+    assertThat("Diffs are given the configured deadline", filter.readTimeout(new MockHttpServletRequest("GET", "/v1/diff/1")), is(10_100));
+    assertThat("Diffs are given a shorter requested deadline", filter.readTimeout(shorter), is(600));
+    assertThat("Diffs are not given a longer requested deadline", filter.readTimeout(longer), is(10_100));
+  }
+
+  @Test
+  public void diffOperationsWithoutDeadlineAreNotTimedOut() {
+    PeerForwardingFilter filter = new PeerForwardingFilter(new ConsistentHashRing(asList(SELF), 16), SELF, "X-Client-Id", 100, 0, registry);
+
+    assertThat("Diffs are waited for", filter.readTimeout(new MockHttpServletRequest("GET", "/v1/diff/1")), is(0));
+  }
+
+  @Test
+  public void hugeDeadlinesDoNotOverflow() {
+    PeerForwardingFilter filter = new PeerForwardingFilter(new ConsistentHashRing(asList(SELF), 16), SELF, "X-Client-Id", 100, 0, registry);
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/diff/1");
+    request.setParameter("timeoutMs", String.valueOf(Long.MAX_VALUE));
+
+    assertThat("Diffs are given the longest timeout", filter.readTimeout(request), is(Integer.MAX_VALUE));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void selfMustBeAPeer() {
+    new PeerForwardingFilter(new ConsistentHashRing(asList("http://localhost:8081"), 16), SELF, "X-Client-Id", 100, 0, registry);
+  }
+
+  private static boolean served(PeerForwardingFilter filter, MockHttpServletRequest request) throws Exception {
+    MockFilterChain chain = new MockFilterChain();
+    filter.doFilter(request, new MockHttpServletResponse(), chain);
+    return chain.getRequest() != null;
+  }
+
+  /**
+   * Finds an operation owned by another peer
+   */
+  private static long notOwned(ConsistentHashRing ring) {
+    long id = 0;
+    while (ring.owner(id).equals(SELF)) {
+      id++;
+    }
+    return id;
+  }
+
+  /**
+   * Base URL of a local port nobody listens to
+   */
+  private static String unreachablePeer() throws Exception {
+    try (ServerSocket socket = new ServerSocket(0)) {
+      return "http://localhost:" + socket.getLocalPort();
+    }
+  }
+
+}
@@ -0,0 +1,59 @@
+package com.waes.interview.assignment.startup;
+
+import org.junit.Test;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+/**
+ * Unit test suite for {@link LazyInitBeanFactoryPostProcessor LazyInitBeanFactoryPostProcessor}.
+ *
+ * @author Juan Krzemien
+ */
+public class LazyInitBeanFactoryPostProcessorTest {
+
+  @Test
+  public void applicationBeansAreLazy() {
+    DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    beanFactory.registerBeanDefinition("bean", new RootBeanDefinition(Object.class));
+    beanFactory.registerBeanDefinition("factoryMethodBean", factoryMethodDefinition());
+
+    new LazyInitBeanFactoryPostProcessor().postProcessBeanFactory(beanFactory);
+
+    assertThat("Bean is lazy", beanFactory.getBeanDefinition("bean").isLazyInit(), is(true));
+    assertThat("Bean of unknown type is lazy", beanFactory.getBeanDefinition("factoryMethodBean").isLazyInit(), is(true));
+  }
+
+  @Test
+  public void infrastructureBeansAreEager() {
+    DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+    RootBeanDefinition infrastructure = new RootBeanDefinition(Object.class);
+    infrastructure.setRole(BeanDefinition.ROLE_INFRASTRUCTURE);
+    beanFactory.registerBeanDefinition("infrastructure", infrastructure);
+    beanFactory.registerBeanDefinition("smartInitializing", new RootBeanDefinition(SmartInitializing.class));
+
+    new LazyInitBeanFactoryPostProcessor().postProcessBeanFactory(beanFactory);
+
+    assertThat("Infrastructure bean is eager", beanFactory.getBeanDefinition("infrastructure").isLazyInit(), is(false));
+    assertThat("Smart initializing singleton is eager", beanFactory.getBeanDefinition("smartInitializing").isLazyInit(), is(false));
+  }
+
+  private static BeanDefinition factoryMethodDefinition() {
+    RootBeanDefinition definition = new RootBeanDefinition();
+    definition.setFactoryBeanName("bean");
+    definition.setFactoryMethodName("toString");
+    return definition;
+  }
+
+  public static class SmartInitializing implements SmartInitializingSingleton {
+
+    @Override
+    public void afterSingletonsInstantiated() {
+    }
+  }
+
+}